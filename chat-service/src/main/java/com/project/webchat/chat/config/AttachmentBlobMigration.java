@@ -0,0 +1,86 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.repository.AttachmentRepository;
+import com.project.webchat.chat.service.FileStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * One-off migration of the upload directory into the blob store: every attachment stored before blobs is
+ * hashed and moved into {@code blobs/}, duplicates are deleted, and files no attachment references are
+ * reported. Enabled with {@code app.upload.blob-migration.enabled}; safe to run again, migrated
+ * attachments are skipped.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentBlobMigration implements ApplicationRunner {
+
+    private final AttachmentRepository attachmentRepository;
+    private final FileStorageService fileStorageService;
+
+    @Value("${app.upload.dir}")
+    private String uploadDir;
+
+    @Value("${app.upload.blob-migration.enabled:false}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    void migrate() {
+        int migrated = 0;
+        int failed = 0;
+        try (Stream<Attachment> legacy = attachmentRepository.streamByContentHashIsNull()) {
+            for (Iterator<Attachment> it = legacy.iterator(); it.hasNext(); ) {
+                Attachment attachment = it.next();
+                try {
+                    fileStorageService.adoptIntoBlobStore(attachment);
+                    migrated++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Attachment {} was not migrated: {}", attachment.getId(), e.getMessage());
+                }
+            }
+        }
+        log.info("Blob migration moved {} attachments into the blob store ({} failed)", migrated, failed);
+        reportOrphans();
+    }
+
+    // whatever is left next to blobs/ belongs to no attachment
+    private void reportOrphans() {
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        try (Stream<Path> files = Files.list(uploadPath)) {
+            long[] orphans = new long[2];
+            files.filter(Files::isRegularFile).forEach(file -> {
+                orphans[0]++;
+                try {
+                    orphans[1] += Files.size(file);
+                } catch (IOException ignored) {
+                }
+            });
+            if (orphans[0] > 0) {
+                log.warn("{} files ({} bytes) in {} are not referenced by any attachment",
+                        orphans[0], orphans[1], uploadPath);
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan {} for orphaned files: {}", uploadPath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.project.webchat.chat.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AttachmentThumbnailExecutorConfig {
+
+    /**
+     * Bounded background stage that renders image variants after upload. Decoding is CPU and memory
+     * heavy, so few workers run at once; when the queue is full the job is rejected and the image is
+     * shown from its original instead of slowing the upload down.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor attachmentThumbnailExecutor(
+            @Value("${app.upload.thumbnails.concurrency:2}") int concurrency,
+            @Value("${app.upload.thumbnails.queue-capacity:200}") int queueCapacity) {
+        return new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("attachment-thumbnail-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
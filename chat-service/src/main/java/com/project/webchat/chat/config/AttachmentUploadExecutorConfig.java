@@ -0,0 +1,31 @@
+package com.project.webchat.chat.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AttachmentUploadExecutorConfig {
+
+    /**
+     * Bounded stage that saves the files of one upload in parallel. When the queue is full the request
+     * thread saves the file itself, so concurrent uploads are slowed down rather than rejected.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor attachmentUploadExecutor(
+            @Value("${app.upload.concurrency:4}") int concurrency,
+            @Value("${app.upload.queue-capacity:64}") int queueCapacity) {
+        return new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("attachment-upload-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.webchat.chat.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChatFanOutExecutorConfig {
+
+    /**
+     * Bounded stage for per-member message delivery. Messages of one chat go to the same stripe and are
+     * delivered in send order; when a stripe is full the submitting thread waits, so bursts slow senders
+     * down instead of dropping or reordering events.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public KeyedSerialExecutor chatFanOutExecutor(
+            @Value("${app.delivery.fan-out.concurrency:16}") int concurrency,
+            @Value("${app.delivery.fan-out.queue-capacity:1000}") int queueCapacity) {
+        return new KeyedSerialExecutor("chat-fan-out-", concurrency, queueCapacity);
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableKafka
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    // one group per instance: every node has to drop its own local entries
+    @Value("${app.kafka.consumer.ban-cache-group-id}")
+    private String banCacheGroupId;
+
+    // one group for the service: the eviction drops Redis and tells every node through pub/sub
+    @Value("${app.kafka.consumer.user-info-cache-group-id}")
+    private String userInfoCacheGroupId;
+
+    @Bean
+    public ConsumerFactory<String, UserBanChangedEventV1> userBanChangedConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerProperties(banCacheGroupId, UserBanChangedEventV1.class));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserBanChangedEventV1> userBanChangedKafkaListenerContainerFactory(
+            ConsumerFactory<String, UserBanChangedEventV1> userBanChangedConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, UserBanChangedEventV1> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(userBanChangedConsumerFactory);
+        factory.setCommonErrorHandler(evictionErrorHandler());
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, UserProfileChangedEventV1> userProfileChangedConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(
+                consumerProperties(userInfoCacheGroupId, UserProfileChangedEventV1.class));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserProfileChangedEventV1> userProfileChangedKafkaListenerContainerFactory(
+            ConsumerFactory<String, UserProfileChangedEventV1> userProfileChangedConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, UserProfileChangedEventV1> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(userProfileChangedConsumerFactory);
+        factory.setCommonErrorHandler(evictionErrorHandler());
+        return factory;
+    }
+
+    private Map<String, Object> consumerProperties(String groupId, Class<?> valueType) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // caches only hold recent state, so changes from before the consumer started do not matter
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.project.webchat.shared.events.v1");
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, valueType.getName());
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        return props;
+    }
+
+    // eviction is idempotent; after a few retries the record is logged and skipped
+    private static DefaultErrorHandler evictionErrorHandler() {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new FixedBackOff(400L, 3L));
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+}
@@ -0,0 +1,85 @@
+package com.project.webchat.chat.config;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Striped executor: tasks with the same key always run on the same single-threaded stripe, so they
+ * run one after another in submission order while different keys run in parallel.
+ * When a stripe's queue is full the submitting thread waits for space; running the task on the caller
+ * instead would let it overtake the tasks already queued for that key.
+ */
+public class KeyedSerialExecutor {
+
+    private static final RejectedExecutionHandler WAIT_FOR_SPACE = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+        }
+    };
+
+    private final ThreadPoolExecutor[] stripes;
+
+    public KeyedSerialExecutor(String threadNamePrefix, int stripeCount, int queueCapacity) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be positive");
+        }
+        int perStripe = Math.max(1, (queueCapacity + stripeCount - 1) / stripeCount);
+        this.stripes = new ThreadPoolExecutor[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ThreadPoolExecutor(
+                    1,
+                    1,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(perStripe),
+                    Thread.ofPlatform().name(threadNamePrefix + i).daemon(true).factory(),
+                    WAIT_FOR_SPACE);
+        }
+    }
+
+    public void execute(Object key, Runnable task) {
+        stripes[Math.floorMod(Objects.hashCode(key), stripes.length)].execute(task);
+    }
+
+    public int getQueuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor stripe : stripes) {
+            queued += stripe.getQueue().size();
+        }
+        return queued;
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (ThreadPoolExecutor stripe : stripes) {
+            active += stripe.getActiveCount();
+        }
+        return active;
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor stripe : stripes) {
+            if (!stripe.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.ChatMessage;
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.entity.ChatType;
+import com.project.webchat.chat.entity.RoomMemberInvite;
+import com.project.webchat.chat.entity.RoomMemberInviteState;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every index of the chat-service collections, shaped after the queries that use them, plus the hot
+ * queries that are explained at startup. Entities carry no index annotations; this is the only place
+ * indexes are declared.
+ */
+public final class MongoIndexDefinitions {
+
+    private MongoIndexDefinitions() {
+    }
+
+    public record IndexSpec(Class<?> entity, Index index) {
+    }
+
+    /** A representative query; the probe values do not matter to the planner, only the shape does. */
+    public record HotQuery(String name, Class<?> entity, Document filter, Document sort, int limit) {
+    }
+
+    public static final List<IndexSpec> INDEXES = List.of(
+            // history pages, latest message, count/delete by chat
+            new IndexSpec(ChatMessage.class, new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .on("timestamp", Sort.Direction.DESC)
+                    .on("_id", Sort.Direction.DESC)
+                    .named("chat_timestamp_desc")),
+            // poll lookups only ever scan poll messages
+            new IndexSpec(ChatMessage.class, new Index()
+                    .on("messageType", Sort.Direction.ASC)
+                    .partial(PartialIndexFilter.of(Criteria.where("messageType").is("POLL")))
+                    .named("poll_messages")),
+            // chat list: rooms of a member by last activity; also serves the private-chat lookup
+            new IndexSpec(ChatRoom.class, new Index()
+                    .on("memberIds", Sort.Direction.ASC)
+                    .on("lastActivity", Sort.Direction.DESC)
+                    .named("member_last_activity")),
+            new IndexSpec(ChatRoom.class, new Index()
+                    .on("inviteToken", Sort.Direction.ASC)
+                    .partial(PartialIndexFilter.of(Criteria.where("inviteToken").exists(true)))
+                    .named("invite_token")),
+            // personal spaces of their creator
+            new IndexSpec(ChatRoom.class, new Index()
+                    .on("type", Sort.Direction.ASC)
+                    .on("createdBy", Sort.Direction.ASC)
+                    .on("lastActivity", Sort.Direction.DESC)
+                    .named("type_creator_last_activity")),
+            new IndexSpec(Attachment.class, new Index()
+                    .on("messageId", Sort.Direction.ASC)
+                    .named("message")),
+            new IndexSpec(Attachment.class, new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .named("chat")),
+            new IndexSpec(RoomMemberInvite.class, new Index()
+                    .on("inviteeUserId", Sort.Direction.ASC)
+                    .on("state", Sort.Direction.ASC)
+                    .on("createdAt", Sort.Direction.DESC)
+                    .named("invitee_state_created")),
+            new IndexSpec(RoomMemberInvite.class, new Index()
+                    .on("roomId", Sort.Direction.ASC)
+                    .on("inviteeUserId", Sort.Direction.ASC)
+                    .named("room_invitee")),
+            // one watermark per member of a chat; the upsert in advance() relies on the uniqueness
+            new IndexSpec(ChatReadWatermark.class, new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .on("userId", Sort.Direction.ASC)
+                    .unique()
+                    .named("chat_user"))
+    );
+
+    /**
+     * Single-field indexes the entities used to declare, and the unread partial index that read watermarks
+     * replaced. The compound indexes above cover their prefixes or no query filters on them, so they only
+     * cost writes. Dropped when {@code app.mongo.indexes.drop-obsolete}
+     * is set, otherwise just reported.
+     */
+    public static final Map<Class<?>, List<String>> OBSOLETE_INDEXES = Map.of(
+            ChatMessage.class, List.of("chatId", "senderId", "timestamp", "readAt", "replyToMessageId",
+                    "chat_sender_unread"));
+
+    public static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("message history", ChatMessage.class,
+                    new Document("chatId", "probe"),
+                    new Document("timestamp", -1).append("_id", -1), 50),
+            new HotQuery("unread after watermark", ChatMessage.class,
+                    new Document("chatId", "probe")
+                            .append("senderId", new Document("$ne", -1L))
+                            .append("timestamp", new Document("$gt", new Date(0L))),
+                    null, 0),
+            new HotQuery("latest message", ChatMessage.class,
+                    new Document("chatId", "probe"),
+                    new Document("timestamp", -1), 1),
+            new HotQuery("chat list", ChatRoom.class,
+                    new Document("memberIds", -1L),
+                    new Document("lastActivity", -1), 20),
+            new HotQuery("invite token", ChatRoom.class,
+                    new Document("inviteToken", "probe"), null, 1),
+            new HotQuery("personal spaces", ChatRoom.class,
+                    new Document("type", ChatType.PERSONAL_SPACE.name()).append("createdBy", -1L),
+                    new Document("lastActivity", -1), 0),
+            new HotQuery("message attachments", Attachment.class,
+                    new Document("messageId", "probe"), null, 0),
+            new HotQuery("pending invites", RoomMemberInvite.class,
+                    new Document("inviteeUserId", -1L).append("state", RoomMemberInviteState.PENDING.name()),
+                    new Document("createdAt", -1), 0),
+            new HotQuery("read watermarks", ChatReadWatermark.class,
+                    new Document("chatId", "probe").append("userId", new Document("$in", List.of(-1L))),
+                    null, 0)
+    );
+}
@@ -0,0 +1,151 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.chat.config.MongoIndexDefinitions.HotQuery;
+import com.project.webchat.chat.config.MongoIndexDefinitions.IndexSpec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the indexes from {@link MongoIndexDefinitions} at startup and then explains the hot queries,
+ * logging every one that still scans the collection or sorts in memory. Failures are logged and never
+ * stop the service from starting.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.indexes.ensure:true}")
+    private boolean ensure;
+
+    @Value("${app.mongo.indexes.drop-obsolete:false}")
+    private boolean dropObsolete;
+
+    @Value("${app.mongo.indexes.explain-report:true}")
+    private boolean explainReport;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (ensure) {
+            ensureIndexes();
+            handleObsoleteIndexes();
+        }
+        if (explainReport) {
+            reportCollectionScans();
+        }
+    }
+
+    void ensureIndexes() {
+        for (IndexSpec spec : MongoIndexDefinitions.INDEXES) {
+            try {
+                String name = mongoTemplate.indexOps(spec.entity()).ensureIndex(spec.index());
+                log.debug("Index {} on {} is in place", name, spec.entity().getSimpleName());
+            } catch (Exception e) {
+                log.error("Failed to create index {} on {}: {}",
+                        spec.index().getIndexOptions().get("name"), spec.entity().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    void handleObsoleteIndexes() {
+        MongoIndexDefinitions.OBSOLETE_INDEXES.forEach((entity, names) -> {
+            try {
+                IndexOperations indexOps = mongoTemplate.indexOps(entity);
+                Set<String> existing = new LinkedHashSet<>();
+                for (IndexInfo info : indexOps.getIndexInfo()) {
+                    existing.add(info.getName());
+                }
+                for (String name : names) {
+                    if (!existing.contains(name)) {
+                        continue;
+                    }
+                    if (dropObsolete) {
+                        indexOps.dropIndex(name);
+                        log.info("Dropped obsolete index {} on {}", name, entity.getSimpleName());
+                    } else {
+                        log.info("Obsolete index {} on {} is still present (app.mongo.indexes.drop-obsolete=false)",
+                                name, entity.getSimpleName());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to check obsolete indexes on {}: {}", entity.getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    /** @return names of the hot queries whose winning plan scans the collection */
+    List<String> reportCollectionScans() {
+        List<String> scanning = new ArrayList<>();
+        for (HotQuery query : MongoIndexDefinitions.HOT_QUERIES) {
+            try {
+                Set<String> stages = new LinkedHashSet<>();
+                Set<String> indexNames = new LinkedHashSet<>();
+                collectPlan(winningPlan(explain(query)), stages, indexNames);
+                if (stages.contains("COLLSCAN")) {
+                    scanning.add(query.name());
+                    log.warn("Query '{}' on {} scans the whole collection (plan stages {})",
+                            query.name(), query.entity().getSimpleName(), stages);
+                } else if (stages.contains("SORT")) {
+                    log.warn("Query '{}' on {} uses index {} but sorts in memory",
+                            query.name(), query.entity().getSimpleName(), indexNames);
+                } else {
+                    log.info("Query '{}' on {} uses index {}", query.name(), query.entity().getSimpleName(), indexNames);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to explain query '{}': {}", query.name(), e.getMessage());
+            }
+        }
+        if (!scanning.isEmpty()) {
+            log.warn("{} of {} hot queries scan their collection: {}",
+                    scanning.size(), MongoIndexDefinitions.HOT_QUERIES.size(), scanning);
+        }
+        return scanning;
+    }
+
+    private Document explain(HotQuery query) {
+        var find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(query.entity()))
+                .find(query.filter());
+        if (query.sort() != null) {
+            find = find.sort(query.sort());
+        }
+        if (query.limit() > 0) {
+            find = find.limit(query.limit());
+        }
+        return find.explain();
+    }
+
+    static Document winningPlan(Document explain) {
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        return queryPlanner != null ? queryPlanner.get("winningPlan", Document.class) : null;
+    }
+
+    // walks the plan tree (classic and SBE layouts) collecting stage and index names
+    static void collectPlan(Object node, Set<String> stages, Set<String> indexNames) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (document.get("indexName") instanceof String indexName) {
+                indexNames.add(indexName);
+            }
+            document.values().forEach(value -> collectPlan(value, stages, indexNames));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectPlan(value, stages, indexNames));
+        }
+    }
+}
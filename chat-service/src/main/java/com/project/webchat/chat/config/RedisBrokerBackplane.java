@@ -0,0 +1,117 @@
+package com.project.webchat.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.util.UUID;
+
+/**
+ * Cross-instance backplane for the simple broker. Sends on the local broker channel to /topic or
+ * unresolved /user destinations are published to a Redis channel; other instances replay them into
+ * their own broker channel, where the simple broker and user destination resolution deliver them to
+ * local sessions. Replayed messages carry {@link #RELAYED_HEADER} so they are never published again.
+ */
+@Slf4j
+public class RedisBrokerBackplane implements ChannelInterceptor, MessageListener {
+
+    static final String RELAYED_HEADER = "chatBackplaneOrigin";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final String channel;
+
+    record Envelope(String origin, String destination, String contentType, byte[] payload) {
+    }
+
+    public RedisBrokerBackplane(RedisTemplate<String, String> redisTemplate,
+                                ObjectMapper objectMapper,
+                                ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                String channel) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel brokerChannel) {
+        if (shouldPublish(message)) {
+            publish(message);
+        }
+        return message;
+    }
+
+    @Override
+    public void onMessage(@NonNull org.springframework.data.redis.connection.Message redisMessage, byte[] pattern) {
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(redisMessage.getBody(), Envelope.class);
+        } catch (Exception e) {
+            log.warn("Dropping malformed backplane message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.origin())) {
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(envelope.destination());
+        if (envelope.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.contentType()));
+        }
+        accessor.setHeader(RELAYED_HEADER, envelope.origin());
+        accessor.setLeaveMutable(true);
+        messagingTemplate.getObject().send(envelope.destination(),
+                MessageBuilder.createMessage(envelope.payload(), accessor.getMessageHeaders()));
+    }
+
+    private boolean shouldPublish(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        if (headers.containsKey(RELAYED_HEADER)
+                || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[])) {
+            return false;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null) {
+            return false;
+        }
+        // resolved per-session user destinations (/queue/...-user{session}) are produced on every node
+        return destination.startsWith("/topic/") || destination.startsWith("/user/");
+    }
+
+    private void publish(Message<?> message) {
+        MessageHeaders headers = message.getHeaders();
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        Envelope envelope = new Envelope(
+                nodeId,
+                SimpMessageHeaderAccessor.getDestination(headers),
+                contentType != null ? contentType.toString() : null,
+                (byte[]) message.getPayload());
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(envelope));
+        } catch (Exception e) {
+            // local delivery still happens; only remote instances miss this event
+            log.error("Failed to publish {} to backplane: {}", envelope.destination(), e.getMessage());
+        }
+    }
+}
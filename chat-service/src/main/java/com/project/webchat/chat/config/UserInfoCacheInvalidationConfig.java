@@ -0,0 +1,23 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.chat.service.RedisService;
+import com.project.webchat.chat.service.user.LocalUserInfoCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class UserInfoCacheInvalidationConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userInfoInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, LocalUserInfoCache localUserInfoCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(localUserInfoCache,
+                new ChannelTopic(RedisService.USER_INFO_INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.webchat.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+@Configuration
+@ConditionalOnProperty(prefix = "websocket.broker", name = "mode", havingValue = "redis")
+public class WebSocketBrokerBackplaneConfig {
+
+    @Bean
+    public RedisBrokerBackplane redisBrokerBackplane(RedisTemplate<String, String> redisTemplate,
+                                                     ObjectMapper objectMapper,
+                                                     ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+                                                     WebSocketProperties webSocketProperties) {
+        return new RedisBrokerBackplane(redisTemplate, objectMapper, messagingTemplate,
+                webSocketProperties.getBroker().getRedisChannel());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer webSocketBackplaneListenerContainer(
+            RedisConnectionFactory connectionFactory, RedisBrokerBackplane redisBrokerBackplane) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(redisBrokerBackplane, new ChannelTopic(redisBrokerBackplane.getChannel()));
+        return container;
+    }
+}
@@ -1,12 +1,15 @@
 package com.project.webchat.chat.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -15,10 +18,27 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final StompJwtChannelInterceptor stompJwtChannelInterceptor;
     private final WebSocketProperties webSocketProperties;
+    private final ObjectProvider<RedisBrokerBackplane> redisBrokerBackplane;
+    private final WebSocketTransportMetrics transportMetrics;
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(stompJwtChannelInterceptor);
+        registration.taskExecutor(channelExecutor("inbound", webSocketProperties.getInboundChannel()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("outbound", webSocketProperties.getOutboundChannel()));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // a session whose outbound buffer or blocked send exceeds these limits is closed (slow client)
+        registration.setMessageSizeLimit(webSocketProperties.getMessageSizeLimit())
+                .setSendBufferSizeLimit(webSocketProperties.getBufferSize())
+                .setSendTimeLimit(webSocketProperties.getSendTimeLimit())
+                .addDecoratorFactory(transportMetrics::decorate);
     }
 
     @Override
@@ -31,6 +51,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // prefix for private messages
         config.setUserDestinationPrefix("/user");
+
+        // share broker traffic with the other instances
+        if (webSocketProperties.getBroker().getMode() == WebSocketProperties.BrokerMode.REDIS) {
+            config.configureBrokerChannel().interceptors(redisBrokerBackplane.getObject());
+        }
     }
 
     @Override
@@ -45,4 +70,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint(webSocketProperties.getEndpoint())
                 .setAllowedOriginPatterns(webSocketProperties.getAllowedOrigins());
     }
+
+    private ThreadPoolTaskExecutor channelExecutor(String name, WebSocketProperties.ChannelPool pool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-" + name + "-");
+        executor.setCorePoolSize(pool.getCorePoolSize());
+        executor.setMaxPoolSize(pool.getMaxPoolSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        if (pool.isVirtualThreads()) {
+            executor.setThreadFactory(Thread.ofVirtual().name("ws-" + name + "-", 0).factory());
+        }
+        transportMetrics.monitorChannelExecutor(name, executor);
+        return executor;
+    }
 }
@@ -10,8 +10,34 @@ import org.springframework.stereotype.Component;
 public class WebSocketProperties {
     private String endpoint = "/ws/chat";
     private String[] allowedOrigins = {"*"};
-    private int messageSizeLimit = 32768; //32KB
-    private int bufferSize = 51200; //50KB
+    private int messageSizeLimit = 65536; //64KB, Spring's default for inbound frames
+    // 2MB outbound buffer per session before the client is cut off: a room DTO of a 1000-member group is
+    // ~270KB, so a few queued chat updates for a healthy client must fit (Spring's default is 512KB)
+    private int bufferSize = 2 * 1024 * 1024;
+    private int sendTimeLimit = 10000; //ms a single send may block before the client is cut off
+    private Broker broker = new Broker();
+    private ChannelPool inboundChannel = new ChannelPool();
+    private ChannelPool outboundChannel = new ChannelPool();
 
+    public enum BrokerMode {
+        /** In-memory broker, deliveries stay on this instance. */
+        SIMPLE,
+        /** In-memory broker plus Redis pub/sub so /topic and /user sends reach sockets on every instance. */
+        REDIS
+    }
 
+    /** Thread pool behind a client channel; with virtual threads the pool sizes still bound concurrency. */
+    @Data
+    public static class ChannelPool {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private int maxPoolSize = Integer.MAX_VALUE;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private boolean virtualThreads = false;
+    }
+
+    @Data
+    public static class Broker {
+        private BrokerMode mode = BrokerMode.SIMPLE;
+        private String redisChannel = "chat:ws:broadcast";
+    }
 }
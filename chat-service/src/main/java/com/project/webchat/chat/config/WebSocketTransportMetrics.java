@@ -0,0 +1,65 @@
+package com.project.webchat.chat.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saturation metrics for the STOMP transport: open sessions, sessions dropped because their
+ * outbound buffer or send time limit overflowed, and the client channel executor backlogs.
+ */
+@Component
+@Slf4j
+public class WebSocketTransportMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final Counter slowClientDisconnects;
+
+    public WebSocketTransportMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("chat.websocket.sessions.open", openSessions, AtomicInteger::get)
+                .register(meterRegistry);
+        this.slowClientDisconnects = Counter.builder("chat.websocket.sessions.slow.disconnects")
+                .description("Sessions closed because the outbound buffer or send time limit was exceeded")
+                .register(meterRegistry);
+    }
+
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                openSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                openSessions.decrementAndGet();
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowClientDisconnects.increment();
+                    log.warn("WebSocket session {} closed as slow consumer: {}", session.getId(), closeStatus.getReason());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public void monitorChannelExecutor(String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("chat.websocket.channel.queue.depth", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+}
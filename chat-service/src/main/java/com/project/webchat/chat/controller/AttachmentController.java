@@ -2,23 +2,25 @@ package com.project.webchat.chat.controller;
 
 import com.project.webchat.chat.dto.AttachmentDTO;
 import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
 import com.project.webchat.chat.security.CustomUserDetails;
 import com.project.webchat.chat.service.ChatService;
 import com.project.webchat.chat.service.FileStorageService;
+import com.project.webchat.chat.service.support.AttachmentDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +32,7 @@ public class AttachmentController {
 
     private final FileStorageService fileStorageService;
     private final ChatService chatService;
+    private final AttachmentDownloadService attachmentDownloadService;
 
     @GetMapping("/{chatId}/attachments")
     public ResponseEntity<List<AttachmentDTO>> listChatAttachments(
@@ -70,8 +73,8 @@ public class AttachmentController {
                             "error", "Forbidden"));
         }
 
-        List<AttachmentDTO> attachments = files.stream()
-                .map(file -> fileStorageService.saveFile(file, currentUser.getId(), chatId))
+        List<AttachmentDTO> attachments = fileStorageService.saveFiles(files, currentUser.getId(), chatId)
+                .stream()
                 .map(AttachmentDTO::fromEntity)
                 .toList();
 
@@ -79,43 +82,47 @@ public class AttachmentController {
     }
 
     @GetMapping("/attachments/{attachmentId}")
-    public ResponseEntity<Resource> downloadAttachment(
+    public void downloadAttachment(
             @PathVariable String attachmentId,
             @RequestParam(name = "download", defaultValue = "false") boolean forceDownload,
             @RequestParam(name = "token", required = false) String token,
-            @AuthenticationPrincipal CustomUserDetails currentUser) {
+            @RequestParam(name = "variant", required = false) String variantKey,
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
         Attachment attachment = fileStorageService.getAttachmentById(attachmentId);
         boolean isMember = chatService.isUserChatMember(attachment.getChatId(), currentUser.getId());
 
         if (!isMember) {
-            return ResponseEntity.status(403).build();
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
         }
 
-        FileSystemResource resource = new FileSystemResource(attachment.getFilePath());
-        if (!resource.exists()) {
-            return ResponseEntity.notFound().build();
+        // downscaled rendition for bubbles and galleries; 404 until it is rendered, clients fall back to the original
+        AttachmentVariant variant = null;
+        if (variantKey != null) {
+            variant = AttachmentVariant.fromKey(variantKey).orElse(null);
+            if (variant == null) {
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                return;
+            }
         }
-
-        MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
-        try {
-            mediaType = MediaType.parseMediaType(attachment.getMimeType());
-        } catch (Exception ignored) {
+        Path file = variant != null
+                ? fileStorageService.getVariantPath(attachment, variant)
+                : Paths.get(attachment.getFilePath());
+        if (file == null || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
         }
 
+        // variants are always JPEG images, whatever the stored mime type says
+        String mimeType = attachment.getMimeType();
         boolean isInlinePreview = !forceDownload
-                && (attachment.getMimeType() != null)
-                && (attachment.getMimeType().startsWith("image/")
-                || attachment.getMimeType().startsWith("video/"));
-
-        ContentDisposition disposition = ContentDisposition
-                .builder(isInlinePreview ? "inline" : "attachment")
-                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
-                .build();
-
-        return ResponseEntity.ok()
-                .contentType(mediaType)
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .body(resource);
+                && (variant != null
+                || (mimeType != null && (mimeType.startsWith("image/") || mimeType.startsWith("video/"))));
+
+        // byte ranges, conditional GETs and zero-copy transfer
+        attachmentDownloadService.serve(attachment, variant, file, isInlinePreview, request, response);
     }
 }
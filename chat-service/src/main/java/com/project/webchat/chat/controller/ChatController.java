@@ -9,6 +9,7 @@ import com.project.webchat.chat.dto.CreateGroupChannelRequest;
 import com.project.webchat.chat.dto.CreatePersonalSpaceRequest;
 import com.project.webchat.chat.dto.DiscoverableRoomDTO;
 import com.project.webchat.chat.dto.EditMessageRequest;
+import com.project.webchat.chat.dto.MessageHistorySliceDTO;
 import com.project.webchat.chat.dto.MessageReactionDTO;
 import com.project.webchat.chat.dto.ToggleReactionRequest;
 import com.project.webchat.chat.dto.InvitePayloadDTO;
@@ -29,9 +30,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
@@ -135,6 +138,25 @@ public class ChatController {
         return ResponseEntity.ok(messages);
     }
 
+    //cursor-based message history, newest first; pass oldestMessageId as "before" to scroll back
+    @GetMapping("/{chatId}/messages/history")
+    public ResponseEntity<MessageHistorySliceDTO> getMessageHistorySlice(
+            @PathVariable String chatId,
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterTime,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        if (!chatService.isUserChatMember(chatId, currentUser.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(chatService.getMessageHistorySlice(
+                chatId, currentUser.getId(), before, after, beforeTime, afterTime, limit));
+    }
+
     @PostMapping("/{chatId}/typing")
     public ResponseEntity<Void> typing(
             @PathVariable String chatId,
@@ -1,5 +1,6 @@
 package com.project.webchat.chat.controller;
 
+import com.project.webchat.chat.dto.PresenceSnapshotDTO;
 import com.project.webchat.chat.security.CustomUserDetails;
 import com.project.webchat.chat.service.ChatService;
 import com.project.webchat.chat.service.RedisService;
@@ -9,8 +10,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -19,6 +23,8 @@ import java.util.Set;
 @RequestMapping("/api/presence")
 public class PresenceController {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final RedisService redisService;
     private final ChatService chatService;
     private final WebSocketService webSocketService;
@@ -45,11 +51,7 @@ public class PresenceController {
             @PathVariable String chatId,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
         //update presence if user is still in the chat
-        String currentChat = redisService.getCurrentChat(userDetails.getId());
-
-        if (chatId.equals(currentChat)) {
-            redisService.heartbeat(userDetails.getId());
-        }
+        redisService.heartbeat(userDetails.getId(), chatId);
 
         return ResponseEntity.ok().build();
     }
@@ -100,6 +102,31 @@ public class PresenceController {
         return ResponseEntity.ok(redisService.getOnlineUsersInChat(chatId));
     }
 
+    //presence of every participant of a chat in one call
+    @GetMapping("/chat/{chatId}/members")
+    public ResponseEntity<List<PresenceSnapshotDTO>> getRoomPresence(
+            @PathVariable String chatId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Collection<Long> participantIds = chatService.getRoomParticipantIdsForMember(chatId, userDetails.getId());
+        return ResponseEntity.ok(new ArrayList<>(redisService.getPresenceSnapshot(participantIds, chatId).values()));
+    }
+
+    //presence of a set of users; ids the caller shares no room with are left out
+    @PostMapping("/status/batch")
+    public ResponseEntity<List<PresenceSnapshotDTO>> getStatusBatch(
+            @RequestBody List<Long> userIds,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        if (userIds == null || userIds.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        if (userIds.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        Set<Long> visible = chatService.getUsersSharingRoomWith(userDetails.getId(), userIds);
+        List<Long> allowed = userIds.stream().filter(visible::contains).toList();
+        return ResponseEntity.ok(new ArrayList<>(redisService.getPresenceSnapshot(allowed, null).values()));
+    }
+
     //when user leaves a chat
     @PostMapping("/leave/{chatId}")
     public ResponseEntity<Void> leave(
@@ -1,6 +1,7 @@
 package com.project.webchat.chat.dto;
 
 import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,9 @@ public class AttachmentDTO {
     private String fileType;
     private String createdAt;
     private String downloadUrl;
+    // set once the variant is rendered; clients fall back to downloadUrl
+    private String thumbnailUrl;
+    private String previewUrl;
 
     private boolean isImage;
 
@@ -33,6 +37,8 @@ public class AttachmentDTO {
                 .fileType(attachment.getFileType().toString())
                 .createdAt(attachment.getCreatedAt().toString())
                 .downloadUrl(baseUrl + "/api/chat/attachments/" + attachment.getId())
+                .thumbnailUrl(variantUrl(baseUrl, attachment, AttachmentVariant.THUMB))
+                .previewUrl(variantUrl(baseUrl, attachment, AttachmentVariant.PREVIEW))
                 .isImage(attachment.isImage())
                 .build();
     }
@@ -47,7 +53,15 @@ public class AttachmentDTO {
                 .fileType(attachment.getFileType().toString())
                 .createdAt(attachment.getCreatedAt().toString())
                 .downloadUrl("/api/chat/attachments/" + attachment.getId())
+                .thumbnailUrl(variantUrl("", attachment, AttachmentVariant.THUMB))
+                .previewUrl(variantUrl("", attachment, AttachmentVariant.PREVIEW))
                 .isImage(attachment.isImage())
                 .build();
     }
+
+    private static String variantUrl(String baseUrl, Attachment attachment, AttachmentVariant variant) {
+        return attachment.hasVariant(variant)
+                ? baseUrl + "/api/chat/attachments/" + attachment.getId() + "?variant=" + variant.key()
+                : null;
+    }
 }
@@ -0,0 +1,24 @@
+package com.project.webchat.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** One cursor page of message history. Unlike the paged endpoint there is no total count. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageHistorySliceDTO {
+    /** Newest first, whichever direction was requested. */
+    private List<ChatMessageDTO> messages;
+    /** Whether more messages exist in the requested direction. */
+    private boolean hasMore;
+    /** Pass as {@code before} to scroll further back. */
+    private String oldestMessageId;
+    /** Pass as {@code after} to scroll forward. */
+    private String newestMessageId;
+}
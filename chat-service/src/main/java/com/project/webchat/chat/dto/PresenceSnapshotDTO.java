@@ -0,0 +1,19 @@
+package com.project.webchat.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PresenceSnapshotDTO {
+    private Long userId;
+    private boolean online;
+    // only set by the per-room query: whether the user has that room open; other chats are never exposed
+    private boolean onlineInChat;
+    private boolean afk;
+    private Long lastSeen;
+}
@@ -0,0 +1,19 @@
+package com.project.webchat.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserBanEdgesDTO {
+    //users this user has banned
+    private Set<Long> bannedUserIds;
+    //users who have banned this user
+    private Set<Long> banningUserIds;
+}
@@ -1,16 +1,20 @@
 package com.project.webchat.chat.dto.websocketDTOs;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import lombok.Getter;
 
+/**
+ * Carries the reader's new watermark: every message not sent by {@code userId}
+ * with a timestamp up to {@code readUpTo} is read by them.
+ */
 @Getter
 public class ReadReceiptEvent extends BaseWebsocketEvent {
     private final Long userId;
-    private final List<String> messageIds;
+    private final LocalDateTime readUpTo;
 
-    public ReadReceiptEvent(Long userId, List<String> messageIds) {
+    public ReadReceiptEvent(Long userId, LocalDateTime readUpTo) {
         super("READ_RECEIPT");
         this.userId = userId;
-        this.messageIds = messageIds;
+        this.readUpTo = readUpTo;
     }
 }
@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Document(collection = "attachments")
 @Data
@@ -21,7 +22,9 @@ public class Attachment {
 
     private String filename;
 
-    private String storedFilename; // must be unique
+    private String storedFilename; // blob name; shared by attachments with the same content
+
+    private String contentHash; // hex SHA-256, id of the AttachmentBlob; null for files stored before blobs
 
     private Long size; // in bytes
 
@@ -41,8 +44,16 @@ public class Attachment {
 
     private Long uploaderId;
 
+    // keys of the AttachmentVariant renditions generated for this image; empty until they are ready
+    @Builder.Default
+    private List<String> variants = List.of();
+
     public boolean isImage() {
         return fileType == FileType.IMAGE;
     }
 
+    public boolean hasVariant(AttachmentVariant variant) {
+        return variants != null && variants.contains(variant.key());
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.project.webchat.chat.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored file, keyed by the SHA-256 of its content. Every {@link Attachment} with the same
+ * {@code contentHash} shares it; the file is unlinked when {@code refCount} drops to zero.
+ */
+@Document(collection = "attachment_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+
+    @Id
+    private String id; // hex SHA-256
+
+    private Long size; // in bytes
+
+    private long refCount;
+
+    private LocalDateTime createdAt;
+
+    // set while the files of the last reference are unlinked; uploads of the content wait for it
+    private LocalDateTime unlinkingSince;
+}
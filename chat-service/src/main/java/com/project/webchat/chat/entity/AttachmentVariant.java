@@ -0,0 +1,32 @@
+package com.project.webchat.chat.entity;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/** Downscaled JPEG renditions generated for image attachments; the longest edge is at most {@code maxEdge}. */
+public enum AttachmentVariant {
+    THUMB(320),
+    PREVIEW(1280);
+
+    private final int maxEdge;
+
+    AttachmentVariant(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int maxEdge() {
+        return maxEdge;
+    }
+
+    // name used in URLs and stored on the attachment
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Optional<AttachmentVariant> fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(variant -> variant.key().equalsIgnoreCase(key))
+                .findFirst();
+    }
+}
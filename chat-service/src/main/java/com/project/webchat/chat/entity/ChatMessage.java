@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -14,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "messages")
+// indexes are declared in config.MongoIndexDefinitions
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,10 +23,8 @@ public class ChatMessage {
     @Id
     private String id;
 
-    @Indexed
     private String chatId;
 
-    @Indexed
     private Long senderId;
 
     private String senderName;
@@ -35,7 +33,6 @@ public class ChatMessage {
 
     private MessageType messageType;
 
-    @Indexed
     private String replyToMessageId;
 
     /** Original author when this message is a forward (may differ from {@link #senderId}). */
@@ -54,7 +51,6 @@ public class ChatMessage {
     @Builder.Default
     private List<String> attachmentIds = new ArrayList<>();
 
-    @Indexed
     @Builder.Default
     private LocalDateTime timestamp = LocalDateTime.now();
 
@@ -62,7 +58,6 @@ public class ChatMessage {
 
     private boolean isRead;
 
-    @Indexed
     @Builder.Default
     private LocalDateTime readAt = null;
 
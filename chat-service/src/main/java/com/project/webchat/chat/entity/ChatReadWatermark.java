@@ -0,0 +1,29 @@
+package com.project.webchat.chat.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last-read position of one member in one chat: every message not sent by {@code userId}
+ * with a timestamp up to {@code lastReadAt} is read by them. Only ever moves forward.
+ */
+@Document(collection = "chat_read_watermarks")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReadWatermark {
+
+    @Id
+    private String id;
+
+    private String chatId;
+    private Long userId;
+    private LocalDateTime lastReadAt;
+}
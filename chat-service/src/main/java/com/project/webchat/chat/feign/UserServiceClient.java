@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.Collection;
 import java.util.List;
 
 @FeignClient(name = "user-service", url = "${feign.client.user-service.url:}")
@@ -23,6 +24,9 @@ public interface UserServiceClient {
     @GetMapping("/api/users/{id}")
     ResponseEntity<UserDTO> getUserById(@PathVariable("id") Long id);
 
+    @PostMapping("/api/users/internal/batch")
+    List<UserDTO> getUsersByIds(@RequestBody Collection<Long> userIds);
+
     @GetMapping("/api/users/by-username/{username}")
     ResponseEntity<UserDTO> getUserByUsername(@PathVariable("username") String username);
 
@@ -0,0 +1,8 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.AttachmentBlob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AttachmentBlobRepository
+        extends MongoRepository<AttachmentBlob, String>, AttachmentBlobRepositoryCustom {
+}
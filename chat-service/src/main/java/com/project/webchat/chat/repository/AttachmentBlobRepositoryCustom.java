@@ -0,0 +1,43 @@
+package com.project.webchat.chat.repository;
+
+import java.time.LocalDateTime;
+
+public interface AttachmentBlobRepositoryCustom {
+
+    enum Acquired {
+        /** The record is new, or was taken over from an abandoned unlink: the caller puts the file in place. */
+        CREATED,
+        /** The content is already stored. */
+        EXISTING,
+        /** The content is being unlinked (or created at the same instant) elsewhere; try again shortly. */
+        BUSY
+    }
+
+    /** Adds a reference, creating the blob record when this content is new. */
+    Acquired acquire(String hash, long size);
+
+    /**
+     * Adds a reference to a blob that must already exist.
+     *
+     * @return false when there is no such blob or it is being unlinked
+     */
+    boolean retain(String hash);
+
+    /**
+     * Drops a reference.
+     *
+     * @return references left, or -1 when there is no such blob
+     */
+    long release(String hash);
+
+    /**
+     * Claims the unlink of a blob nothing references any more. Until {@link #finishUnlink} the record stays,
+     * so an upload of the same content on any node waits instead of moving a file that is about to go.
+     *
+     * @return the marker for {@link #finishUnlink}, or null when the blob is referenced again or already claimed
+     */
+    LocalDateTime beginUnlink(String hash);
+
+    /** Removes the record once its files are gone, unless an upload took an abandoned unlink over. */
+    void finishUnlink(String hash, LocalDateTime marker);
+}
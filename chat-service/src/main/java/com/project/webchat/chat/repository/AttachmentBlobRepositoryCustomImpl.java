@@ -0,0 +1,81 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.AttachmentBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@RequiredArgsConstructor
+class AttachmentBlobRepositoryCustomImpl implements AttachmentBlobRepositoryCustom {
+
+    // an unlink takes milliseconds; a claim this old belongs to a node that died halfway
+    static final Duration ABANDONED_UNLINK = Duration.ofMinutes(5);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Acquired acquire(String hash, long size) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(hash).orOperator(
+                Criteria.where("unlinkingSince").exists(false),
+                Criteria.where("unlinkingSince").lt(now.minus(ABANDONED_UNLINK))));
+        Update update = new Update()
+                .inc("refCount", 1)
+                .unset("unlinkingSince")
+                .setOnInsert("size", size)
+                .setOnInsert("createdAt", now);
+        try {
+            AttachmentBlob previous = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), AttachmentBlob.class);
+            // a taken over record may have lost its file already, so it is placed again like a new one
+            return previous == null || previous.getUnlinkingSince() != null ? Acquired.CREATED : Acquired.EXISTING;
+        } catch (DuplicateKeyException e) {
+            // the record exists but did not match: an unlink is running
+            return Acquired.BUSY;
+        }
+    }
+
+    @Override
+    public boolean retain(String hash) {
+        Query query = Query.query(Criteria.where("_id").is(hash).and("unlinkingSince").exists(false));
+        return mongoTemplate.updateFirst(query, new Update().inc("refCount", 1), AttachmentBlob.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public long release(String hash) {
+        AttachmentBlob blob = mongoTemplate.findAndModify(byHash(hash), new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true), AttachmentBlob.class);
+        return blob == null ? -1 : blob.getRefCount();
+    }
+
+    @Override
+    public LocalDateTime beginUnlink(String hash) {
+        // stored dates have millisecond precision; the marker must compare equal when read back
+        LocalDateTime marker = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Query query = Query.query(Criteria.where("_id").is(hash)
+                .and("refCount").lte(0)
+                .and("unlinkingSince").exists(false));
+        boolean claimed = mongoTemplate.updateFirst(query, new Update().set("unlinkingSince", marker),
+                AttachmentBlob.class).getModifiedCount() > 0;
+        return claimed ? marker : null;
+    }
+
+    @Override
+    public void finishUnlink(String hash, LocalDateTime marker) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(hash).and("unlinkingSince").is(marker)),
+                AttachmentBlob.class);
+    }
+
+    private static Query byHash(String hash) {
+        return Query.query(Criteria.where("_id").is(hash));
+    }
+}
@@ -5,8 +5,9 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface AttachmentRepository extends MongoRepository<Attachment, String> {
+public interface AttachmentRepository extends MongoRepository<Attachment, String>, AttachmentRepositoryCustom {
 
     // find all message attachments
     List<Attachment> findByMessageId(String messageId);
@@ -18,4 +19,7 @@ public interface AttachmentRepository extends MongoRepository<Attachment, String
     Optional<Attachment> findByIdAndChatId(String id, String chatId);
 
     void deleteByChatId(String chatId);
+
+    // attachments stored before the blob store, for the one-off migration
+    Stream<Attachment> streamByContentHashIsNull();
 }
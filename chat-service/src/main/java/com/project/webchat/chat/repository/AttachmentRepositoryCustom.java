@@ -0,0 +1,22 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.Attachment;
+
+import java.util.Collection;
+
+public interface AttachmentRepositoryCustom {
+
+    /**
+     * Records generated renditions with a targeted {@code $addToSet}, so a concurrent update of the
+     * attachment (e.g. linking it to its message) is not overwritten.
+     */
+    void addVariants(String attachmentId, Collection<String> variants);
+
+    /**
+     * Sets the message with a targeted {@code $set}; a full save could write back a variant list read
+     * before the thumbnail job added to it.
+     *
+     * @return the updated attachment, or null when it does not exist
+     */
+    Attachment linkToMessage(String attachmentId, String messageId);
+}
@@ -0,0 +1,35 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.Attachment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+@RequiredArgsConstructor
+class AttachmentRepositoryCustomImpl implements AttachmentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void addVariants(String attachmentId, Collection<String> variants) {
+        if (variants.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("_id").is(attachmentId));
+        Update update = new Update().addToSet("variants").each(variants.toArray());
+        mongoTemplate.updateFirst(query, update, Attachment.class);
+    }
+
+    @Override
+    public Attachment linkToMessage(String attachmentId, String messageId) {
+        Query query = Query.query(Criteria.where("_id").is(attachmentId));
+        Update update = new Update().set("messageId", messageId);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Attachment.class);
+    }
+}
@@ -11,15 +11,11 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ChatMessageRepository extends MongoRepository<ChatMessage, String> {
+public interface ChatMessageRepository extends MongoRepository<ChatMessage, String>, ChatMessageRepositoryCustom {
 
     //find all messages with pagination, oldest first
     Page<ChatMessage> findByChatIdOrderByTimestampAsc(String chatId, Pageable pageable);
 
-    //find unread messages (user is not a sender)
-    @Query("{ 'chatId' : ?0, 'senderId' : { $ne: ?1 }, 'isRead' : false }")
-    List<ChatMessage> findUnreadMessagesNotFromUser(String chatId, Long senderId);
-
     //last 30 messages in the chat
     @Query(value = "{ 'chatId' : ?0 }", sort = "{ 'timestamp' : -1 }")
     List<ChatMessage> findLast30ByChatId(String chatId, Pageable pageable);
@@ -0,0 +1,37 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ChatMessageRepositoryCustom {
+
+    /**
+     * Keyset page of a chat's history on the {@code {chatId, timestamp, _id}} index: no skip and no count,
+     * so deep pages cost the same as the first one.
+     *
+     * @param anchorTimestamp exclusive bound, or null to start at the newest message
+     * @param anchorId        tie-breaker for messages sharing {@code anchorTimestamp}; may be null
+     * @param older           true for messages before the anchor (newest first), false for after it (oldest first)
+     */
+    List<ChatMessage> findHistorySlice(String chatId, LocalDateTime anchorTimestamp, String anchorId,
+                                       boolean older, int limit);
+
+    /**
+     * Messages of a chat not sent by {@code readerId} that are newer than the reader's watermark:
+     * a range count on the {@code {chatId, timestamp}} index.
+     */
+    long countUnreadAfter(String chatId, Long readerId, LocalDateTime watermark);
+
+    /** Timestamp of the newest message in the chat, read from the index without loading the document. */
+    Optional<LocalDateTime> findNewestTimestamp(String chatId);
+
+    /**
+     * Newest message per sender that carries the legacy {@code isRead} flag, in one aggregate; seeds the
+     * watermarks of members who have not read the chat since watermarks were introduced.
+     */
+    Map<Long, LocalDateTime> findNewestLegacyReadTimestampBySender(String chatId);
+}
@@ -0,0 +1,81 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class ChatMessageRepositoryCustomImpl implements ChatMessageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ChatMessage> findHistorySlice(String chatId, LocalDateTime anchorTimestamp, String anchorId,
+                                              boolean older, int limit) {
+        Criteria criteria = Criteria.where("chatId").is(chatId);
+        if (anchorTimestamp != null && anchorId == null) {
+            criteria = older
+                    ? criteria.and("timestamp").lt(anchorTimestamp)
+                    : criteria.and("timestamp").gt(anchorTimestamp);
+        } else if (anchorTimestamp != null) {
+            Criteria sameTimestamp = Criteria.where("timestamp").is(anchorTimestamp);
+            criteria.orOperator(
+                    older ? Criteria.where("timestamp").lt(anchorTimestamp) : Criteria.where("timestamp").gt(anchorTimestamp),
+                    older ? sameTimestamp.and("_id").lt(anchorId) : sameTimestamp.and("_id").gt(anchorId));
+        }
+        Sort.Direction direction = older ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Query query = Query.query(criteria)
+                .with(Sort.by(direction, "timestamp").and(Sort.by(direction, "_id")))
+                .limit(limit);
+        return mongoTemplate.find(query, ChatMessage.class);
+    }
+
+    @Override
+    public long countUnreadAfter(String chatId, Long readerId, LocalDateTime watermark) {
+        Criteria criteria = Criteria.where("chatId").is(chatId).and("senderId").ne(readerId);
+        if (watermark != null) {
+            criteria = criteria.and("timestamp").gt(watermark);
+        }
+        return mongoTemplate.count(Query.query(criteria), ChatMessage.class);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findNewestTimestamp(String chatId) {
+        return findNewestTimestamp(Criteria.where("chatId").is(chatId));
+    }
+
+    @Override
+    public Map<Long, LocalDateTime> findNewestLegacyReadTimestampBySender(String chatId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("chatId").is(chatId).and("isRead").is(true)),
+                Aggregation.group("senderId").max("timestamp").as("timestamp"));
+        Map<Long, LocalDateTime> newestBySender = new HashMap<>();
+        for (SenderNewestRead row : mongoTemplate.aggregate(aggregation, ChatMessage.class, SenderNewestRead.class)) {
+            newestBySender.put(row.senderId(), row.timestamp());
+        }
+        return newestBySender;
+    }
+
+    private Optional<LocalDateTime> findNewestTimestamp(Criteria criteria) {
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp"))
+                .limit(1);
+        query.fields().include("timestamp");
+        return Optional.ofNullable(mongoTemplate.findOne(query, ChatMessage.class))
+                .map(ChatMessage::getTimestamp);
+    }
+
+    record SenderNewestRead(@Id Long senderId, LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChatReadWatermarkRepository
+        extends MongoRepository<ChatReadWatermark, String>, ChatReadWatermarkRepositoryCustom {
+
+    List<ChatReadWatermark> findByChatIdAndUserIdIn(String chatId, Collection<Long> userIds);
+
+    void deleteByChatId(String chatId);
+}
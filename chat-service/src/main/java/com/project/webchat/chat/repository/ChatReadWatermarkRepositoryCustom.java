@@ -0,0 +1,18 @@
+package com.project.webchat.chat.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface ChatReadWatermarkRepositoryCustom {
+
+    /**
+     * Moves the member's watermark forward to {@code readUpTo} with one upsert on the
+     * {@code {chatId, userId}} unique index; an older value never replaces a newer one.
+     *
+     * @return true when the watermark was created or moved
+     */
+    boolean advance(String chatId, Long userId, LocalDateTime readUpTo);
+
+    /** {@link #advance} for many members of one chat in a single unordered bulk write. */
+    void advanceAll(String chatId, Map<Long, LocalDateTime> readUpTo);
+}
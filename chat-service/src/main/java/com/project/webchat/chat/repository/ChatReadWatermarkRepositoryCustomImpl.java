@@ -0,0 +1,41 @@
+package com.project.webchat.chat.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class ChatReadWatermarkRepositoryCustomImpl implements ChatReadWatermarkRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean advance(String chatId, Long userId, LocalDateTime readUpTo) {
+        // $max leaves the document untouched (modifiedCount 0) when it is already further ahead
+        UpdateResult result = mongoTemplate.upsert(memberQuery(chatId, userId), new Update().max("lastReadAt", readUpTo),
+                ChatReadWatermark.class);
+        return result.getUpsertedId() != null || result.getModifiedCount() > 0;
+    }
+
+    @Override
+    public void advanceAll(String chatId, Map<Long, LocalDateTime> readUpTo) {
+        if (readUpTo.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatReadWatermark.class);
+        readUpTo.forEach((userId, at) -> bulk.upsert(memberQuery(chatId, userId), new Update().max("lastReadAt", at)));
+        bulk.execute();
+    }
+
+    private static Query memberQuery(String chatId, Long userId) {
+        return Query.query(Criteria.where("chatId").is(chatId).and("userId").is(userId));
+    }
+}
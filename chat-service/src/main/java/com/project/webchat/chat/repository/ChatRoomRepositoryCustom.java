@@ -0,0 +1,22 @@
+package com.project.webchat.chat.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+public interface ChatRoomRepositoryCustom {
+
+    /**
+     * Sets only {@code lastActivity} and {@code lastMessage} with a single {@code $set},
+     * leaving member/admin/ban sets untouched by concurrent writers.
+     *
+     * @return true when a room with the given id was matched
+     */
+    boolean updateLastActivity(String chatId, LocalDateTime lastActivity, String lastMessage);
+
+    /**
+     * Which of {@code candidateIds} share at least one room with {@code userId}: one query on the
+     * {@code memberIds} index that projects only the member sets.
+     */
+    Set<Long> findRoommateIds(Long userId, Collection<Long> candidateIds);
+}
@@ -0,0 +1,49 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.ChatRoom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class ChatRoomRepositoryCustomImpl implements ChatRoomRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean updateLastActivity(String chatId, LocalDateTime lastActivity, String lastMessage) {
+        if (chatId == null) {
+            return false;
+        }
+        Query query = Query.query(Criteria.where("_id").is(chatId));
+        Update update = new Update()
+                .set("lastActivity", lastActivity)
+                .set("lastMessage", lastMessage);
+        return mongoTemplate.updateFirst(query, update, ChatRoom.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Set<Long> findRoommateIds(Long userId, Collection<Long> candidateIds) {
+        if (userId == null || candidateIds == null || candidateIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(new Criteria().andOperator(
+                Criteria.where("memberIds").is(userId),
+                Criteria.where("memberIds").in(candidateIds)));
+        query.fields().include("memberIds");
+        Set<Long> roommates = new HashSet<>();
+        for (ChatRoom room : mongoTemplate.find(query, ChatRoom.class)) {
+            if (room.getMemberIds() != null) {
+                room.getMemberIds().stream().filter(candidateIds::contains).forEach(roommates::add);
+            }
+        }
+        return roommates;
+    }
+}
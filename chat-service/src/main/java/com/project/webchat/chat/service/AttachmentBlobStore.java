@@ -0,0 +1,236 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.chat.entity.AttachmentVariant;
+import com.project.webchat.chat.repository.AttachmentBlobRepository;
+import com.project.webchat.chat.repository.AttachmentBlobRepositoryCustom.Acquired;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed file store under {@code <upload dir>/blobs}: each distinct content is written once,
+ * named by its SHA-256, and reference counted in {@code attachment_blobs}. Attachments only point at a blob,
+ * so forwarding a file adds a reference instead of copying it.
+ * <p>
+ * The directory and the records are shared by every instance, so unlinking is claimed on the record
+ * ({@link AttachmentBlobRepository#beginUnlink}) and the record is only removed once the files are gone.
+ * An upload of the same content meanwhile waits, so it never moves its file into place while it is deleted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttachmentBlobStore {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final Duration UNLINK_WAIT = Duration.ofSeconds(10);
+    private static final long UNLINK_POLL_MILLIS = 50;
+
+    private final AttachmentBlobRepository blobRepository;
+
+    @Value("${app.upload.dir}")
+    private String uploadDir;
+
+    private Path blobsPath;
+    private Path tempPath;
+
+    /** A file written to the temp area whose hash and size are known but that is not stored yet. */
+    public record PendingBlob(Path tempFile, String hash, long size) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            // temp files live on the same file system as the blobs so storing them is a rename
+            this.blobsPath = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("blobs");
+            this.tempPath = blobsPath.resolve("tmp");
+            Files.createDirectories(tempPath);
+        } catch (IOException e) {
+            log.error("Failed to initialize blob directory: {}", e.getMessage());
+            throw new RuntimeException("Failed to initialize blob storage", e);
+        }
+    }
+
+    /**
+     * Streams {@code in} to a temp file, hashing and counting it on the way. Stops and deletes the temp
+     * file as soon as more than {@code maxBytes} arrive, whatever size the client declared.
+     */
+    public PendingBlob writeTemp(InputStream in, long maxBytes) throws IOException {
+        Path tempFile = Files.createTempFile(tempPath, "upload-", ".part");
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException("File is too large.");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new PendingBlob(tempFile, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    /**
+     * Takes ownership of the pending file and adds one reference to its blob. When the content is already
+     * stored, or storing fails, the pending file is dropped.
+     *
+     * @return path of the blob
+     */
+    public Path store(PendingBlob pending) throws IOException {
+        try {
+            return place(pending);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(pending.tempFile());
+            throw e;
+        }
+    }
+
+    private Path place(PendingBlob pending) throws IOException {
+        Path target = pathOf(pending.hash());
+        Acquired acquired = acquire(pending);
+        if (acquired == Acquired.CREATED || !Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(pending.tempFile(), target);
+        } else {
+            Files.deleteIfExists(pending.tempFile());
+        }
+        return target;
+    }
+
+    // waits out an unlink of the same content on any instance
+    private Acquired acquire(PendingBlob pending) throws IOException {
+        long deadline = System.nanoTime() + UNLINK_WAIT.toNanos();
+        while (true) {
+            Acquired acquired = blobRepository.acquire(pending.hash(), pending.size());
+            if (acquired != Acquired.BUSY) {
+                return acquired;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IOException("Blob " + pending.hash() + " is still being unlinked");
+            }
+            try {
+                Thread.sleep(UNLINK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for blob " + pending.hash());
+            }
+        }
+    }
+
+    /** Hashes an existing file and moves it into the store, adding one reference. Duplicates are deleted. */
+    public PendingBlob adopt(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        long size;
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream sink = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            size = in.transferTo(sink);
+        }
+        PendingBlob pending = new PendingBlob(file, HexFormat.of().formatHex(digest.digest()), size);
+        // not store(): a failure must leave the caller's file where it is
+        place(pending);
+        return pending;
+    }
+
+    /**
+     * Adds a reference to a stored blob.
+     *
+     * @return path of the blob
+     */
+    public Path retain(String hash) {
+        if (!blobRepository.retain(hash)) {
+            throw new IllegalArgumentException("Original file is missing for this attachment.");
+        }
+        return pathOf(hash);
+    }
+
+    /** An empty temp file next to the blobs, for content that is written by the caller. */
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(tempPath, "variant-", ".part");
+    }
+
+    /**
+     * Moves a rendered variant next to its blob. Dropped when the blob was unlinked meanwhile; one that
+     * races an unlink is left behind and reused by the next upload of the same content.
+     *
+     * @return false when the blob is gone
+     */
+    public boolean storeVariant(String hash, AttachmentVariant variant, Path tempFile) throws IOException {
+        if (!Files.exists(pathOf(hash))) {
+            Files.deleteIfExists(tempFile);
+            return false;
+        }
+        moveIntoPlace(tempFile, variantPathOf(hash, variant));
+        return true;
+    }
+
+    /** Drops a reference; the file and its variants are unlinked together with the last one. */
+    public void release(String hash) {
+        if (blobRepository.release(hash) > 0) {
+            return;
+        }
+        LocalDateTime marker = blobRepository.beginUnlink(hash);
+        if (marker == null) {
+            // referenced again, or another instance is unlinking it
+            return;
+        }
+        try {
+            for (AttachmentVariant variant : AttachmentVariant.values()) {
+                Files.deleteIfExists(variantPathOf(hash, variant));
+            }
+            Files.deleteIfExists(pathOf(hash));
+            log.info("Blob {} unlinked, no references left", hash);
+        } catch (IOException e) {
+            log.error("Failed to unlink blob {}: {}", hash, e.getMessage());
+        }
+        blobRepository.finishUnlink(hash, marker);
+    }
+
+    // the first two hex digits as a directory level keep directories small
+    public Path pathOf(String hash) {
+        return blobsPath.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    // renditions derive from the content alone, so every attachment of the blob shares them
+    public Path variantPathOf(String hash, AttachmentVariant variant) {
+        return pathOf(hash).resolveSibling(hash + "." + variant.key() + ".jpg");
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
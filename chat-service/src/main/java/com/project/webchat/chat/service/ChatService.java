@@ -8,6 +8,7 @@ import com.project.webchat.chat.dto.CreateGroupChannelRequest;
 import com.project.webchat.chat.dto.CreatePersonalSpaceRequest;
 import com.project.webchat.chat.dto.DiscoverableRoomDTO;
 import com.project.webchat.chat.dto.InvitePayloadDTO;
+import com.project.webchat.chat.dto.MessageHistorySliceDTO;
 import com.project.webchat.chat.dto.MessageReactionDTO;
 import com.project.webchat.chat.dto.MessageWithAttachmentsDTO;
 import com.project.webchat.chat.dto.RoomMemberInviteDTO;
@@ -26,7 +27,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Facade for chat operations. Delegates to focused services by domain area.
@@ -112,6 +116,14 @@ public class ChatService {
         return chatMessageCommandService.getMessageHistory(chatId, currentUserId, pageable);
     }
 
+    public MessageHistorySliceDTO getMessageHistorySlice(String chatId, Long currentUserId,
+                                                         String beforeMessageId, String afterMessageId,
+                                                         LocalDateTime beforeTime, LocalDateTime afterTime,
+                                                         int limit) {
+        return chatMessageCommandService.getMessageHistorySlice(chatId, currentUserId,
+                beforeMessageId, afterMessageId, beforeTime, afterTime, limit);
+    }
+
     @Transactional
     public void markMessagesAsRead(String chatId, Long senderId) {
         chatMessageCommandService.markMessagesAsRead(chatId, senderId);
@@ -183,6 +195,14 @@ public class ChatService {
         return chatRoomManagementService.getRoomParticipantsForMember(roomId, userId);
     }
 
+    public Collection<Long> getRoomParticipantIdsForMember(String roomId, Long userId) {
+        return chatRoomManagementService.getRoomParticipantIdsForMember(roomId, userId);
+    }
+
+    public Set<Long> getUsersSharingRoomWith(Long viewerId, Collection<Long> userIds) {
+        return chatRoomManagementService.getUsersSharingRoomWith(viewerId, userIds);
+    }
+
     @Transactional
     public ChatRoomDTO joinPublicRoom(String roomId, Long userId) {
         return chatRoomManagementService.joinPublicRoom(roomId, userId);
@@ -1,9 +1,11 @@
 package com.project.webchat.chat.service;
 
 import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
 import com.project.webchat.chat.entity.FileType;
 import com.project.webchat.chat.repository.AttachmentRepository;
 import com.project.webchat.chat.service.support.AttachmentFilenameSecurity;
+import com.project.webchat.chat.service.support.AttachmentThumbnailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,17 +13,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +36,12 @@ import java.util.stream.Collectors;
 public class FileStorageService {
 
     private final AttachmentRepository attachmentRepository;
+    private final AttachmentBlobStore blobStore;
+    private final ThreadPoolExecutor attachmentUploadExecutor;
+    private final AttachmentThumbnailService thumbnailService;
+
+    // enough for every signature AttachmentFilenameSecurity knows
+    private static final int FILE_HEADER_LENGTH = 12;
 
     @Value("${app.upload.dir}")
     private String uploadDir;
@@ -114,29 +126,35 @@ public class FileStorageService {
                 throw new IllegalArgumentException("Filename contains invalid characters");
             }
 
-            // Generating a safe filename
-            String safeStoredFilename = generateSafeFilename(extension);
-            Path targetPath = uploadPath.resolve(safeStoredFilename);
-
-            // Write once — lazy multipart streams cannot be read via getInputStream() twice.
-            file.transferTo(targetPath);
-
-            // Magic-byte check on the saved file (avoids consuming the upload stream twice).
-            byte[] fileHeader = readFileHeader(targetPath, 12);
-            if (!AttachmentFilenameSecurity.isValidFileType(fileHeader, extension)) {
-                Files.deleteIfExists(targetPath);
-                throw new IllegalArgumentException(
-                        "This file doesn't match its type. It may be corrupted or renamed with the wrong extension."
-                );
+            // Single pass over the upload (lazy multipart streams cannot be read twice): the magic bytes
+            // are checked on the first bytes, so a bad file is rejected before anything is written,
+            // then hash and size are computed while the rest streams into the blob temp area.
+            AttachmentBlobStore.PendingBlob pending;
+            try (InputStream in = file.getInputStream()) {
+                byte[] fileHeader = in.readNBytes(FILE_HEADER_LENGTH);
+                if (fileHeader.length < FILE_HEADER_LENGTH) {
+                    throw new IllegalArgumentException("File is too small or corrupted");
+                }
+                if (!AttachmentFilenameSecurity.isValidFileType(fileHeader, extension)) {
+                    throw new IllegalArgumentException(
+                            "This file doesn't match its type. It may be corrupted or renamed with the wrong extension."
+                    );
+                }
+                pending = blobStore.writeTemp(
+                        new SequenceInputStream(new ByteArrayInputStream(fileHeader), in), maxSize);
             }
 
+            // Identical content is stored once; the attachment only references the blob
+            Path blobPath = blobStore.store(pending);
+
             // Creating db record
             Attachment attachment = Attachment.builder()
                     .id(UUID.randomUUID().toString())
                     .filename(AttachmentFilenameSecurity.sanitizeFilename(originalFilename))
-                    .storedFilename(safeStoredFilename)
-                    .filePath(targetPath.toAbsolutePath().toString())
-                    .size(file.getSize())
+                    .storedFilename(pending.hash())
+                    .contentHash(pending.hash())
+                    .filePath(blobPath.toString())
+                    .size(pending.size())
                     .mimeType(detectMimeTypeFromExtension(extension))
                     .fileType(determineFileType(extension))
                     .chatId(chatId)
@@ -145,9 +163,12 @@ public class FileStorageService {
                     .createdAt(LocalDateTime.now())
                     .build();
 
-            Attachment saved = attachmentRepository.save(attachment);
-            log.info("File saved successfully: {} -> {} (user: {}, chat: {})",
-                    originalFilename, safeStoredFilename, userId, chatId);
+            Attachment saved = saveReferencingBlob(attachment);
+            log.info("File saved successfully: {} -> blob {} (user: {}, chat: {})",
+                    originalFilename, pending.hash(), userId, chatId);
+
+            // thumbnails are rendered in the background; until then clients show the original
+            thumbnailService.generateAsync(saved);
 
             return saved;
         } catch (IOException e) {
@@ -156,22 +177,37 @@ public class FileStorageService {
         }
     }
 
-    private byte[] readFileHeader(Path path, int length) throws IOException {
-        byte[] fileHeader = new byte[length];
-        try (InputStream is = Files.newInputStream(path)) {
-            int offset = 0;
-            while (offset < length) {
-                int read = is.read(fileHeader, offset, length - offset);
-                if (read < 0) {
-                    Files.deleteIfExists(path);
-                    throw new IllegalArgumentException("File is too small or corrupted");
+    /**
+     * Saves every file of one upload in parallel on the bounded upload executor. Either all files are
+     * saved or none: when one is rejected, the others are deleted again and its error is thrown.
+     */
+    public List<Attachment> saveFiles(List<MultipartFile> files, Long userId, String chatId) {
+        List<CompletableFuture<Attachment>> pending = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(
+                        () -> saveFile(file, userId, chatId), attachmentUploadExecutor))
+                .toList();
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            for (CompletableFuture<Attachment> future : pending) {
+                if (!future.isCompletedExceptionally()) {
+                    deleteQuietly(future.join());
                 }
-                offset += read;
             }
-        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
             throw e;
         }
-        return fileHeader;
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void deleteQuietly(Attachment attachment) {
+        try {
+            deleteFile(attachment);
+        } catch (RuntimeException e) {
+            log.warn("Failed to roll back attachment {}: {}", attachment.getId(), e.getMessage());
+        }
     }
 
     // Safe file saving without message connection
@@ -193,21 +229,50 @@ public class FileStorageService {
         return filePath;
     }
 
+    /** File of a rendered variant, or null when the attachment has none (yet). */
+    public Path getVariantPath(Attachment attachment, AttachmentVariant variant) {
+        if (attachment.getContentHash() == null || !attachment.hasVariant(variant)) {
+            return null;
+        }
+        return blobStore.variantPathOf(attachment.getContentHash(), variant);
+    }
+
     public void deleteFile(String attachmentId) {
         Attachment attachment = attachmentRepository.findById(attachmentId)
                 .orElseThrow(() -> new RuntimeException("Attachment not found: " + attachmentId));
+        deleteFile(attachment);
+    }
 
+    // the blob is only unlinked with its last reference; files from before blobs belong to one attachment
+    private void deleteFile(Attachment attachment) {
+        if (attachment.getContentHash() != null) {
+            attachmentRepository.delete(attachment);
+            blobStore.release(attachment.getContentHash());
+            log.info("File deleted: {} ({})", attachment.getFilename(), attachment.getId());
+            return;
+        }
         try {
             Path filePath = Paths.get(attachment.getFilePath());
             Files.deleteIfExists(filePath);
             attachmentRepository.delete(attachment);
-            log.info("File deleted: {} ({})", attachment.getFilename(), attachmentId);
+            log.info("File deleted: {} ({})", attachment.getFilename(), attachment.getId());
         } catch (IOException e) {
-            log.error("Failed to delete file: {}", attachmentId, e);
+            log.error("Failed to delete file: {}", attachment.getId(), e);
             throw new RuntimeException("Failed to delete file", e);
         }
     }
 
+    // Deletes every attachment of a chat together with its blob references
+    public void deleteChatFiles(String chatId) {
+        for (Attachment attachment : attachmentRepository.findByChatId(chatId)) {
+            try {
+                deleteFile(attachment);
+            } catch (RuntimeException e) {
+                log.warn("Failed to delete attachment {} of chat {}: {}", attachment.getId(), chatId, e.getMessage());
+            }
+        }
+    }
+
     // Getting all message attachments
     public List<Attachment> getMessageAttachments(String messageId) {
         return attachmentRepository.findByMessageId(messageId);
@@ -215,10 +280,9 @@ public class FileStorageService {
 
     // Connects message with attachment
     public void attachToMessage(String attachmentId, String messageId) {
-        Attachment attachment = attachmentRepository.findById(attachmentId)
-                .orElseThrow(() -> new RuntimeException("Attachment not found: " + attachmentId));
-        attachment.setMessageId(messageId);
-        attachmentRepository.save(attachment);
+        if (attachmentRepository.linkToMessage(attachmentId, messageId) == null) {
+            throw new RuntimeException("Attachment not found: " + attachmentId);
+        }
         log.info("Attachment {} attached to message {}", attachmentId, messageId);
     }
 
@@ -228,47 +292,67 @@ public class FileStorageService {
     }
 
     /**
-     * Copies the stored file and creates a new attachment row for a forwarded message
-     * (each message owns its files so deletes and chat scoping stay correct).
+     * Creates a new attachment row for a forwarded message that references the same blob, so the file
+     * is not copied (each message still owns its row so deletes and chat scoping stay correct).
      */
     public Attachment cloneAttachmentForForward(Attachment source, String newMessageId, String targetChatId,
                                               Long uploaderId) {
-        try {
-            Path sourcePath = Paths.get(source.getFilePath()).toAbsolutePath().normalize();
-            if (!Files.exists(sourcePath) || !Files.isRegularFile(sourcePath)) {
-                throw new IllegalArgumentException("Original file is missing for this attachment.");
-            }
-
-            String extension = getFileExtension(source.getFilename());
-            if ((extension == null || extension.isEmpty()) && source.getStoredFilename() != null
-                    && source.getStoredFilename().contains(".")) {
-                extension = source.getStoredFilename().substring(source.getStoredFilename().lastIndexOf('.'));
-            }
-            if (extension == null || extension.isEmpty()) {
-                extension = ".bin";
-            }
-            String normalizedExt = extension.startsWith(".") ? extension : "." + extension;
-            String safeStoredFilename = UUID.randomUUID().toString() + normalizedExt;
-            Path targetPath = uploadPath.resolve(safeStoredFilename);
-            Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+        String hash = source.getContentHash() != null ? source.getContentHash() : adoptIntoBlobStore(source);
+        Path blobPath = blobStore.retain(hash);
+
+        Attachment clone = Attachment.builder()
+                .id(UUID.randomUUID().toString())
+                .filename(source.getFilename())
+                .storedFilename(hash)
+                .contentHash(hash)
+                .filePath(blobPath.toString())
+                .size(source.getSize())
+                .mimeType(source.getMimeType())
+                .fileType(source.getFileType())
+                .chatId(targetChatId)
+                .uploaderId(uploaderId)
+                .messageId(newMessageId)
+                .createdAt(LocalDateTime.now())
+                .variants(source.getVariants())
+                .build();
+        Attachment saved = saveReferencingBlob(clone);
+        if (saved.getVariants() == null || saved.getVariants().isEmpty()) {
+            thumbnailService.generateAsync(saved);
+        }
+        return saved;
+    }
 
-            Attachment clone = Attachment.builder()
-                    .id(UUID.randomUUID().toString())
-                    .filename(source.getFilename())
-                    .storedFilename(safeStoredFilename)
-                    .filePath(targetPath.toAbsolutePath().toString())
-                    .size(source.getSize())
-                    .mimeType(source.getMimeType())
-                    .fileType(source.getFileType())
-                    .chatId(targetChatId)
-                    .uploaderId(uploaderId)
-                    .messageId(newMessageId)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            return attachmentRepository.save(clone);
+    /**
+     * Moves a file stored before blobs into the blob store and points its attachment at the blob.
+     * A duplicate of an already stored content is deleted.
+     *
+     * @return the content hash
+     */
+    public String adoptIntoBlobStore(Attachment attachment) {
+        Path filePath = Paths.get(attachment.getFilePath()).toAbsolutePath().normalize();
+        if (!Files.isRegularFile(filePath)) {
+            throw new IllegalArgumentException("Original file is missing for this attachment.");
+        }
+        try {
+            AttachmentBlobStore.PendingBlob blob = blobStore.adopt(filePath);
+            attachment.setContentHash(blob.hash());
+            attachment.setStoredFilename(blob.hash());
+            attachment.setFilePath(blobStore.pathOf(blob.hash()).toString());
+            saveReferencingBlob(attachment);
+            return blob.hash();
         } catch (IOException e) {
-            log.error("Failed to clone attachment for forward: {}", e.getMessage());
-            throw new RuntimeException("Failed to clone attachment for forward", e);
+            log.error("Failed to move attachment {} into the blob store: {}", attachment.getId(), e.getMessage());
+            throw new RuntimeException("Failed to move attachment into the blob store", e);
+        }
+    }
+
+    // a row that cannot be saved must not keep its blob alive
+    private Attachment saveReferencingBlob(Attachment attachment) {
+        try {
+            return attachmentRepository.save(attachment);
+        } catch (RuntimeException e) {
+            blobStore.release(attachment.getContentHash());
+            throw e;
         }
     }
 
@@ -282,10 +366,6 @@ public class FileStorageService {
         return filename.substring(filename.lastIndexOf('.')).toLowerCase();
     }
 
-    private String generateSafeFilename(String extension) {
-        return UUID.randomUUID().toString() + extension;
-    }
-
     // Determine file type base on extension
     private FileType determineFileType(String extension) {
         String ext = extension.toLowerCase();
@@ -1,17 +1,33 @@
 package com.project.webchat.chat.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.webchat.chat.dto.PresenceSnapshotDTO;
+import com.project.webchat.chat.dto.UserBanEdgesDTO;
+import com.project.webchat.chat.service.codec.RedisCacheCodecs;
 import com.project.webchat.shared.dto.UserInfoDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 @Service
@@ -20,7 +36,10 @@ import java.util.Set;
 public class RedisService {
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisCacheCodecs codecs;
+
+    //pub/sub channel carrying user ids whose cached info must be dropped on every node
+    public static final String USER_INFO_INVALIDATION_CHANNEL = "chat:user-info:evict";
 
     //redis set for storing all online users
     private static final String ONLINE_USERS_KEY = "online_users";
@@ -32,117 +51,322 @@ public class RedisService {
     private static final String AFK_CHAT_PREFIX = "AFK:";
     private static final String LAST_SEEN_PREFIX = "last_seen:";
     private static final String USER_INFO_PREFIX = "user_info:";
-    private static final String CHAT_PARTICIPANTS_PREFIX = "chat_participants:";
+    //native set per chat with member ids, kept in sync by write-through (no TTL)
+    private static final String CHAT_MEMBERS_PREFIX = "chat_members:";
+    //bumped by every membership change so an in-flight rebuild cannot overwrite a newer change
+    private static final String CHAT_MEMBERS_GEN_PREFIX = "chat_members_gen:";
+    //hash per chat: userId -> unread message count
+    private static final String CHAT_UNREAD_PREFIX = "chat_unread:";
+    private static final Duration CHAT_UNREAD_TIMEOUT = Duration.ofDays(7);
+    //bumped by every counter write so a seed counted before it cannot store a stale count
+    private static final String CHAT_UNREAD_GEN_PREFIX = "chat_unread_gen:";
+    //hash per chat: userId -> read watermark as epoch millis (UTC), mirrors chat_read_watermarks
+    private static final String CHAT_READ_WATERMARK_PREFIX = "chat_read_wm:";
+    private static final Duration CHAT_READ_WATERMARK_TIMEOUT = Duration.ofDays(7);
+    //codec-encoded id sets: users a user has banned / users who banned them
+    private static final String USER_BANS_PREFIX = "user_bans:";
+    private static final String USER_BANNED_BY_PREFIX = "user_banned_by:";
+    //bumped by every ban change so an in-flight reload cannot store the lists from before it
+    private static final String USER_BANS_GEN_PREFIX = "user_bans_gen:";
+    private static final Duration USER_BANS_TIMEOUT = Duration.ofMinutes(30);
     private static final Duration USER_CACHE_TIMEOUT = Duration.ofMinutes(30);
-    private static final Duration CHAT_PARTICIPANTS_CACHE_TIMEOUT = Duration.ofMinutes(5);
     private static final Duration ONLINE_TIMEOUT = Duration.ofMinutes(1);
 
+    /*
+     * Presence script registry. Every presence write reads the previous state and updates the
+     * per-chat sets inside one Lua call, so it costs a single round trip and concurrent tabs can
+     * no longer interleave between the GET and the writes.
+     *
+     * KEYS: user_chat:{id}, last_seen:{id}, online_users, and chat_online_users:{chat} of the chat the
+     * write is about when there is one
+     * ARGV: userId, nowMillis, ttlSeconds, chat_online_users prefix, AFK prefix, ...script specific
+     *
+     * The set of the chat the user leaves is only known once user_chat:{id} is read, so that one key is
+     * built from ARGV inside the script. This requires standalone Redis (what spring.data.redis configures);
+     * under Redis Cluster the keys would sit in different slots.
+     */
+    private static final String PRESENCE_PREVIOUS_CHAT_LUA = """
+            local prev = redis.call('GET', KEYS[1])
+            local prevChat = prev
+            if prev and string.sub(prev, 1, string.len(ARGV[5])) == ARGV[5] then
+                prevChat = string.sub(prev, string.len(ARGV[5]) + 1)
+            end
+            """;
+
+    // ARGV[6]: chatId, ARGV[7]: new state value, ARGV[8]: '1' to join the chat set (online), '0' to leave it (afk)
+    private static final RedisScript<Long> MARK_PRESENCE_SCRIPT = new DefaultRedisScript<>(
+            PRESENCE_PREVIOUS_CHAT_LUA + """
+            if prevChat and prevChat ~= ARGV[6] then
+                redis.call('SREM', ARGV[4] .. prevChat, ARGV[1])
+            end
+            redis.call('SET', KEYS[1], ARGV[7], 'EX', ARGV[3])
+            redis.call('SET', KEYS[2], ARGV[2])
+            redis.call('SADD', KEYS[3], ARGV[1])
+            if ARGV[8] == '1' then
+                redis.call('SADD', KEYS[4], ARGV[1])
+            else
+                redis.call('SREM', KEYS[4], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    // ARGV[6]: chatId. Refreshes the TTL when the user already views the chat, otherwise marks them online in it.
+    private static final RedisScript<Long> UPDATE_PRESENCE_SCRIPT = new DefaultRedisScript<>(
+            PRESENCE_PREVIOUS_CHAT_LUA + """
+            redis.call('SET', KEYS[2], ARGV[2])
+            if prevChat == ARGV[6] then
+                redis.call('EXPIRE', KEYS[1], ARGV[3])
+                return 0
+            end
+            if prevChat then
+                redis.call('SREM', ARGV[4] .. prevChat, ARGV[1])
+            end
+            redis.call('SET', KEYS[1], ARGV[6], 'EX', ARGV[3])
+            redis.call('SADD', KEYS[3], ARGV[1])
+            redis.call('SADD', KEYS[4], ARGV[1])
+            return 1
+            """, Long.class);
+
+    // ARGV[6]: chatId the heartbeat is for, or '' to accept any chat
+    private static final RedisScript<Long> HEARTBEAT_SCRIPT = new DefaultRedisScript<>(
+            PRESENCE_PREVIOUS_CHAT_LUA + """
+            if not prevChat or (ARGV[6] ~= '' and prevChat ~= ARGV[6]) then
+                return 0
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[3])
+            redis.call('SET', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> MARK_OFFLINE_SCRIPT = new DefaultRedisScript<>(
+            PRESENCE_PREVIOUS_CHAT_LUA + """
+            redis.call('DEL', KEYS[1])
+            redis.call('SREM', KEYS[3], ARGV[1])
+            if prevChat then
+                redis.call('SREM', ARGV[4] .. prevChat, ARGV[1])
+            end
+            redis.call('SET', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /*
+     * Unread counters. KEYS: chat_unread:{chat}, chat_unread_gen:{chat}
+     * Every write bumps the generation, including sends that skip unseeded members, so a seed whose
+     * Mongo count started before the write is refused. Writes take the generation ttl seconds as ARGV[1].
+     */
+    // ARGV[2..]: member ids; bumps only counters that were already seeded, so a missing field always means "ask Mongo"
+    private static final RedisScript<Long> INCREMENT_UNREAD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            local bumped = 0
+            for i = 2, #ARGV do
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then
+                    redis.call('HINCRBY', KEYS[1], ARGV[i], 1)
+                    bumped = bumped + 1
+                end
+            end
+            return bumped
+            """, Long.class);
+
+    // ARGV[2..]: member ids to drop, none drops the whole hash
+    private static final RedisScript<Long> CLEAR_UNREAD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[1])
+            if #ARGV < 2 then
+                return redis.call('DEL', KEYS[1])
+            end
+            return redis.call('HDEL', KEYS[1], unpack(ARGV, 2))
+            """, Long.class);
+
+    // ARGV[1]: generation read before counting, ARGV[2]: member id, ARGV[3]: count, ARGV[4]: hash ttl seconds
+    private static final RedisScript<Long> SEED_UNREAD_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            local seeded = redis.call('HSETNX', KEYS[1], ARGV[2], ARGV[3])
+            redis.call('EXPIRE', KEYS[1], ARGV[4])
+            return seeded
+            """, Long.class);
+
+    // ARGV[1]: ttl seconds, then userId/millis pairs; a field only ever moves forward
+    private static final RedisScript<Long> RAISE_READ_WATERMARKS_SCRIPT = new DefaultRedisScript<>("""
+            local raised = 0
+            for i = 2, #ARGV, 2 do
+                local current = tonumber(redis.call('HGET', KEYS[1], ARGV[i]))
+                if current == nil or current < tonumber(ARGV[i + 1]) then
+                    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+                    raised = raised + 1
+                end
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return raised
+            """, Long.class);
+
+    /*
+     * Chat member sets. KEYS: chat_members:{chatId}, chat_members_gen:{chatId}
+     * A set is only ever created by FILL, so a missing key means "rebuild from Mongo".
+     */
+    // ARGV[1]: 'add' | 'remove' | 'delete', ARGV[2..]: user ids
+    private static final RedisScript<Long> UPDATE_CHAT_MEMBERS_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            if ARGV[1] == 'delete' then
+                return redis.call('DEL', KEYS[1])
+            end
+            if #ARGV < 2 or redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            local changed = 0
+            for i = 2, #ARGV, 1000 do
+                local last = math.min(i + 999, #ARGV)
+                if ARGV[1] == 'add' then
+                    changed = changed + redis.call('SADD', KEYS[1], unpack(ARGV, i, last))
+                else
+                    changed = changed + redis.call('SREM', KEYS[1], unpack(ARGV, i, last))
+                end
+            end
+            return changed
+            """, Long.class);
+
+    // ARGV[1]: generation read before loading the room, ARGV[2..]: member ids
+    private static final RedisScript<Long> FILL_CHAT_MEMBERS_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[2]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('DEL', KEYS[1])
+            for i = 2, #ARGV, 1000 do
+                redis.call('SADD', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+            end
+            return 1
+            """, Long.class);
+
+    // -1 when the set has not been built, otherwise SISMEMBER
+    private static final RedisScript<Long> IS_CHAT_MEMBER_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return -1
+            end
+            return redis.call('SISMEMBER', KEYS[1], ARGV[1])
+            """, Long.class);
+
+    /*
+     * Ban lists. KEYS: user_bans:{id}, user_banned_by:{id}, user_bans_gen:{id}
+     * The generation outlives the lists, so a reload that started before an eviction always sees it changed.
+     */
+    // ARGV[1]: generation ttl seconds
+    private static final RedisScript<Long> EVICT_USER_BANS_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1], KEYS[2])
+            redis.call('INCR', KEYS[3])
+            return redis.call('EXPIRE', KEYS[3], ARGV[1])
+            """, Long.class);
+
+    // ARGV[1]: generation read before loading, ARGV[2]: banned ids, ARGV[3]: banning ids, ARGV[4]: ttl seconds
+    private static final byte[] FILL_USER_BANS_LUA = """
+            if (redis.call('GET', KEYS[3]) or '0') ~= ARGV[1] then
+                return 0
+            end
+            redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[4])
+            redis.call('SET', KEYS[2], ARGV[3], 'EX', ARGV[4])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
     //mark user online
     public void markUserOnline(Long userId, String chatId) {
-        String userKey = USER_CHAT_KEY_PREFIX + userId;
-        String lastSeenKey = LAST_SEEN_PREFIX + userId;
-
-        // if user switches chats, remove from previous chat set
-        String previousState = redisTemplate.opsForValue().get(userKey);
-        String previousChat = extractChatId(previousState);
-        if (previousChat != null && !previousChat.equals(chatId)) {
-            redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + previousChat, userId.toString());
-        }
-
-        //to automatically disconnect user after 1 min
-        redisTemplate.opsForValue().set(userKey, chatId, ONLINE_TIMEOUT);
-        redisTemplate.opsForValue().set(lastSeenKey, String.valueOf(System.currentTimeMillis()));
-
-        //add user to online users
-        redisTemplate.opsForSet().add(ONLINE_USERS_KEY, userId.toString());
-        redisTemplate.opsForSet().add(CHAT_ONLINE_USERS_PREFIX + chatId, userId.toString());
-
+        //to automatically disconnect user after 1 min; also leaves the previous chat set
+        runPresenceScript(MARK_PRESENCE_SCRIPT, userId, chatId, chatId, chatId, "1");
         log.debug("User {} marked online in chat {}", userId, chatId);
     }
 
     public void markUserAfk(Long userId, String chatId) {
-        String userKey = USER_CHAT_KEY_PREFIX + userId;
-        String stateValue = AFK_CHAT_PREFIX + chatId;
-        String currentState = redisTemplate.opsForValue().get(userKey);
-        String currentChat = extractChatId(currentState);
-
-        redisTemplate.opsForValue().set(userKey, stateValue, ONLINE_TIMEOUT);
-        redisTemplate.opsForSet().add(ONLINE_USERS_KEY, userId.toString());
-        redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + chatId, userId.toString());
-        if (currentChat != null && !currentChat.equals(chatId)) {
-            redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + currentChat, userId.toString());
-        }
-
-        String lastSeenKey = LAST_SEEN_PREFIX + userId;
-        redisTemplate.opsForValue().set(lastSeenKey, String.valueOf(System.currentTimeMillis()));
+        runPresenceScript(MARK_PRESENCE_SCRIPT, userId, chatId, chatId, AFK_CHAT_PREFIX + chatId, "0");
         log.debug("User {} marked AFK for chat {}", userId, chatId);
     }
 
     //mark user offline
     public void markUserOffline(Long userId) {
-        String userKey = USER_CHAT_KEY_PREFIX + userId;
-        String currentChat = extractChatId(redisTemplate.opsForValue().get(userKey));
-
-        //deletes user's chat tracking key
-        redisTemplate.delete(userKey);
-
-        //removes user from online users set
-        redisTemplate.opsForSet().remove(ONLINE_USERS_KEY, userId.toString());
-        if (currentChat != null) {
-            redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + currentChat, userId.toString());
-        }
-
-        String lastSeenKey = LAST_SEEN_PREFIX + userId;
-        redisTemplate.opsForValue().set(lastSeenKey, String.valueOf(System.currentTimeMillis()));
-
+        runPresenceScript(MARK_OFFLINE_SCRIPT, userId, null);
         log.debug("User {} marked offline", userId);
     }
 
     //update user presence in chat
     public void updatePresence(Long userId, String chatId) {
-        if (isUserOnline(userId)) {
-            heartbeat(userId);
-
-            String currentChat = getCurrentChat(userId);
-            if (currentChat == null || !currentChat.equals(chatId)) {
-                markUserOnline(userId, chatId);
-            }
-        } else {
-            markUserOnline(userId, chatId);
-        }
+        runPresenceScript(UPDATE_PRESENCE_SCRIPT, userId, chatId, chatId);
     }
 
     // get online users who are currently viewing a specific chat
     public Set<Long> getOnlineUsersInChat(String chatId) {
-        Set<String> members = redisTemplate.opsForSet().members(CHAT_ONLINE_USERS_PREFIX + chatId);
+        String chatKey = CHAT_ONLINE_USERS_PREFIX + chatId;
+        Set<String> members = redisTemplate.opsForSet().members(chatKey);
         if (members == null || members.isEmpty()) {
             return Set.of();
         }
 
-        Set<Long> result = new HashSet<>();
+        List<String> stale = new ArrayList<>();
+        List<Long> memberIds = new ArrayList<>();
         for (String userIdStr : members) {
-            Long userId;
             try {
-                userId = Long.parseLong(userIdStr);
+                memberIds.add(Long.parseLong(userIdStr));
             } catch (NumberFormatException e) {
-                redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + chatId, userIdStr);
-                continue;
+                stale.add(userIdStr);
             }
+        }
 
-        String currentChat = getCurrentChat(userId);
-            if (chatId.equals(currentChat) && isUserOnline(userId)) {
-                result.add(userId);
+        // one MGET for every member's current chat instead of a GET + EXISTS per member
+        List<String> states = memberIds.isEmpty()
+                ? List.of()
+                : redisTemplate.opsForValue().multiGet(
+                        memberIds.stream().map(id -> USER_CHAT_KEY_PREFIX + id).toList());
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i < memberIds.size(); i++) {
+            String state = states != null && i < states.size() ? states.get(i) : null;
+            if (chatId.equals(extractChatId(state))) {
+                result.add(memberIds.get(i));
             } else {
-                redisTemplate.opsForSet().remove(CHAT_ONLINE_USERS_PREFIX + chatId, userIdStr);
+                stale.add(memberIds.get(i).toString());
             }
         }
+
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForSet().remove(chatKey, stale.toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Presence state of many users from a single MGET over their user_chat and last_seen keys.
+     * Every requested id is present in the result; unknown users come back offline.
+     *
+     * @param chatId room to report {@code onlineInChat} for, or null; the chat a user has open is not returned
+     */
+    public Map<Long, PresenceSnapshotDTO> getPresenceSnapshot(Collection<Long> userIds, String chatId) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<String> keys = new ArrayList<>(ids.size() * 2);
+        ids.forEach(id -> keys.add(USER_CHAT_KEY_PREFIX + id));
+        ids.forEach(id -> keys.add(LAST_SEEN_PREFIX + id));
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+
+        Map<Long, PresenceSnapshotDTO> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String state = valueAt(values, i);
+            boolean afk = state != null && state.startsWith(AFK_CHAT_PREFIX);
+            result.put(ids.get(i), PresenceSnapshotDTO.builder()
+                    .userId(ids.get(i))
+                    .online(state != null)
+                    .onlineInChat(chatId != null && !afk && chatId.equals(extractChatId(state)))
+                    .afk(afk)
+                    .lastSeen(parseLastSeen(valueAt(values, ids.size() + i)))
+                    .build());
+        }
         return result;
     }
 
     public Long getLastSeen(Long userId) {
         String lastSeenKey = LAST_SEEN_PREFIX + userId;
-        String timestamp = redisTemplate.opsForValue().get(lastSeenKey);
+        return parseLastSeen(redisTemplate.opsForValue().get(lastSeenKey));
+    }
 
+    private static Long parseLastSeen(String timestamp) {
         if (timestamp != null) {
             try {
                 return Long.parseLong(timestamp);
@@ -153,29 +377,91 @@ public class RedisService {
         return null;
     }
 
+    private static String valueAt(List<String> values, int index) {
+        return values != null && index < values.size() ? values.get(index) : null;
+    }
     // cache user info (set of users with TTL 30 mins)
     public void cacheUserInfo(UserInfoDTO userInfo) {
         try {
-            String key = USER_INFO_PREFIX + userInfo.getId();
-            String value = objectMapper.writeValueAsString(userInfo);
-            redisTemplate.opsForValue().set(key, value, USER_CACHE_TIMEOUT);
+            byte[] value = codecs.userInfo().encode(userInfo);
+            setRaw(USER_INFO_PREFIX + userInfo.getId(), value, USER_CACHE_TIMEOUT);
         } catch (Exception e) {
             log.error("Failed to cache user info: {}", e.getMessage());
         }
     }
 
+    // cache several user infos in one pipelined round trip
+    public void cacheUserInfoBatch(Collection<UserInfoDTO> userInfos) {
+        if (userInfos == null || userInfos.isEmpty()) {
+            return;
+        }
+        Map<byte[], byte[]> values = new LinkedHashMap<>();
+        for (UserInfoDTO userInfo : userInfos) {
+            if (userInfo == null || userInfo.getId() == null) {
+                continue;
+            }
+            try {
+                values.put(rawKey(USER_INFO_PREFIX + userInfo.getId()), codecs.userInfo().encode(userInfo));
+            } catch (Exception e) {
+                log.error("Failed to serialize user info {}: {}", userInfo.getId(), e.getMessage());
+            }
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        try {
+            Expiration expiration = Expiration.from(USER_CACHE_TIMEOUT);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                values.forEach((key, value) ->
+                        connection.stringCommands().set(key, value, expiration, SetOption.upsert()));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to cache user info batch: {}", e.getMessage());
+        }
+    }
+
+    // retrieve several user infos with a single MGET; misses are simply absent from the map
+    public Map<Long, UserInfoDTO> getCachedUserInfoBatch(Collection<Long> userIds) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<byte[]> values;
+        try {
+            values = multiGetRaw(ids.stream().map(id -> USER_INFO_PREFIX + id).toList());
+        } catch (Exception e) {
+            log.error("Failed to fetch user info batch: {}", e.getMessage());
+            return Map.of();
+        }
+        if (values == null) {
+            return Map.of();
+        }
+
+        Map<Long, UserInfoDTO> result = new HashMap<>();
+        for (int i = 0; i < ids.size() && i < values.size(); i++) {
+            byte[] value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            try {
+                result.put(ids.get(i), codecs.userInfo().decode(value));
+            } catch (RuntimeException e) {
+                log.warn("Failed to decode cached user info {}: {}", ids.get(i), e.getMessage());
+            }
+        }
+        return result;
+    }
+
     // retrieve user info from cache
     public UserInfoDTO getCachedUserInfo(Long userId) {
         try {
-            // make sure user key exists
-            String key = USER_INFO_PREFIX + userId;
-            String value = redisTemplate.opsForValue().get(key);
+            byte[] value = getRaw(USER_INFO_PREFIX + userId);
             if (value != null) {
-                // deserialize user info
-                return objectMapper.readValue(value, UserInfoDTO.class);
+                return codecs.userInfo().decode(value);
             }
         } catch (Exception e) {
-            log.error("Failed to cache user info: {}", e.getMessage());
+            log.error("Failed to fetch cached user info: {}", e.getMessage());
         }
         return null;
     }
@@ -186,58 +472,343 @@ public class RedisService {
         }
         try {
             redisTemplate.delete(USER_INFO_PREFIX + userId);
+            redisTemplate.convertAndSend(USER_INFO_INVALIDATION_CHANNEL, userId.toString());
         } catch (Exception e) {
             log.warn("Failed to evict user info cache for {}: {}", userId, e.getMessage());
         }
     }
 
-    public void cacheChatParticipants(String chatId, Set<Long> participantIds) {
-        if (chatId == null || chatId.isBlank() || participantIds == null || participantIds.isEmpty()) {
+    // member ids of a chat, or null when the set has not been built (or Redis is unavailable)
+    public Set<Long> getChatMembers(String chatId) {
+        if (chatId == null || chatId.isBlank()) {
+            return null;
+        }
+        try {
+            Set<String> members = redisTemplate.opsForSet().members(CHAT_MEMBERS_PREFIX + chatId);
+            if (members == null || members.isEmpty()) {
+                return null;
+            }
+            Set<Long> ids = new HashSet<>();
+            for (String member : members) {
+                ids.add(Long.parseLong(member));
+            }
+            return ids;
+        } catch (Exception e) {
+            log.warn("Failed to read chat members of {}: {}", chatId, e.getMessage());
+            return null;
+        }
+    }
+
+    // SISMEMBER on the chat member set, or null when the set has not been built
+    public Boolean isChatMember(String chatId, Long userId) {
+        if (chatId == null || chatId.isBlank() || userId == null) {
+            return null;
+        }
+        try {
+            Long result = redisTemplate.execute(IS_CHAT_MEMBER_SCRIPT,
+                    chatMembersKeys(chatId).subList(0, 1), userId.toString());
+            return result == null || result < 0 ? null : result == 1L;
+        } catch (Exception e) {
+            log.warn("Failed to check chat membership of {} in {}: {}", userId, chatId, e.getMessage());
+            return null;
+        }
+    }
+
+    // generation to pass to fillChatMembers; read it before loading the room from Mongo
+    public String getChatMembersGeneration(String chatId) {
+        try {
+            String generation = redisTemplate.opsForValue().get(CHAT_MEMBERS_GEN_PREFIX + chatId);
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            log.warn("Failed to read chat members generation of {}: {}", chatId, e.getMessage());
+            return null;
+        }
+    }
+
+    // stores the member set unless a membership change happened after the generation was read
+    public boolean fillChatMembers(String chatId, String generation, Collection<Long> memberIds) {
+        List<Long> ids = distinctNonNull(memberIds);
+        if (chatId == null || chatId.isBlank() || generation == null || ids.isEmpty()) {
+            return false;
+        }
+        List<String> args = new ArrayList<>(ids.size() + 1);
+        args.add(generation);
+        ids.forEach(id -> args.add(id.toString()));
+        try {
+            Long filled = redisTemplate.execute(FILL_CHAT_MEMBERS_SCRIPT, chatMembersKeys(chatId), args.toArray());
+            return filled != null && filled == 1L;
+        } catch (Exception e) {
+            log.warn("Failed to fill chat members of {}: {}", chatId, e.getMessage());
+            return false;
+        }
+    }
+
+    public void addChatMembers(String chatId, Collection<Long> userIds) {
+        updateChatMembers(chatId, "add", userIds);
+    }
+
+    public void removeChatMembers(String chatId, Collection<Long> userIds) {
+        updateChatMembers(chatId, "remove", userIds);
+    }
+
+    public void deleteChatMembers(String chatId) {
+        updateChatMembers(chatId, "delete", List.of());
+    }
+
+    private void updateChatMembers(String chatId, String operation, Collection<Long> userIds) {
+        if (chatId == null || chatId.isBlank()) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(operation);
+        distinctNonNull(userIds).forEach(id -> args.add(id.toString()));
+        try {
+            redisTemplate.execute(UPDATE_CHAT_MEMBERS_SCRIPT, chatMembersKeys(chatId), args.toArray());
+        } catch (Exception e) {
+            // the set would now be wrong for good, so drop it and let the next read rebuild it
+            log.error("Failed to {} chat members of {}: {}", operation, chatId, e.getMessage());
+            try {
+                redisTemplate.delete(CHAT_MEMBERS_PREFIX + chatId);
+            } catch (Exception ignored) {
+                log.error("Failed to drop chat member set of {}", chatId);
+            }
+        }
+    }
+
+    private static List<String> chatMembersKeys(String chatId) {
+        return List.of(CHAT_MEMBERS_PREFIX + chatId, CHAT_MEMBERS_GEN_PREFIX + chatId);
+    }
+
+    // both ban lists of a user, or null when they are not cached (or Redis is unavailable)
+    public UserBanEdgesDTO getCachedBanEdges(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        try {
+            List<byte[]> values = multiGetRaw(List.of(USER_BANS_PREFIX + userId, USER_BANNED_BY_PREFIX + userId));
+            if (values == null || values.size() < 2 || values.get(0) == null || values.get(1) == null) {
+                return null;
+            }
+            return UserBanEdgesDTO.builder()
+                    .bannedUserIds(codecs.idSet().decode(values.get(0)))
+                    .banningUserIds(codecs.idSet().decode(values.get(1)))
+                    .build();
+        } catch (Exception e) {
+            log.warn("Failed to read cached ban lists of {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // generation to pass to cacheBanEdges; read it before loading the lists from user-service
+    public String getBanEdgesGeneration(Long userId) {
+        try {
+            String generation = redisTemplate.opsForValue().get(USER_BANS_GEN_PREFIX + userId);
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            log.warn("Failed to read ban lists generation of {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // stores the ban lists unless a ban change was evicted after the generation was read
+    public boolean cacheBanEdges(Long userId, String generation, UserBanEdgesDTO edges) {
+        if (userId == null || generation == null || edges == null) {
+            return false;
+        }
+        try {
+            byte[][] keysAndArgs = {
+                    rawKey(USER_BANS_PREFIX + userId),
+                    rawKey(USER_BANNED_BY_PREFIX + userId),
+                    rawKey(USER_BANS_GEN_PREFIX + userId),
+                    rawKey(generation),
+                    codecs.idSet().encode(edges.getBannedUserIds()),
+                    codecs.idSet().encode(edges.getBanningUserIds()),
+                    rawKey(String.valueOf(USER_BANS_TIMEOUT.toSeconds()))
+            };
+            Long stored = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().eval(FILL_USER_BANS_LUA, ReturnType.INTEGER, 3, keysAndArgs));
+            return stored != null && stored == 1L;
+        } catch (Exception e) {
+            log.warn("Failed to cache ban lists of {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    public void evictBanEdges(Collection<Long> userIds) {
+        for (Long userId : distinctNonNull(userIds)) {
+            try {
+                redisTemplate.execute(EVICT_USER_BANS_SCRIPT,
+                        List.of(USER_BANS_PREFIX + userId, USER_BANNED_BY_PREFIX + userId, USER_BANS_GEN_PREFIX + userId),
+                        String.valueOf(USER_BANS_TIMEOUT.multipliedBy(2).toSeconds()));
+            } catch (Exception e) {
+                log.error("Failed to evict ban lists of {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    // unread counter of a member, or null when it is not seeded (or Redis is unavailable)
+    public Long getUnreadCounter(String chatId, Long userId) {
+        try {
+            Object value = redisTemplate.opsForHash().get(CHAT_UNREAD_PREFIX + chatId, userId.toString());
+            return value == null ? null : Long.parseLong(value.toString());
+        } catch (Exception e) {
+            log.warn("Failed to read unread counter {}/{}: {}", chatId, userId, e.getMessage());
+            return null;
+        }
+    }
+
+    // unread counters of many members with one HMGET; unseeded members are absent from the map
+    public Map<Long, Long> getUnreadCounters(String chatId, Collection<Long> userIds) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<Object> values = redisTemplate.opsForHash().multiGet(
+                    CHAT_UNREAD_PREFIX + chatId, ids.stream().map(id -> (Object) id.toString()).toList());
+            Map<Long, Long> result = new HashMap<>();
+            for (int i = 0; i < ids.size() && values != null && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(ids.get(i), Long.parseLong(values.get(i).toString()));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("Failed to read unread counters for {}: {}", chatId, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    // generation to pass to seedUnreadCounter; read it before counting in Mongo
+    public String getUnreadGeneration(String chatId) {
+        try {
+            String generation = redisTemplate.opsForValue().get(CHAT_UNREAD_GEN_PREFIX + chatId);
+            return generation != null ? generation : "0";
+        } catch (Exception e) {
+            log.warn("Failed to read unread generation of {}: {}", chatId, e.getMessage());
+            return null;
+        }
+    }
+
+    // seed a counter computed from Mongo unless a counter write happened after the generation was read
+    public boolean seedUnreadCounter(String chatId, Long userId, String generation, long count) {
+        if (generation == null) {
+            return false;
+        }
+        try {
+            Long seeded = redisTemplate.execute(SEED_UNREAD_SCRIPT, unreadKeys(chatId),
+                    generation, userId.toString(), String.valueOf(count),
+                    String.valueOf(CHAT_UNREAD_TIMEOUT.toSeconds()));
+            return seeded != null && seeded == 1L;
+        } catch (Exception e) {
+            log.warn("Failed to seed unread counter {}/{}: {}", chatId, userId, e.getMessage());
+            return false;
+        }
+    }
+
+    // +1 for every given member whose counter is seeded, in one round trip
+    public void incrementUnreadCounters(String chatId, Collection<Long> userIds) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
             return;
         }
+        List<String> args = new ArrayList<>(ids.size() + 1);
+        args.add(unreadGenerationTtl());
+        ids.forEach(id -> args.add(id.toString()));
+        try {
+            redisTemplate.execute(INCREMENT_UNREAD_SCRIPT, unreadKeys(chatId), args.toArray());
+        } catch (Exception e) {
+            // counters are now behind; drop them so the next read recounts from Mongo
+            log.warn("Failed to increment unread counters for {}: {}", chatId, e.getMessage());
+            evictUnreadCounters(chatId);
+        }
+    }
+
+    // drop a member's counter after their watermark moved; the next read recounts it from Mongo
+    public void clearUnreadCounter(String chatId, Long userId) {
         try {
-            // create key for chat participants
-            String key = CHAT_PARTICIPANTS_PREFIX + chatId;
-            // serialize participant ids
-            String value = objectMapper.writeValueAsString(participantIds);
-            // cache participants with TTL 5 mins
-            redisTemplate.opsForValue().set(key, value, CHAT_PARTICIPANTS_CACHE_TIMEOUT);
+            redisTemplate.execute(CLEAR_UNREAD_SCRIPT, unreadKeys(chatId), unreadGenerationTtl(), userId.toString());
         } catch (Exception e) {
-            log.error("Failed to cache chat participants for {}: {}", chatId, e.getMessage());
+            log.warn("Failed to clear unread counter {}/{}: {}", chatId, userId, e.getMessage());
         }
     }
 
-    // retrieve cached chat participants
-    public List<Long> getCachedChatParticipants(String chatId) {
+    // drop all counters of a chat (message deleted, room purged); they are rebuilt lazily
+    public void evictUnreadCounters(String chatId) {
         if (chatId == null || chatId.isBlank()) {
-            return List.of();
+            return;
         }
         try {
-            // create key for chat participants
-            String key = CHAT_PARTICIPANTS_PREFIX + chatId;
-            // get cached participants
-            String value = redisTemplate.opsForValue().get(key);
-            if (value != null) {
-                // deserialize participant ids
-                return new ArrayList<>(objectMapper.readValue(
-                        value,
-                        objectMapper.getTypeFactory().constructCollectionType(Set.class, Long.class)
-                ));
+            redisTemplate.execute(CLEAR_UNREAD_SCRIPT, unreadKeys(chatId), unreadGenerationTtl());
+        } catch (Exception e) {
+            log.warn("Failed to evict unread counters for {}: {}", chatId, e.getMessage());
+        }
+    }
+
+    private static List<String> unreadKeys(String chatId) {
+        return List.of(CHAT_UNREAD_PREFIX + chatId, CHAT_UNREAD_GEN_PREFIX + chatId);
+    }
+
+    // the generation outlives the counters, so a seed that started before a write always sees it changed
+    private static String unreadGenerationTtl() {
+        return String.valueOf(CHAT_UNREAD_TIMEOUT.multipliedBy(2).toSeconds());
+    }
+
+    // mirrored read watermarks of many members with one HMGET; unmirrored members are absent from the map
+    public Map<Long, LocalDateTime> getReadWatermarks(String chatId, Collection<Long> userIds) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<Object> values = redisTemplate.opsForHash().multiGet(
+                    CHAT_READ_WATERMARK_PREFIX + chatId, ids.stream().map(id -> (Object) id.toString()).toList());
+            Map<Long, LocalDateTime> result = new HashMap<>();
+            for (int i = 0; i < ids.size() && values != null && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(ids.get(i), LocalDateTime.ofInstant(
+                            Instant.ofEpochMilli(Long.parseLong(values.get(i).toString())), ZoneOffset.UTC));
+                }
             }
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to deserialize participants cache for {}: {}", chatId, e.getMessage());
+            return result;
         } catch (Exception e) {
-            log.error("Failed to fetch participants cache for {}: {}", chatId, e.getMessage());
+            log.warn("Failed to read watermarks for {}: {}", chatId, e.getMessage());
+            return Map.of();
         }
-        return List.of();
     }
 
-    // evict cached chat participants
-    public void evictChatParticipants(String chatId) {
+    // raise mirrored watermarks in one round trip; never moves one backwards
+    public void raiseReadWatermarks(String chatId, Map<Long, LocalDateTime> watermarks) {
+        if (watermarks == null || watermarks.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(CHAT_READ_WATERMARK_TIMEOUT.toSeconds()));
+        watermarks.forEach((userId, readUpTo) -> {
+            if (userId != null && readUpTo != null) {
+                args.add(userId.toString());
+                args.add(String.valueOf(readUpTo.toInstant(ZoneOffset.UTC).toEpochMilli()));
+            }
+        });
+        try {
+            redisTemplate.execute(RAISE_READ_WATERMARKS_SCRIPT,
+                    List.of(CHAT_READ_WATERMARK_PREFIX + chatId), args.toArray());
+        } catch (Exception e) {
+            // Mongo stays authoritative; a stale mirror only delays the read state
+            log.warn("Failed to mirror watermarks for {}: {}", chatId, e.getMessage());
+            evictReadWatermarks(chatId);
+        }
+    }
+
+    public void evictReadWatermarks(String chatId) {
         if (chatId == null || chatId.isBlank()) {
             return;
         }
-        redisTemplate.delete(CHAT_PARTICIPANTS_PREFIX + chatId);
+        try {
+            redisTemplate.delete(CHAT_READ_WATERMARK_PREFIX + chatId);
+        } catch (Exception e) {
+            log.warn("Failed to evict watermarks for {}: {}", chatId, e.getMessage());
+        }
     }
 
     //get the chat user is now in
@@ -255,16 +826,33 @@ public class RedisService {
 
     //to keep user online while active
     public void heartbeat(Long userId) {
-        String userKey = USER_CHAT_KEY_PREFIX + userId;
-        String chatId = extractChatId(redisTemplate.opsForValue().get(userKey));
+        runPresenceScript(HEARTBEAT_SCRIPT, userId, null, "");
+    }
 
-        if (chatId != null) {
-            //refresh the TTL
-            redisTemplate.expire(userKey, ONLINE_TIMEOUT);
+    // refresh presence only while the user is still viewing chatId
+    public boolean heartbeat(Long userId, String chatId) {
+        Long refreshed = runPresenceScript(HEARTBEAT_SCRIPT, userId, null, chatId);
+        return refreshed != null && refreshed == 1L;
+    }
 
-            String lastSeenKey = LAST_SEEN_PREFIX + userId;
-            redisTemplate.opsForValue().set(lastSeenKey, String.valueOf(System.currentTimeMillis()));
+    // which of the given users are online, resolved with a single MGET on their user_chat keys
+    public Set<Long> getOnlineUserIds(Collection<Long> userIds) {
+        List<Long> ids = distinctNonNull(userIds);
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        List<String> states = redisTemplate.opsForValue().multiGet(
+                ids.stream().map(id -> USER_CHAT_KEY_PREFIX + id).toList());
+        if (states == null) {
+            return Set.of();
         }
+        Set<Long> online = new HashSet<>();
+        for (int i = 0; i < ids.size() && i < states.size(); i++) {
+            if (states.get(i) != null) {
+                online.add(ids.get(i));
+            }
+        }
+        return online;
     }
 
     //check if user online
@@ -274,6 +862,56 @@ public class RedisService {
         return Boolean.TRUE.equals(redisTemplate.hasKey(userKey));
     }
 
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // cache values are codec-encoded bytes, so they bypass the template's string serializer
+    private void setRaw(String key, byte[] value, Duration ttl) {
+        redisTemplate.execute((RedisCallback<Object>) connection ->
+                connection.stringCommands().set(rawKey(key), value, Expiration.from(ttl), SetOption.upsert()));
+    }
+
+    private byte[] getRaw(String key) {
+        return redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(rawKey(key)));
+    }
+
+    private List<byte[]> multiGetRaw(List<String> keys) {
+        byte[][] rawKeys = keys.stream().map(RedisService::rawKey).toArray(byte[][]::new);
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(rawKeys));
+    }
+
+    // targetChatId: the chat whose set the script writes, or null when it only touches the previous chat's
+    private Long runPresenceScript(RedisScript<Long> script, Long userId, String targetChatId, String... extraArgs) {
+        List<String> keys = new ArrayList<>(List.of(
+                USER_CHAT_KEY_PREFIX + userId,
+                LAST_SEEN_PREFIX + userId,
+                ONLINE_USERS_KEY));
+        if (targetChatId != null) {
+            keys.add(CHAT_ONLINE_USERS_PREFIX + targetChatId);
+        }
+        Object[] args = new Object[5 + extraArgs.length];
+        args[0] = userId.toString();
+        args[1] = String.valueOf(System.currentTimeMillis());
+        args[2] = String.valueOf(ONLINE_TIMEOUT.toSeconds());
+        args[3] = CHAT_ONLINE_USERS_PREFIX;
+        args[4] = AFK_CHAT_PREFIX;
+        System.arraycopy(extraArgs, 0, args, 5, extraArgs.length);
+        return redisTemplate.execute(script, keys, args);
+    }
+
+    private static List<Long> distinctNonNull(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        return userIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
     private String extractChatId(String stateValue) {
         if (stateValue == null || stateValue.isBlank()) {
             return null;
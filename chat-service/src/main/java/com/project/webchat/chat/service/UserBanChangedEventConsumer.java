@@ -0,0 +1,32 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.chat.service.support.UserBanGraphCache;
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserBanChangedEventConsumer {
+
+    private final UserBanGraphCache userBanGraphCache;
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.user-ban-changed}",
+            containerFactory = "userBanChangedKafkaListenerContainerFactory"
+    )
+    public void consumeUserBanChanged(UserBanChangedEventV1 event) {
+        if (event == null || event.getUserId() == null || event.getTargetUserId() == null) {
+            throw new IllegalArgumentException("Invalid user-ban-changed event payload");
+        }
+        log.debug("Consuming user-ban-changed eventId={} userId={} targetUserId={} banned={}",
+                event.getEventId(), event.getUserId(), event.getTargetUserId(), event.isBanned());
+        // both users have the pair in one of their two lists
+        userBanGraphCache.evict(List.of(event.getUserId(), event.getTargetUserId()));
+    }
+}
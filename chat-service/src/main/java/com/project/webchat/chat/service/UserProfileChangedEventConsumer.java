@@ -0,0 +1,28 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserProfileChangedEventConsumer {
+
+    private final RedisService redisService;
+
+    @KafkaListener(
+            topics = "${app.kafka.topics.user-profile-changed}",
+            containerFactory = "userProfileChangedKafkaListenerContainerFactory"
+    )
+    public void consumeUserProfileChanged(UserProfileChangedEventV1 event) {
+        if (event == null || event.getUserId() == null) {
+            throw new IllegalArgumentException("Invalid user-profile-changed event payload");
+        }
+        log.debug("Consuming user-profile-changed eventId={} userId={}", event.getEventId(), event.getUserId());
+        // drops the Redis entry and, through the invalidation channel, every node's local copy
+        redisService.evictUserInfo(event.getUserId());
+    }
+}
@@ -3,8 +3,12 @@ package com.project.webchat.chat.service;
 import com.project.webchat.chat.dto.*;
 import com.project.webchat.chat.dto.websocketDTOs.*;
 import com.project.webchat.chat.entity.MessageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
@@ -12,7 +16,9 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Slf4j
@@ -20,6 +26,9 @@ import java.util.Set;
 public class WebSocketService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    // registered once per event type; looking a meter up on every frame is a hot-path cost
+    private final Map<String, FrameMeters> frameMeters = new ConcurrentHashMap<>();
 
     // Constants
     private static final String TOPIC_CHAT_MESSAGES = "/topic/chat/%s/messages";
@@ -92,8 +101,8 @@ public class WebSocketService {
     }
 
     private void deliverChatCreated(Long userId, ChatRoomDTO chatRoom) {
-        ChatRoomCreatedEvent event = new ChatRoomCreatedEvent(chatRoom);
-        sendToUserQueue(userId, QUEUE_CHATS_NEW, chatRoom);
+        Frame event = encode(new ChatRoomCreatedEvent(chatRoom));
+        sendToUserQueue(userId, QUEUE_CHATS_NEW, encode(chatRoom));
         sendToUserInbox(userId, event);
         if (chatRoom != null && chatRoom.getId() != null && !chatRoom.getId().isBlank()) {
             sendToChatTopic(TOPIC_CHAT_MESSAGES, chatRoom.getId(), event);
@@ -102,16 +111,18 @@ public class WebSocketService {
     }
 
     private void deliverChatUpdated(String chatId, ChatRoomDTO chatRoom, Set<Long> memberIds) {
-        ChatRoomUpdatedEvent event = new ChatRoomUpdatedEvent(chatRoom);
+        // encoded once, the same frames go to every member
+        Frame room = encode(chatRoom);
+        Frame event = encode(new ChatRoomUpdatedEvent(chatRoom));
         for (Long memberId : memberIds) {
-            sendToUserQueue(memberId, QUEUE_CHATS_UPDATED, chatRoom);
+            sendToUserQueue(memberId, QUEUE_CHATS_UPDATED, room);
             sendToUserInbox(memberId, event);
         }
         log.info("Chat {} updated, notified {} members", chatId, memberIds.size());
     }
 
     private void deliverChatDeleted(String chatId, Set<Long> memberIds) {
-        ChatRoomDeletedEvent event = new ChatRoomDeletedEvent(chatId);
+        Frame event = encode(new ChatRoomDeletedEvent(chatId));
         for (Long memberId : memberIds) {
             sendToUserQueue(memberId, QUEUE_CHATS_DELETED, event);
             sendToUserInbox(memberId, event);
@@ -129,7 +140,7 @@ public class WebSocketService {
     }
 
     public void notifyUserLeftChatForAll(String chatId, Long userId, Set<Long> otherMembers) {
-        UserLeftChatEvent event = new UserLeftChatEvent(chatId, userId);
+        Frame event = encode(new UserLeftChatEvent(chatId, userId));
         for (Long memberId : otherMembers) {
             sendToUserQueue(memberId, QUEUE_CHATS_USER_LEFT, event);
         }
@@ -148,10 +159,11 @@ public class WebSocketService {
         log.debug("User {} typing: {} in chat {}", userId, isTyping, chatId);
     }
 
-    public void sendReadReceipt(String chatId, Long readerId, List<String> messageIds) {
-        ReadReceiptEvent event = new ReadReceiptEvent(readerId, messageIds);
+    // the reader's new watermark: everything not sent by them up to readUpTo is read
+    public void sendReadReceipt(String chatId, Long readerId, LocalDateTime readUpTo) {
+        ReadReceiptEvent event = new ReadReceiptEvent(readerId, readUpTo);
         sendToChatTopic(TOPIC_CHAT_READ, chatId, event);
-        log.debug("User {} read {} messages in chat {}", readerId, messageIds.size(), chatId);
+        log.debug("User {} read chat {} up to {}", readerId, chatId, readUpTo);
     }
 
     public void notifyUserJoinedChat(String chatId, Long userId) {
@@ -168,20 +180,62 @@ public class WebSocketService {
 
     // Priv helper methods
     private void sendToChatTopic(String topicPattern, String chatId, Object payload) {
-        String destination = String.format(topicPattern, chatId);
-        messagingTemplate.convertAndSend(destination, payload);
+        sendToChatTopic(topicPattern, chatId, encode(payload));
+    }
+
+    private void sendToChatTopic(String topicPattern, String chatId, Frame frame) {
+        send(String.format(topicPattern, chatId), frame);
     }
 
     private void sendToUserQueue(Long userId, String queueDestination, Object payload) {
-        messagingTemplate.convertAndSendToUser(
-                userId.toString(),
-                queueDestination,
-                payload
-        );
+        sendToUserQueue(userId, queueDestination, encode(payload));
+    }
+
+    private void sendToUserQueue(Long userId, String queueDestination, Frame frame) {
+        // same destination convertAndSendToUser builds; resolved per session by the user destination handler
+        send(messagingTemplate.getUserDestinationPrefix() + userId + queueDestination, frame);
     }
 
     private void sendToUserInbox(Long userId, Object payload) {
-        messagingTemplate.convertAndSend(String.format(TOPIC_USER_INBOX, userId), payload);
+        sendToUserInbox(userId, encode(payload));
+    }
+
+    private void sendToUserInbox(Long userId, Frame frame) {
+        send(String.format(TOPIC_USER_INBOX, userId), frame);
+    }
+
+    /** Payload serialized once with the template's converter; the message is immutable and reusable. */
+    private record Frame(String eventType, Message<?> message, int size) {
+    }
+
+    private Frame encode(Object payload) {
+        Message<?> message = messagingTemplate.getMessageConverter().toMessage(payload, null);
+        if (message == null) {
+            throw new MessageConversionException("Unable to serialize " + payload.getClass().getName());
+        }
+        int size = message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+        return new Frame(payload.getClass().getSimpleName(), message, size);
+    }
+
+    private record FrameMeters(Counter frames, Counter bytes) {
+    }
+
+    private void send(String destination, Frame frame) {
+        messagingTemplate.send(destination, frame.message());
+        FrameMeters meters = frameMeters.computeIfAbsent(frame.eventType(), this::registerFrameMeters);
+        meters.frames().increment();
+        meters.bytes().increment(frame.size());
+    }
+
+    private FrameMeters registerFrameMeters(String eventType) {
+        return new FrameMeters(
+                Counter.builder("chat.websocket.frames.sent")
+                        .tag("event", eventType)
+                        .register(meterRegistry),
+                Counter.builder("chat.websocket.bytes.sent")
+                        .tag("event", eventType)
+                        .baseUnit("bytes")
+                        .register(meterRegistry));
     }
 
     private void runAfterCommit(Runnable task) {
@@ -0,0 +1,51 @@
+package com.project.webchat.chat.service.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Sorted id set as version, varint count, zigzag first id, then varint gaps between neighbours.
+ * Ids of one room are usually close together, so most gaps fit in one or two bytes.
+ */
+public class DeltaVarintLongSetCodec implements RedisValueCodec<Set<Long>> {
+
+    static final byte VERSION = 0x02;
+
+    @Override
+    public byte[] encode(Set<Long> value) {
+        long[] ids = value.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + ids.length * 2);
+        out.write(VERSION);
+        VarInts.writeUnsigned(out, ids.length);
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0) {
+                VarInts.writeSigned(out, ids[0]);
+            } else {
+                VarInts.writeUnsigned(out, ids[i] - previous);
+            }
+            previous = ids[i];
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Set<Long> decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported id set format " + version);
+        }
+        int count = Math.toIntExact(VarInts.readUnsigned(in));
+        Set<Long> ids = new LinkedHashSet<>(Math.max(16, count * 2));
+        long current = 0;
+        for (int i = 0; i < count; i++) {
+            current = i == 0 ? VarInts.readSigned(in) : current + VarInts.readUnsigned(in);
+            ids.add(current);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,40 @@
+package com.project.webchat.chat.service.codec;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/** The original Jackson representation; still written when {@code app.redis.cache-codec=json}. */
+public class JsonRedisValueCodec<T> implements RedisValueCodec<T> {
+
+    private final ObjectMapper objectMapper;
+    // derived getters such as displayName end up in the JSON, so unknown fields are tolerated on read
+    private final ObjectReader reader;
+
+    public JsonRedisValueCodec(ObjectMapper objectMapper, JavaType type) {
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        try {
+            return reader.readValue(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.project.webchat.chat.service.codec;
+
+/**
+ * Reads both the binary format and the JSON written by older instances, and writes whichever one is
+ * configured. Binary formats start with a version byte below 0x20, so they never collide with '{' or '['.
+ */
+public class MigratingCodec<T> implements RedisValueCodec<T> {
+
+    private final RedisValueCodec<T> binary;
+    private final RedisValueCodec<T> json;
+    private final boolean writeBinary;
+
+    public MigratingCodec(RedisValueCodec<T> binary, RedisValueCodec<T> json, boolean writeBinary) {
+        this.binary = binary;
+        this.json = json;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        return writeBinary ? binary.encode(value) : json.encode(value);
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+        return isJson(bytes) ? json.decode(bytes) : binary.decode(bytes);
+    }
+
+    static boolean isJson(byte[] bytes) {
+        return bytes != null && bytes.length > 0 && (bytes[0] == '{' || bytes[0] == '[');
+    }
+}
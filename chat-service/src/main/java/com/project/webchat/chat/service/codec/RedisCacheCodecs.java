@@ -0,0 +1,42 @@
+package com.project.webchat.chat.service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Codecs for cached Redis values. {@code app.redis.cache-codec} picks what is written
+ * ({@code binary} or {@code json}); both formats are always readable, so instances can be rolled
+ * forward or back while old values are still cached.
+ */
+@Component
+@Slf4j
+public class RedisCacheCodecs {
+
+    private final RedisValueCodec<UserInfoDTO> userInfo;
+    private final RedisValueCodec<Set<Long>> idSet;
+
+    public RedisCacheCodecs(ObjectMapper objectMapper,
+                            @Value("${app.redis.cache-codec:binary}") String mode) {
+        RedisValueCodec<UserInfoDTO> userInfoJson = new JsonRedisValueCodec<>(objectMapper,
+                objectMapper.getTypeFactory().constructType(UserInfoDTO.class));
+        RedisValueCodec<Set<Long>> idSetJson = new JsonRedisValueCodec<>(objectMapper,
+                objectMapper.getTypeFactory().constructCollectionType(Set.class, Long.class));
+        boolean json = "json".equalsIgnoreCase(mode);
+        this.userInfo = new MigratingCodec<>(new UserInfoBinaryCodec(), userInfoJson, !json);
+        this.idSet = new MigratingCodec<>(new DeltaVarintLongSetCodec(), idSetJson, !json);
+        log.info("Redis cache values are written as {}", json ? "json" : "binary");
+    }
+
+    public RedisValueCodec<UserInfoDTO> userInfo() {
+        return userInfo;
+    }
+
+    public RedisValueCodec<Set<Long>> idSet() {
+        return idSet;
+    }
+}
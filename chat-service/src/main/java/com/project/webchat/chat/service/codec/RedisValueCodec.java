@@ -0,0 +1,11 @@
+package com.project.webchat.chat.service.codec;
+
+/**
+ * Encodes cache values stored under Redis string keys.
+ */
+public interface RedisValueCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(byte[] bytes);
+}
@@ -0,0 +1,72 @@
+package com.project.webchat.chat.service.codec;
+
+import com.project.webchat.shared.dto.UserInfoDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout: version, flag byte (online, deleted, then one bit per present string field),
+ * zigzag varint id, then each present string as varint length + UTF-8.
+ */
+public class UserInfoBinaryCodec implements RedisValueCodec<UserInfoDTO> {
+
+    static final byte VERSION = 0x01;
+
+    private static final int ONLINE = 1;
+    private static final int DELETED = 1 << 1;
+    private static final int HAS_ID = 1 << 2;
+    private static final int HAS_USERNAME = 1 << 3;
+    private static final int HAS_FIRST_NAME = 1 << 4;
+    private static final int HAS_LAST_NAME = 1 << 5;
+    private static final int HAS_PROFILE_PICTURE = 1 << 6;
+
+    @Override
+    public byte[] encode(UserInfoDTO value) {
+        int flags = (value.isOnline() ? ONLINE : 0)
+                | (value.isDeleted() ? DELETED : 0)
+                | (value.getId() != null ? HAS_ID : 0)
+                | (value.getUsername() != null ? HAS_USERNAME : 0)
+                | (value.getFirstName() != null ? HAS_FIRST_NAME : 0)
+                | (value.getLastName() != null ? HAS_LAST_NAME : 0)
+                | (value.getProfilePicture() != null ? HAS_PROFILE_PICTURE : 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(VERSION);
+        out.write(flags);
+        if (value.getId() != null) {
+            VarInts.writeSigned(out, value.getId());
+        }
+        if (value.getUsername() != null) {
+            VarInts.writeString(out, value.getUsername());
+        }
+        if (value.getFirstName() != null) {
+            VarInts.writeString(out, value.getFirstName());
+        }
+        if (value.getLastName() != null) {
+            VarInts.writeString(out, value.getLastName());
+        }
+        if (value.getProfilePicture() != null) {
+            VarInts.writeString(out, value.getProfilePicture());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public UserInfoDTO decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported user info format " + version);
+        }
+        int flags = in.get() & 0xFF;
+        return UserInfoDTO.builder()
+                .online((flags & ONLINE) != 0)
+                .deleted((flags & DELETED) != 0)
+                .id((flags & HAS_ID) != 0 ? VarInts.readSigned(in) : null)
+                .username((flags & HAS_USERNAME) != 0 ? VarInts.readString(in) : null)
+                .firstName((flags & HAS_FIRST_NAME) != 0 ? VarInts.readString(in) : null)
+                .lastName((flags & HAS_LAST_NAME) != 0 ? VarInts.readString(in) : null)
+                .profilePicture((flags & HAS_PROFILE_PICTURE) != 0 ? VarInts.readString(in) : null)
+                .build();
+    }
+}
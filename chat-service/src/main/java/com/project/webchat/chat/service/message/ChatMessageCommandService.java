@@ -2,7 +2,7 @@ package com.project.webchat.chat.service.message;
 
 import com.project.webchat.chat.dto.AttachmentDTO;
 import com.project.webchat.chat.dto.ChatMessageDTO;
-import com.project.webchat.chat.dto.ChatRoomDTO;
+import com.project.webchat.chat.dto.MessageHistorySliceDTO;
 import com.project.webchat.chat.dto.MessageWithAttachmentsDTO;
 import com.project.webchat.chat.dto.SendMessageRequest;
 import com.project.webchat.chat.entity.Attachment;
@@ -20,7 +20,10 @@ import com.project.webchat.chat.service.RedisService;
 import com.project.webchat.chat.service.WebSocketService;
 import com.project.webchat.chat.service.support.ChatMessageMapper;
 import com.project.webchat.chat.service.support.ChatMessagePreviewHelper;
+import com.project.webchat.chat.service.support.ChatParticipantsCache;
+import com.project.webchat.chat.service.support.ChatReadWatermarkService;
 import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
+import com.project.webchat.chat.service.support.ChatRoomLookupService;
 import com.project.webchat.chat.service.support.ChatRoomPermissionService;
 import com.project.webchat.chat.service.support.PersonalSpacePayloadValidator;
 import com.project.webchat.chat.service.support.PollPayloadHelper;
@@ -41,6 +44,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -71,6 +75,12 @@ public class ChatMessageCommandService {
     private final SharedPollService sharedPollService;
     private final UserBanGuardService userBanGuardService;
     private final PrivateChatContactRequestService privateChatContactRequestService;
+    private final ChatMessageFanOutService chatMessageFanOutService;
+    private final ChatRoomLookupService chatRoomLookupService;
+    private final ChatParticipantsCache chatParticipantsCache;
+    private final ChatReadWatermarkService readWatermarkService;
+
+    private static final int MAX_HISTORY_SLICE_SIZE = 100;
 
     @Transactional
     public ChatMessageDTO sendRichMessage(Long senderId, String chatId, MessageType type,
@@ -84,11 +94,8 @@ public class ChatMessageCommandService {
         }
         personalSpacePayloadValidator.validate(type, normalized);
 
-        if (!isUserChatMember(chatId, senderId)) {
-            throw new IllegalArgumentException("User is not a member of this chat.");
-        }
-        ChatRoom room = chatRoomRepository.findById(chatId)
-                .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
+        ChatRoom room = loadRoomForMember(chatId, senderId, "send-rich",
+                "User is not a member of this chat.");
         if (type == MessageType.POLL) {
             assertPollAllowedInRoom(room);
         }
@@ -107,8 +114,8 @@ public class ChatMessageCommandService {
                 .build();
         ChatMessage saved = chatMessageRepository.save(chatMessage);
         String preview = previewHelper.getPreviewText(normalized, List.of(), type);
-        publishMessageCreatedV1(saved, preview);
-        updateChatLastActivity(chatId, preview);
+        publishMessageCreatedV1(room, saved, preview);
+        updateChatLastActivity(room, preview);
         redisService.updatePresence(senderId, chatId);
         ChatMessageDTO messageDTO = chatMessageMapper.toMessageDTO(saved, senderInfo);
         deliverSentMessage(room, senderId, messageDTO);
@@ -117,12 +124,8 @@ public class ChatMessageCommandService {
 
     @Transactional
     public ChatMessageDTO sendMessage(Long senderId, SendMessageRequest sendMessageRequest) {
-        if (!isUserChatMember(sendMessageRequest.getChatId(), senderId)) {
-            throw new IllegalArgumentException("User is not a member of this chat.");
-        }
-
-        ChatRoom room = chatRoomRepository.findById(sendMessageRequest.getChatId())
-                .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
+        ChatRoom room = loadRoomForMember(sendMessageRequest.getChatId(), senderId, "send",
+                "User is not a member of this chat.");
         roomPermissionService.assertCanPostMessage(room, senderId);
 
         UserInfoDTO senderInfo = chatUserInfoService.getUserInfo(senderId);
@@ -138,9 +141,9 @@ public class ChatMessageCommandService {
                 .isRead(false)
                 .build();
         ChatMessage saved = chatMessageRepository.save(chatMessage);
-        publishMessageCreatedV1(saved, previewHelper.getPreviewText(sendMessageRequest.getContent(), List.of()));
+        publishMessageCreatedV1(room, saved, previewHelper.getPreviewText(sendMessageRequest.getContent(), List.of()));
 
-        updateChatLastActivity(sendMessageRequest.getChatId(), sendMessageRequest.getContent());
+        updateChatLastActivity(room, sendMessageRequest.getContent());
         redisService.updatePresence(senderId, sendMessageRequest.getChatId());
         ChatMessageDTO messageDTO = chatMessageMapper.toMessageDTO(saved, senderInfo);
         deliverSentMessage(room, senderId, messageDTO);
@@ -155,9 +158,7 @@ public class ChatMessageCommandService {
         String sourceId = forwardSourceMessageId.trim();
         ChatMessage source = chatMessageRepository.findById(sourceId)
                 .orElseThrow(() -> new IllegalArgumentException("Forwarded message was not found."));
-        validateForwardAccess(senderId, targetChatId, source);
-        ChatRoom targetRoom = chatRoomRepository.findById(targetChatId)
-                .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
+        ChatRoom targetRoom = validateForwardAccess(senderId, targetChatId, source);
         roomPermissionService.assertCanPostMessage(targetRoom, senderId);
 
         List<Attachment> sourceAttachments = chatMessageMapper.collectAttachmentsForMessage(source);
@@ -211,10 +212,10 @@ public class ChatMessageCommandService {
                     targetChatId, senderId);
             newAttachments.add(clone);
         }
-        updateChatLastActivity(targetChatId,
-                previewHelper.getPreviewText(saved.getContent(), newAttachments, saved.getMessageType()));
-        publishMessageCreatedV1(saved,
-                previewHelper.getPreviewText(saved.getContent(), newAttachments, saved.getMessageType()));
+        String forwardPreview = previewHelper.getPreviewText(
+                saved.getContent(), newAttachments, saved.getMessageType());
+        updateChatLastActivity(targetRoom, forwardPreview);
+        publishMessageCreatedV1(targetRoom, saved, forwardPreview);
         redisService.updatePresence(senderId, targetChatId);
         ChatMessageDTO messageDTO = chatMessageMapper.toMessageDTO(saved, senderInfo);
         deliverSentMessage(targetRoom, senderId, messageDTO);
@@ -225,12 +226,8 @@ public class ChatMessageCommandService {
     public MessageWithAttachmentsDTO sendMixedMessage(Long senderId, String chatId,
                                                       String content, List<String> attachmentIds,
                                                       MessageType type, String replyToMessageId) {
-        if (!isUserChatMember(chatId, senderId)) {
-            throw new IllegalArgumentException("User is not a member of this chat");
-        }
-
-        ChatRoom room = chatRoomRepository.findById(chatId)
-                .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
+        ChatRoom room = loadRoomForMember(chatId, senderId, "send-mixed",
+                "User is not a member of this chat");
         roomPermissionService.assertCanPostMessage(room, senderId);
 
         UserInfoDTO senderInfo = chatUserInfoService.getUserInfo(senderId);
@@ -248,8 +245,9 @@ public class ChatMessageCommandService {
 
         List<Attachment> attachments = linkAttachments(attachmentIds, savedMessage);
 
-        updateChatLastActivity(chatId, previewHelper.getPreviewText(content, attachments));
-        publishMessageCreatedV1(savedMessage, previewHelper.getPreviewText(content, attachments));
+        String preview = previewHelper.getPreviewText(content, attachments);
+        updateChatLastActivity(room, preview);
+        publishMessageCreatedV1(room, savedMessage, preview);
         redisService.updatePresence(senderId, chatId);
         ChatMessageDTO messageDTO = chatMessageMapper.toMessageDTO(savedMessage, senderInfo);
         deliverSentMessage(room, senderId, messageDTO);
@@ -261,12 +259,8 @@ public class ChatMessageCommandService {
                                                                 List<String> attachmentIds,
                                                                 MessageType type,
                                                                 String replyToMessageId) {
-        if (!isUserChatMember(chatId, senderId)) {
-            throw new IllegalArgumentException("User is not a member of this chat");
-        }
-
-        ChatRoom room = chatRoomRepository.findById(chatId)
-                .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
+        ChatRoom room = loadRoomForMember(chatId, senderId, "send-attachments",
+                "User is not a member of this chat");
         roomPermissionService.assertCanPostMessage(room, senderId);
 
         UserInfoDTO senderInfo = chatUserInfoService.getUserInfo(senderId);
@@ -284,8 +278,9 @@ public class ChatMessageCommandService {
         ChatMessage savedMessage = chatMessageRepository.save(message);
         List<Attachment> attachments = linkAttachments(attachmentIds, savedMessage);
 
-        updateChatLastActivity(chatId, previewHelper.getPreviewText(null, attachments));
-        publishMessageCreatedV1(savedMessage, previewHelper.getPreviewText(null, attachments));
+        String preview = previewHelper.getPreviewText(null, attachments);
+        updateChatLastActivity(room, preview);
+        publishMessageCreatedV1(room, savedMessage, preview);
         redisService.updatePresence(senderId, chatId);
         ChatMessageDTO messageDTO = chatMessageMapper.toMessageDTO(savedMessage, senderInfo);
         deliverSentMessage(room, senderId, messageDTO);
@@ -300,18 +295,77 @@ public class ChatMessageCommandService {
         Page<ChatMessage> messagePage = chatMessageRepository
                 .findByChatIdOrderByTimestampAsc(chatId, pageable);
 
-        Set<Long> senderIds = messagePage.getContent().stream()
+        return new PageImpl<>(toMessageDTOs(chatId, messagePage.getContent(), currentUserId),
+                pageable, messagePage.getTotalElements());
+    }
+
+    /**
+     * Cursor page of history, newest first. {@code before}/{@code after} are message ids of this chat;
+     * the time bounds are only used when no message id is given. Without any bound the newest messages
+     * are returned.
+     */
+    public MessageHistorySliceDTO getMessageHistorySlice(String chatId, Long currentUserId,
+                                                         String beforeMessageId, String afterMessageId,
+                                                         LocalDateTime beforeTime, LocalDateTime afterTime,
+                                                         int limit) {
+        if (!isUserChatMember(chatId, currentUserId)) {
+            throw new SecurityException("Access denied");
+        }
+        boolean newer = afterMessageId != null || afterTime != null;
+        if (newer && (beforeMessageId != null || beforeTime != null)) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+
+        String anchorId = newer ? afterMessageId : beforeMessageId;
+        LocalDateTime anchorTime = newer ? afterTime : beforeTime;
+        if (anchorId != null) {
+            anchorTime = chatMessageRepository.findById(anchorId)
+                    .filter(message -> chatId.equals(message.getChatId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Message not found"))
+                    .getTimestamp();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_SLICE_SIZE));
+        // one extra row tells whether another page exists without counting
+        List<ChatMessage> found = new ArrayList<>(chatMessageRepository
+                .findHistorySlice(chatId, anchorTime, anchorId, !newer, pageSize + 1));
+        boolean hasMore = found.size() > pageSize;
+        if (hasMore) {
+            found = new ArrayList<>(found.subList(0, pageSize));
+        }
+        if (newer) {
+            Collections.reverse(found);
+        }
+
+        return MessageHistorySliceDTO.builder()
+                .messages(toMessageDTOs(chatId, found, currentUserId))
+                .hasMore(hasMore)
+                .newestMessageId(found.isEmpty() ? null : found.get(0).getId())
+                .oldestMessageId(found.isEmpty() ? null : found.get(found.size() - 1).getId())
+                .build();
+    }
+
+    private List<ChatMessageDTO> toMessageDTOs(String chatId, List<ChatMessage> messages, Long currentUserId) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> senderIds = messages.stream()
                 .map(ChatMessage::getSenderId)
                 .collect(Collectors.toSet());
 
         Map<Long, UserInfoDTO> userInfoMap = chatUserInfoService.getUserInfoBatch(senderIds);
-
-        List<ChatMessageDTO> enrichedMessages = messagePage.getContent()
-                .stream()
-                .map(msg -> chatMessageMapper.toMessageDTO(msg, userInfoMap.get(msg.getSenderId()), currentUserId))
+        // read ticks come from the members' watermarks; the per-message flag only covers legacy data
+        ChatReadWatermarkService.RoomReadState readState = readWatermarkService.getRoomReadState(
+                chatId, chatParticipantsCache.getMemberIds(chatId));
+
+        return messages.stream()
+                .map(msg -> {
+                    ChatMessageDTO dto = chatMessageMapper.toMessageDTO(
+                            msg, userInfoMap.get(msg.getSenderId()), currentUserId);
+                    dto.setRead(msg.isRead() || readState.isReadByOtherThan(msg.getSenderId(), msg.getTimestamp()));
+                    return dto;
+                })
                 .toList();
-
-        return new PageImpl<>(enrichedMessages, pageable, messagePage.getTotalElements());
     }
 
     @Transactional
@@ -323,21 +377,13 @@ public class ChatMessageCommandService {
         redisService.updatePresence(senderId, chatId);
         webSocketService.notifyUserJoinedChat(chatId, senderId);
 
-        List<ChatMessage> unreadMessages = chatMessageRepository
-                .findUnreadMessagesNotFromUser(chatId, senderId);
-
-        if (unreadMessages.isEmpty()) {
-            return;
-        }
-
-        for (ChatMessage message : unreadMessages) {
-            message.setRead(true);
-            message.setReadAt(LocalDateTime.now());
+        // one upsert of the reader's watermark, however many messages it covers
+        Optional<LocalDateTime> readUpTo = chatMessageRepository.findNewestTimestamp(chatId);
+        if (readUpTo.isPresent() && readWatermarkService.advance(chatId, senderId, readUpTo.get())) {
+            webSocketService.sendReadReceipt(chatId, senderId, readUpTo.get());
         }
-
-        chatMessageRepository.saveAll(unreadMessages);
-        List<String> readMessageIds = unreadMessages.stream().map(ChatMessage::getId).toList();
-        webSocketService.sendReadReceipt(chatId, senderId, readMessageIds);
+        // dropped only now: a message sent before the watermark moved is recounted against it, not left as "1"
+        redisService.clearUnreadCounter(chatId, senderId);
     }
 
     @Transactional
@@ -345,7 +391,7 @@ public class ChatMessageCommandService {
         ChatMessage toDelete = chatMessageRepository.findById(messageId)
                 .orElseThrow(() -> new IllegalArgumentException("Message not found"));
 
-        ChatRoom room = loadRoom(toDelete.getChatId());
+        ChatRoom room = loadRoom(toDelete.getChatId(), "message-delete");
         if (!roomPermissionService.canEditOrDeleteMessage(room, actorId, toDelete.getSenderId())) {
             throw new ForbiddenChatOperationException("You cannot delete this message");
         }
@@ -362,6 +408,8 @@ public class ChatMessageCommandService {
         }
 
         chatMessageRepository.delete(toDelete);
+        // the message may still be unread for some members; counters are recounted from the watermarks
+        redisService.evictUnreadCounters(chatId);
         refreshChatLastMessageAfterDelete(chatId);
         webSocketService.notifyMessageDeleted(messageId, chatId, actorId);
     }
@@ -371,7 +419,7 @@ public class ChatMessageCommandService {
         ChatMessage message = chatMessageRepository.findById(messageId)
                 .orElseThrow(() -> new IllegalArgumentException("Message not found"));
 
-        ChatRoom room = loadRoom(message.getChatId());
+        ChatRoom room = loadRoom(message.getChatId(), "message-edit");
         MessageType messageType = message.getMessageType() != null ? message.getMessageType() : MessageType.TEXT;
         boolean canFullEdit = roomPermissionService.canEditOrDeleteMessage(room, actorId, message.getSenderId());
         if (!canFullEdit) {
@@ -512,48 +560,66 @@ public class ChatMessageCommandService {
         if (chatId == null || chatId.isBlank() || userId == null) {
             return false;
         }
-        return chatRoomRepository.findById(chatId)
-                .map(room -> {
-                    if (!room.isMember(userId) || room.isBanned(userId)) {
-                        return false;
-                    }
-                    if (room.getType() == ChatType.PRIVATE) {
-                        return !userBanGuardService.isPrivateChatBlocked(room, userId);
-                    }
-                    return true;
-                })
+        // SISMEMBER on the write-through member set; the room is only needed for ban checks
+        if (!chatParticipantsCache.isMember(chatId, userId)) {
+            return false;
+        }
+        return chatRoomLookupService.findRoomForAccessCheck(chatId, "membership")
+                .map(room -> passesBanChecks(room, userId))
                 .orElse(false);
     }
 
+    private boolean canAccessAsMember(ChatRoom room, Long userId) {
+        return room.isMember(userId) && passesBanChecks(room, userId);
+    }
+
+    private boolean passesBanChecks(ChatRoom room, Long userId) {
+        if (room.isBanned(userId)) {
+            return false;
+        }
+        if (room.getType() == ChatType.PRIVATE) {
+            return !userBanGuardService.isPrivateChatBlocked(room, userId);
+        }
+        return true;
+    }
+
+    // one room read per send: the membership check and the rest of the pipeline share this instance
+    private ChatRoom loadRoomForMember(String chatId, Long userId, String operation, String notMemberMessage) {
+        if (chatId == null || chatId.isBlank() || userId == null) {
+            throw new IllegalArgumentException(notMemberMessage);
+        }
+        return chatRoomLookupService.findRoom(chatId, operation)
+                .filter(room -> canAccessAsMember(room, userId))
+                .orElseThrow(() -> new IllegalArgumentException(notMemberMessage));
+    }
+
     private List<Attachment> linkAttachments(List<String> attachmentIds, ChatMessage savedMessage) {
         List<Attachment> attachments = new ArrayList<>();
         if (attachmentIds != null && !attachmentIds.isEmpty()) {
             for (String attachmentId : attachmentIds) {
-                Attachment attachment = attachmentRepository.findById(attachmentId)
-                        .orElseThrow(() -> new RuntimeException("Attachment not found: " + attachmentId));
-                attachment.setMessageId(savedMessage.getId());
-                attachment = attachmentRepository.save(attachment);
+                Attachment attachment = attachmentRepository.linkToMessage(attachmentId, savedMessage.getId());
+                if (attachment == null) {
+                    throw new RuntimeException("Attachment not found: " + attachmentId);
+                }
                 attachments.add(attachment);
             }
         }
         return attachments;
     }
 
-    private void validateForwardAccess(Long senderId, String targetChatId, ChatMessage source) {
+    private ChatRoom validateForwardAccess(Long senderId, String targetChatId, ChatMessage source) {
         if (!isUserChatMember(source.getChatId(), senderId)) {
             throw new IllegalArgumentException("You cannot forward this message.");
         }
-        if (!isUserChatMember(targetChatId, senderId)) {
-            throw new IllegalArgumentException("User is not a member of this chat.");
-        }
+        return loadRoomForMember(targetChatId, senderId, "forward", "User is not a member of this chat.");
     }
 
-    private void updateChatLastActivity(String chatId, String content) {
-        chatRoomRepository.findById(chatId).ifPresent(chatRoom -> {
-            chatRoom.setLastActivity(LocalDateTime.now());
-            chatRoom.setLastMessage(content);
-            chatRoomRepository.save(chatRoom);
-        });
+    private void updateChatLastActivity(ChatRoom room, String content) {
+        LocalDateTime now = LocalDateTime.now();
+        // keep the loaded instance in sync so fan-out DTOs see the new preview
+        room.setLastActivity(now);
+        room.setLastMessage(content);
+        chatRoomRepository.updateLastActivity(room.getId(), now, content);
     }
 
     private void deliverSentMessage(ChatRoom room, Long senderId, ChatMessageDTO messageDTO) {
@@ -563,25 +629,20 @@ public class ChatMessageCommandService {
             }
             return;
         }
-        roomEnrichmentService.notifyRoomMembersChatUpdated(room);
+        if (room.getMemberIds() != null) {
+            redisService.incrementUnreadCounters(room.getId(), room.getMemberIds().stream()
+                    .filter(memberId -> !senderId.equals(memberId))
+                    .toList());
+        }
         webSocketService.sendMessageToChat(room.getId(), messageDTO);
         webSocketService.notifyUserJoinedChat(room.getId(), senderId);
         privateChatContactRequestService.maybeCreateContactRequestForPrivateMessage(room, senderId);
-        if (room.getMemberIds() == null || room.getMemberIds().isEmpty()) {
-            return;
-        }
-        for (Long memberId : room.getMemberIds()) {
-            if (memberId == null || memberId.equals(senderId)) {
-                continue;
-            }
-            int unread = roomEnrichmentService.getUnreadCount(room.getId(), memberId);
-            ChatRoomDTO chatDto = roomEnrichmentService.enrichChatWithUserData(room, memberId, unread);
-            webSocketService.notifyIncomingChatMessage(memberId, chatDto, messageDTO);
-        }
+        // per-member chat updates and inbox events run on the bounded fan-out stage
+        chatMessageFanOutService.fanOut(room, senderId, messageDTO);
     }
 
     private void refreshChatLastMessageAfterDelete(String chatId) {
-        chatRoomRepository.findById(chatId).ifPresent(chatRoom -> {
+        chatRoomLookupService.findRoom(chatId, "message-delete").ifPresent(chatRoom -> {
             Optional<ChatMessage> latest = chatMessageRepository.findTopByChatIdOrderByTimestampDesc(chatId);
             if (latest.isPresent()) {
                 ChatMessage msg = latest.get();
@@ -598,20 +659,17 @@ public class ChatMessageCommandService {
                     chatRoom.setLastActivity(chatRoom.getCreatedAt());
                 }
             }
-            chatRoomRepository.save(chatRoom);
+            chatRoomRepository.updateLastActivity(chatId, chatRoom.getLastActivity(), chatRoom.getLastMessage());
             roomEnrichmentService.notifyRoomMembersChatUpdated(chatRoom);
         });
     }
 
-    private ChatRoom loadRoom(String roomId) {
-        return chatRoomRepository.findById(roomId)
+    private ChatRoom loadRoom(String roomId, String operation) {
+        return chatRoomLookupService.findRoom(roomId, operation)
                 .orElseThrow(() -> new IllegalArgumentException("Chat not found"));
     }
 
-    private void publishMessageCreatedV1(ChatMessage savedMessage, String previewText) {
-        ChatRoom room = chatRoomRepository.findById(savedMessage.getChatId())
-                .orElseThrow(() -> new IllegalStateException("Chat room not found for message " + savedMessage.getId()));
-
+    private void publishMessageCreatedV1(ChatRoom room, ChatMessage savedMessage, String previewText) {
         List<Long> recipientIds = room.getMemberIds().stream()
                 .filter(memberId -> !memberId.equals(savedMessage.getSenderId()))
                 .filter(memberId -> !shouldSkipPushBecauseClientIsViewingChat(memberId, savedMessage.getChatId()))
@@ -0,0 +1,97 @@
+package com.project.webchat.chat.service.message;
+
+import com.project.webchat.chat.config.KeyedSerialExecutor;
+import com.project.webchat.chat.dto.ChatMessageDTO;
+import com.project.webchat.chat.dto.ChatRoomDTO;
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.service.WebSocketService;
+import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers a sent message to every room member off the request thread: the room projection is built
+ * once for all recipients, then each member gets their chat-updated and incoming-message events.
+ * Messages of one chat are delivered in send order, so members never end up on an older room state.
+ */
+@Service
+@Slf4j
+public class ChatMessageFanOutService {
+
+    private final KeyedSerialExecutor chatFanOutExecutor;
+    private final ChatRoomEnrichmentService roomEnrichmentService;
+    private final WebSocketService webSocketService;
+    private final Timer fanOutLatency;
+    private final Timer queueWait;
+
+    public ChatMessageFanOutService(KeyedSerialExecutor chatFanOutExecutor,
+                                    ChatRoomEnrichmentService roomEnrichmentService,
+                                    WebSocketService webSocketService,
+                                    MeterRegistry meterRegistry) {
+        this.chatFanOutExecutor = chatFanOutExecutor;
+        this.roomEnrichmentService = roomEnrichmentService;
+        this.webSocketService = webSocketService;
+        this.fanOutLatency = Timer.builder("chat.delivery.fanout.latency")
+                .description("Time to build and send per-member events for one message")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("chat.delivery.fanout.queue.wait")
+                .description("Time a fan-out task waited before a worker picked it up")
+                .register(meterRegistry);
+        Gauge.builder("chat.delivery.fanout.queue.depth", chatFanOutExecutor, KeyedSerialExecutor::getQueuedTasks)
+                .description("Fan-out tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("chat.delivery.fanout.active", chatFanOutExecutor, KeyedSerialExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public void fanOut(ChatRoom room, Long senderId, ChatMessageDTO message) {
+        if (room == null || room.getMemberIds() == null || room.getMemberIds().isEmpty()) {
+            return;
+        }
+        Set<Long> memberIds = new HashSet<>(room.getMemberIds());
+        runAfterCommit(() -> {
+            long enqueuedAt = System.nanoTime();
+            chatFanOutExecutor.execute(room.getId(), () -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                fanOutLatency.record(() -> deliver(room, memberIds, senderId, message));
+            });
+        });
+    }
+
+    private void deliver(ChatRoom room, Set<Long> memberIds, Long senderId, ChatMessageDTO message) {
+        try {
+            Map<Long, ChatRoomDTO> dtos = roomEnrichmentService.enrichChatForMembers(room, memberIds);
+            dtos.forEach((memberId, dto) -> {
+                webSocketService.notifyChatUpdated(room.getId(), dto, Set.of(memberId));
+                if (!memberId.equals(senderId)) {
+                    webSocketService.notifyIncomingChatMessage(memberId, dto, message);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Fan-out of message {} to chat {} failed", message.getId(), room.getId(), e);
+        }
+    }
+
+    private void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
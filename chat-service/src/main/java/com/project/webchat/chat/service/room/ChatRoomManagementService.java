@@ -10,8 +10,11 @@ import com.project.webchat.chat.repository.ChatMessageRepository;
 import com.project.webchat.chat.repository.ChatRoomRepository;
 import com.project.webchat.chat.repository.RoomMemberInviteRepository;
 import com.project.webchat.chat.service.ChatNotificationEventPublisher;
+import com.project.webchat.chat.service.FileStorageService;
 import com.project.webchat.chat.service.RedisService;
 import com.project.webchat.chat.service.WebSocketService;
+import com.project.webchat.chat.service.support.ChatParticipantsCache;
+import com.project.webchat.chat.service.support.ChatReadWatermarkService;
 import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
 import com.project.webchat.chat.service.support.ChatRoomPermissionService;
 import com.project.webchat.chat.service.support.UserBanGuardService;
@@ -28,6 +31,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,6 +46,7 @@ public class ChatRoomManagementService {
     private final ChatRoomRepository chatRoomRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final AttachmentRepository attachmentRepository;
+    private final FileStorageService fileStorageService;
     private final RoomMemberInviteRepository roomMemberInviteRepository;
     private final UserServiceClient userServiceClient;
     private final RedisService redisService;
@@ -52,6 +57,8 @@ public class ChatRoomManagementService {
     private final ChatNotificationEventPublisher chatNotificationEventPublisher;
     private final PersonalSpaceService personalSpaceService;
     private final UserBanGuardService userBanGuardService;
+    private final ChatParticipantsCache chatParticipantsCache;
+    private final ChatReadWatermarkService readWatermarkService;
 
     public Page<ChatRoomDTO> getAllUserChatsSorted(Long userId, Pageable pageable) {
         Page<ChatRoom> chatPage = chatRoomRepository
@@ -99,13 +106,12 @@ public class ChatRoomManagementService {
         // if chat has no members, delete chat
         if (chat.getMemberIds().isEmpty()) {
             chatRoomRepository.delete(chat);
-            redisService.evictChatParticipants(chatId);
+            chatParticipantsCache.roomDeleted(chatId);
             webSocketService.notifyChatDeleted(chatId, otherMembers);
         } else {
             // save chat
             chatRoomRepository.save(chat);
-            // evict cached chat participants
-            redisService.evictChatParticipants(chatId);
+            chatParticipantsCache.membersRemoved(chatId, Set.of(userId));
             webSocketService.notifyUserLeftChatForAll(chatId, userId, otherMembers);
             roomEnrichmentService.notifyRoomMembersChatUpdated(chat);
         }
@@ -214,11 +220,15 @@ public class ChatRoomManagementService {
         }
         String roomId = room.getId();
         Set<Long> members = room.getMemberIds() == null ? Set.of() : new HashSet<>(room.getMemberIds());
+        // blobs are unlinked only when no other chat references them; rows that failed are dropped anyway
+        fileStorageService.deleteChatFiles(roomId);
         attachmentRepository.deleteByChatId(roomId);
         chatMessageRepository.deleteByChatId(roomId);
         roomMemberInviteRepository.deleteByRoomId(roomId);
         chatRoomRepository.delete(room);
-        redisService.evictChatParticipants(roomId);
+        chatParticipantsCache.roomDeleted(roomId);
+        redisService.evictUnreadCounters(roomId);
+        readWatermarkService.roomDeleted(roomId);
         if (!members.isEmpty()) {
             webSocketService.notifyChatDeleted(roomId, members);
         }
@@ -278,25 +288,33 @@ public class ChatRoomManagementService {
     }
 
     public List<UserInfoDTO> getRoomParticipantsForMember(String roomId, Long userId) {
-        // check if cached participants exist
-        List<Long> cachedParticipantIds = redisService.getCachedChatParticipants(roomId);
-        // if cached participants exist and user is in them, return cached participants
-        if (!cachedParticipantIds.isEmpty() && cachedParticipantIds.contains(userId)) {
-            return cachedParticipantIds.stream()
-                    .map(chatUserInfoService::getUserInfo)
-                    .toList();
-        }
+        return chatUserInfoService.getUserInfoList(getRoomParticipantIdsForMember(roomId, userId));
+    }
 
-        // if cached participants do not exist, load room and cache participants
-        ChatRoom room = loadRoom(roomId);
-        if (!room.isMember(userId)) {
+    public Collection<Long> getRoomParticipantIdsForMember(String roomId, Long userId) {
+        // the member set is write-through, so it can be trusted for the membership check
+        Set<Long> participantIds = chatParticipantsCache.getMemberIds(roomId);
+        if (participantIds.isEmpty()) {
+            loadRoom(roomId);
+        }
+        if (!participantIds.contains(userId)) {
             throw new ForbiddenChatOperationException("You are not a member of this chat");
         }
+        return participantIds;
+    }
 
-        redisService.cacheChatParticipants(roomId, room.getMemberIds());
-        return room.getMemberIds().stream()
-                .map(chatUserInfoService::getUserInfo)
-                .toList();
+    /** The subset of {@code userIds} that {@code viewerId} may see presence of: themselves and people they share a room with. */
+    public Set<Long> getUsersSharingRoomWith(Long viewerId, Collection<Long> userIds) {
+        Set<Long> requested = new HashSet<>(userIds);
+        requested.remove(null);
+        Set<Long> visible = new HashSet<>();
+        if (requested.remove(viewerId)) {
+            visible.add(viewerId);
+        }
+        if (!requested.isEmpty()) {
+            visible.addAll(chatRoomRepository.findRoommateIds(viewerId, requested));
+        }
+        return visible;
     }
 
     @Transactional
@@ -317,7 +335,8 @@ public class ChatRoomManagementService {
         roomPermissionService.assertNotBanned(room, userId);
         room.addMember(userId);
         ChatRoom saved = chatRoomRepository.save(room);
-        redisService.evictChatParticipants(roomId);
+        chatParticipantsCache.membersAdded(roomId, Set.of(userId));
+        readWatermarkService.membersJoined(roomId, Set.of(userId));
         roomEnrichmentService.notifyRoomMembersChatUpdated(saved);
         return roomEnrichmentService.enrichChatWithUserData(
                 saved, userId, roomEnrichmentService.getUnreadCount(saved.getId(), userId));
@@ -349,8 +368,8 @@ public class ChatRoomManagementService {
         roomPermissionService.assertNotBanned(room, userId);
         room.addMember(userId);
         ChatRoom saved = chatRoomRepository.save(room);
-        // evict cached chat participants
-        redisService.evictChatParticipants(saved.getId());
+        chatParticipantsCache.membersAdded(saved.getId(), Set.of(userId));
+        readWatermarkService.membersJoined(saved.getId(), Set.of(userId));
         roomEnrichmentService.notifyRoomMembersChatUpdated(saved);
         return roomEnrichmentService.enrichChatWithUserData(
                 saved, userId, roomEnrichmentService.getUnreadCount(saved.getId(), userId));
@@ -483,9 +502,7 @@ public class ChatRoomManagementService {
         if (room.getBannedUserIds() == null || room.getBannedUserIds().isEmpty()) {
             return List.of();
         }
-        return room.getBannedUserIds().stream()
-                .map(chatUserInfoService::getUserInfo)
-                .toList();
+        return chatUserInfoService.getUserInfoList(room.getBannedUserIds());
     }
 
     @Transactional
@@ -659,7 +676,7 @@ public class ChatRoomManagementService {
                 .build();
 
         ChatRoom saved = chatRoomRepository.save(room);
-        redisService.evictChatParticipants(saved.getId());
+        readWatermarkService.membersJoined(saved.getId(), saved.getMemberIds());
         for (Long memberId : saved.getMemberIds()) {
             webSocketService.notifyChatCreated(memberId,
                     roomEnrichmentService.enrichChatWithUserData(
@@ -691,7 +708,7 @@ public class ChatRoomManagementService {
             room.getChannelPosterIds().remove(userId);
         }
         chatRoomRepository.save(room);
-        redisService.evictChatParticipants(chatId);
+        chatParticipantsCache.membersRemoved(chatId, Set.of(userId));
         if (!otherMembers.isEmpty()) {
             webSocketService.notifyUserLeftChatForAll(chatId, userId, otherMembers);
         }
@@ -707,7 +724,8 @@ public class ChatRoomManagementService {
         roomPermissionService.assertNotBanned(room, newMemberId);
         room.addMember(newMemberId);
         ChatRoom saved = chatRoomRepository.save(room);
-        redisService.evictChatParticipants(saved.getId());
+        chatParticipantsCache.membersAdded(saved.getId(), Set.of(newMemberId));
+        readWatermarkService.membersJoined(saved.getId(), Set.of(newMemberId));
         roomEnrichmentService.notifyRoomMembersChatUpdated(saved);
         webSocketService.notifyChatCreated(newMemberId,
                 roomEnrichmentService.enrichChatWithUserData(
@@ -12,6 +12,8 @@ import com.project.webchat.chat.repository.ChatRoomRepository;
 
 import com.project.webchat.chat.service.WebSocketService;
 
+import com.project.webchat.chat.service.support.ChatReadWatermarkService;
+
 import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
 
 import com.project.webchat.chat.service.support.UserBanGuardService;
@@ -54,6 +56,8 @@ public class PrivateChatService {
 
     private final UserBanGuardService userBanGuardService;
 
+    private final ChatReadWatermarkService readWatermarkService;
+
     private final ChatUserInfoService chatUserInfoService;
     private final ChatRoomManagementService chatRoomManagementService;
 
@@ -127,7 +131,11 @@ public class PrivateChatService {
 
                 .build();
 
-        return new PrivateChatLookup(chatRoomRepository.save(entity), true);
+        ChatRoom saved = chatRoomRepository.save(entity);
+
+        readWatermarkService.membersJoined(saved.getId(), saved.getMemberIds());
+
+        return new PrivateChatLookup(saved, true);
 
     }
 
@@ -5,6 +5,8 @@ import com.project.webchat.chat.entity.ChatType;
 import com.project.webchat.chat.repository.ChatRoomRepository;
 import com.project.webchat.chat.repository.RoomMemberInviteRepository;
 import com.project.webchat.chat.service.RedisService;
+import com.project.webchat.chat.service.support.ChatParticipantsCache;
+import com.project.webchat.chat.service.support.ChatReadWatermarkService;
 import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,8 @@ public class UserAccountDeletionService {
     private final RedisService redisService;
     private final ChatRoomEnrichmentService roomEnrichmentService;
     private final ChatRoomManagementService chatRoomManagementService;
+    private final ChatParticipantsCache chatParticipantsCache;
+    private final ChatReadWatermarkService readWatermarkService;
 
     @Transactional
     public void handleAccountDeleted(Long userId) {
@@ -84,6 +88,8 @@ public class UserAccountDeletionService {
                     room.setAdminIds(new HashSet<>());
                 }
                 room.getAdminIds().add(successor);
+                // the successor is already a member: keep their unread messages, only make sure a watermark exists
+                readWatermarkService.ensureWatermarks(room.getId(), Set.of(successor));
             }
 
             removeDepartingMember(room, userId);
@@ -93,7 +99,7 @@ public class UserAccountDeletionService {
             }
 
             ChatRoom saved = chatRoomRepository.save(room);
-            redisService.evictChatParticipants(saved.getId());
+            chatParticipantsCache.membersRemoved(saved.getId(), Set.of(userId));
             roomEnrichmentService.notifyRoomMembersChatUpdated(saved);
         }
     }
@@ -0,0 +1,255 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams stored attachment files with single byte ranges (206), strong ETags, conditional GETs (304)
+ * and immutable cache headers. Stored files never change once written, so the content hash (or the
+ * stored name of files from before the blob store) identifies the content. The body goes out through Tomcat's sendfile when the connector offers it and through
+ * {@link FileChannel#transferTo} otherwise; nothing is buffered on the heap.
+ */
+@Service
+public class AttachmentDownloadService {
+
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    // private: the URL is only valid for chat members, so shared caches must not keep it
+    private static final String CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS)
+            .cachePrivate()
+            .immutable()
+            .getHeaderValue();
+
+    private final Counter bytesServed;
+    private final Counter notModifiedDownloads;
+    private final Counter unsatisfiableDownloads;
+    private final Counter partialDownloads;
+    private final Counter fullDownloads;
+
+    public AttachmentDownloadService(MeterRegistry meterRegistry) {
+        this.notModifiedDownloads = downloads(meterRegistry, "not_modified");
+        this.unsatisfiableDownloads = downloads(meterRegistry, "unsatisfiable");
+        this.partialDownloads = downloads(meterRegistry, "partial");
+        this.fullDownloads = downloads(meterRegistry, "full");
+        this.bytesServed = Counter.builder("chat.attachments.bytes.served")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void serve(Attachment attachment, Path file, boolean inline,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(attachment, null, file, inline, request, response);
+    }
+
+    /** @param variant the rendition stored in {@code file}, or null for the original */
+    public void serve(Attachment attachment, AttachmentVariant variant, Path file, boolean inline,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(file);
+        String etag = etagOf(attachment, variant);
+        long lastModified = lastModifiedOf(attachment, file);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            notModifiedDownloads.increment();
+            return;
+        }
+
+        response.setContentType((variant != null ? MediaType.IMAGE_JPEG : mediaTypeOf(attachment)).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition
+                .builder(inline ? "inline" : "attachment")
+                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+
+        ByteRange range = rangeHonoured(request, etag, lastModified)
+                ? ByteRange.parse(request.getHeader(HttpHeaders.RANGE), length)
+                : null;
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            unsatisfiableDownloads.increment();
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        if (range != null) {
+            start = range.start();
+            end = range.end();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            partialDownloads.increment();
+        } else {
+            response.setStatus(HttpServletResponse.SC_OK);
+            fullDownloads.increment();
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        transfer(file, start, count, request, response);
+        bytesServed.increment(count);
+    }
+
+    // the content hash when the file lives in the blob store, otherwise the never-reused stored name
+    static String etagOf(Attachment attachment, AttachmentVariant variant) {
+        String identity = attachment.getContentHash() != null ? attachment.getContentHash()
+                : attachment.getStoredFilename() != null ? attachment.getStoredFilename()
+                : attachment.getId();
+        return "\"" + identity + (variant != null ? "." + variant.key() : "") + "\"";
+    }
+
+    private static long lastModifiedOf(Attachment attachment, Path file) throws IOException {
+        long millis = attachment.getCreatedAt() != null
+                ? attachment.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Files.getLastModifiedTime(file).toMillis();
+        // HTTP dates have second precision
+        return millis - millis % 1000;
+    }
+
+    private static MediaType mediaTypeOf(Attachment attachment) {
+        try {
+            return MediaType.parseMediaType(attachment.getMimeType());
+        } catch (Exception ignored) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    // a stale If-Range means the client's partial copy is of something else: send the whole file
+    private static boolean rangeHonoured(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && date == lastModified;
+    }
+
+    private static boolean matchesEtag(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private void transfer(Path file, long start, long count,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Tomcat writes the file straight from the page cache to the socket after the request returns
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    throw new IOException("File shrank while streaming: " + file);
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static Counter downloads(MeterRegistry meterRegistry, String outcome) {
+        return meterRegistry.counter("chat.attachments.downloads", "outcome", outcome);
+    }
+
+    /** One inclusive byte range; multi-range requests are answered with the whole file. */
+    record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        /** @return the range, {@link #UNSATISFIABLE}, or null when the header is absent or not usable */
+        static ByteRange parse(String header, long length) {
+            if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+                return null;
+            }
+            String spec = header.substring("bytes=".length()).trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // suffix range: the last N bytes
+                    long suffix = Long.parseLong(last);
+                    if (suffix <= 0 || length == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, length - suffix), length - 1);
+                }
+                long start = Long.parseLong(first);
+                long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (start >= length) {
+                    return UNSATISFIABLE;
+                }
+                return start <= end ? new ByteRange(start, end) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
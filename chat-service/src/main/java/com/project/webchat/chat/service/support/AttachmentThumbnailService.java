@@ -0,0 +1,197 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
+import com.project.webchat.chat.repository.AttachmentRepository;
+import com.project.webchat.chat.service.AttachmentBlobStore;
+import com.project.webchat.shared.image.ExifOrientation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Renders the {@link AttachmentVariant} JPEGs of image attachments with ImageIO, next to the blob, on a
+ * bounded background executor. Only variants smaller than the original are made; formats ImageIO cannot
+ * read (webp, svg) keep only their original.
+ */
+@Service
+@Slf4j
+public class AttachmentThumbnailService {
+
+    // the decoded bitmap of anything larger would not fit a sane heap
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final AttachmentBlobStore blobStore;
+    private final AttachmentRepository attachmentRepository;
+    private final ThreadPoolExecutor attachmentThumbnailExecutor;
+    private final Counter rejectedThumbnails;
+    private final Counter skippedThumbnails;
+    private final Counter generatedThumbnails;
+    private final Counter failedThumbnails;
+
+    public AttachmentThumbnailService(AttachmentBlobStore blobStore,
+                                      AttachmentRepository attachmentRepository,
+                                      ThreadPoolExecutor attachmentThumbnailExecutor,
+                                      MeterRegistry meterRegistry) {
+        this.blobStore = blobStore;
+        this.attachmentRepository = attachmentRepository;
+        this.attachmentThumbnailExecutor = attachmentThumbnailExecutor;
+        this.rejectedThumbnails = thumbnails(meterRegistry, "rejected");
+        this.skippedThumbnails = thumbnails(meterRegistry, "skipped");
+        this.generatedThumbnails = thumbnails(meterRegistry, "generated");
+        this.failedThumbnails = thumbnails(meterRegistry, "failed");
+    }
+
+    public void generateAsync(Attachment attachment) {
+        if (!attachment.isImage() || attachment.getContentHash() == null) {
+            return;
+        }
+        try {
+            attachmentThumbnailExecutor.execute(() -> generate(attachment));
+        } catch (RejectedExecutionException e) {
+            log.warn("Thumbnail stage is saturated, attachment {} keeps only its original", attachment.getId());
+            rejectedThumbnails.increment();
+        }
+    }
+
+    /** @return the variants the attachment has now */
+    List<AttachmentVariant> generate(Attachment attachment) {
+        try {
+            List<AttachmentVariant> variants = render(attachment.getContentHash());
+            attachmentRepository.addVariants(attachment.getId(),
+                    variants.stream().map(AttachmentVariant::key).toList());
+            (variants.isEmpty() ? skippedThumbnails : generatedThumbnails).increment();
+            return variants;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to render variants of attachment {}: {}", attachment.getId(), e.getMessage());
+            failedThumbnails.increment();
+            return List.of();
+        }
+    }
+
+    private List<AttachmentVariant> render(String hash) throws IOException {
+        Path original = blobStore.pathOf(hash);
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return List.of();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    return List.of();
+                }
+                int longEdge = Math.max(width, height);
+                List<AttachmentVariant> variants = Arrays.stream(AttachmentVariant.values())
+                        .filter(variant -> variant.maxEdge() < longEdge)
+                        .toList();
+                // identical content uploaded before already has its renditions
+                List<AttachmentVariant> missing = variants.stream()
+                        .filter(variant -> !Files.exists(blobStore.variantPathOf(hash, variant)))
+                        .toList();
+                if (missing.isEmpty()) {
+                    return variants;
+                }
+
+                // decode only about twice the pixels the largest missing variant needs
+                int largest = missing.stream().mapToInt(AttachmentVariant::maxEdge).max().orElseThrow();
+                int step = Math.max(1, longEdge / (largest * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                // ImageIO ignores EXIF orientation; browsers show the original turned upright
+                BufferedImage image = ExifOrientation.apply(reader.read(0, param), readOrientation(original));
+                for (AttachmentVariant variant : missing) {
+                    if (!write(hash, variant, scale(image, variant.maxEdge()))) {
+                        return List.of();
+                    }
+                }
+                return variants;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int readOrientation(Path original) throws IOException {
+        try (InputStream in = Files.newInputStream(original)) {
+            return ExifOrientation.read(in);
+        }
+    }
+
+    private boolean write(String hash, AttachmentVariant variant, BufferedImage image) throws IOException {
+        Path tempFile = blobStore.newTempFile();
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(tempFile.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            return blobStore.storeVariant(hash, variant, tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    static BufferedImage scale(BufferedImage source, int maxEdge) {
+        double ratio = (double) maxEdge / Math.max(source.getWidth(), source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        // halve step by step: a single bilinear pass over a large ratio skips most source pixels
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    // JPEG has no alpha: transparent pixels become white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static Counter thumbnails(MeterRegistry meterRegistry, String outcome) {
+        return meterRegistry.counter("chat.attachments.thumbnails", "outcome", outcome);
+    }
+}
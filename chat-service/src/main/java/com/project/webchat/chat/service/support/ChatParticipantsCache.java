@@ -0,0 +1,61 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.service.RedisService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Chat member ids kept as a Redis set. Membership changes are written through as SADD/SREM;
+ * a missing set is rebuilt from Mongo on the next read.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatParticipantsCache {
+
+    private final RedisService redisService;
+    private final ChatRoomLookupService chatRoomLookupService;
+
+    /** Member ids of the room, or an empty set when the room does not exist. */
+    public Set<Long> getMemberIds(String chatId) {
+        Set<Long> cached = redisService.getChatMembers(chatId);
+        if (cached != null) {
+            return cached;
+        }
+        return rebuild(chatId)
+                .map(room -> room.getMemberIds() != null ? room.getMemberIds() : Set.<Long>of())
+                .orElse(Set.of());
+    }
+
+    public boolean isMember(String chatId, Long userId) {
+        Boolean cached = redisService.isChatMember(chatId, userId);
+        if (cached != null) {
+            return cached;
+        }
+        return rebuild(chatId).map(room -> room.isMember(userId)).orElse(false);
+    }
+
+    public void membersAdded(String chatId, Collection<Long> userIds) {
+        redisService.addChatMembers(chatId, userIds);
+    }
+
+    public void membersRemoved(String chatId, Collection<Long> userIds) {
+        redisService.removeChatMembers(chatId, userIds);
+    }
+
+    public void roomDeleted(String chatId) {
+        redisService.deleteChatMembers(chatId);
+    }
+
+    private Optional<ChatRoom> rebuild(String chatId) {
+        // read the generation first: a change that lands after it makes the fill a no-op
+        String generation = redisService.getChatMembersGeneration(chatId);
+        Optional<ChatRoom> room = chatRoomLookupService.findRoom(chatId, "participants-rebuild");
+        room.ifPresent(r -> redisService.fillChatMembers(chatId, generation, r.getMemberIds()));
+        return room;
+    }
+}
@@ -0,0 +1,152 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import com.project.webchat.chat.repository.ChatMessageRepository;
+import com.project.webchat.chat.repository.ChatReadWatermarkRepository;
+import com.project.webchat.chat.service.RedisService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-(chat, member) last-read watermarks. Mongo ({@code chat_read_watermarks}) is authoritative and
+ * Redis mirrors it per chat, so reads are one HMGET and marking a chat read is one upsert instead of
+ * a rewrite of every message document.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatReadWatermarkService {
+
+    /** Watermark of a member who has read nothing yet; older than every message. */
+    public static final LocalDateTime NOTHING_READ = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private final ChatReadWatermarkRepository watermarkRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final RedisService redisService;
+
+    public LocalDateTime getWatermark(String chatId, Long userId) {
+        return getWatermarks(chatId, List.of(userId)).getOrDefault(userId, NOTHING_READ);
+    }
+
+    /** Watermarks of many members: Redis first, then one Mongo query for the misses, which are mirrored back. */
+    public Map<Long, LocalDateTime> getWatermarks(String chatId, Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, LocalDateTime> result = new HashMap<>(redisService.getReadWatermarks(chatId, ids));
+        List<Long> missing = ids.stream().filter(id -> !result.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, LocalDateTime> loaded = new HashMap<>();
+        for (ChatReadWatermark watermark : watermarkRepository.findByChatIdAndUserIdIn(chatId, missing)) {
+            if (watermark.getLastReadAt() != null) {
+                loaded.put(watermark.getUserId(), watermark.getLastReadAt());
+            }
+        }
+        List<Long> unseeded = missing.stream().filter(id -> !loaded.containsKey(id)).toList();
+        if (!unseeded.isEmpty()) {
+            Map<Long, LocalDateTime> seeded = legacyWatermarks(chatId, unseeded);
+            watermarkRepository.advanceAll(chatId, seeded);
+            loaded.putAll(seeded);
+        }
+        redisService.raiseReadWatermarks(chatId, loaded);
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Moves the member's watermark forward to {@code readUpTo}.
+     *
+     * @return false when the member had already read that far
+     */
+    public boolean advance(String chatId, Long userId, LocalDateTime readUpTo) {
+        if (!watermarkRepository.advance(chatId, userId, readUpTo)) {
+            return false;
+        }
+        redisService.raiseReadWatermarks(chatId, Map.of(userId, readUpTo));
+        return true;
+    }
+
+    /**
+     * Starts new members at the newest message of the chat, so the history from before they joined
+     * does not count as unread for them. Members who were already further ahead keep their watermark.
+     */
+    public void membersJoined(String chatId, Collection<Long> userIds) {
+        LocalDateTime readUpTo = chatMessageRepository.findNewestTimestamp(chatId).orElse(NOTHING_READ);
+        Map<Long, LocalDateTime> watermarks = new HashMap<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                watermarks.put(userId, readUpTo);
+            }
+        }
+        if (watermarks.isEmpty()) {
+            return;
+        }
+        watermarkRepository.advanceAll(chatId, watermarks);
+        redisService.raiseReadWatermarks(chatId, watermarks);
+    }
+
+    /**
+     * Makes sure existing members have a stored watermark (seeded from the legacy flag if needed)
+     * without moving it, e.g. when one of them takes over the room.
+     */
+    public void ensureWatermarks(String chatId, Collection<Long> userIds) {
+        getWatermarks(chatId, userIds);
+    }
+
+    /** Read state of a room, to tell for each message whether a member other than its sender has read it. */
+    public RoomReadState getRoomReadState(String chatId, Collection<Long> memberIds) {
+        Long leaderId = null;
+        LocalDateTime leader = NOTHING_READ;
+        LocalDateTime runnerUp = NOTHING_READ;
+        for (Map.Entry<Long, LocalDateTime> entry : getWatermarks(chatId, memberIds).entrySet()) {
+            if (entry.getValue().isAfter(leader)) {
+                runnerUp = leader;
+                leader = entry.getValue();
+                leaderId = entry.getKey();
+            } else if (entry.getValue().isAfter(runnerUp)) {
+                runnerUp = entry.getValue();
+            }
+        }
+        return new RoomReadState(leaderId, leader, runnerUp);
+    }
+
+    public void roomDeleted(String chatId) {
+        watermarkRepository.deleteByChatId(chatId);
+        redisService.evictReadWatermarks(chatId);
+    }
+
+    // members who have not read the chat since watermarks were introduced start from the per-message flag;
+    // one aggregate per chat gives the newest read message of every sender, a reader's seed is the newest of the others
+    private Map<Long, LocalDateTime> legacyWatermarks(String chatId, List<Long> userIds) {
+        Map<Long, LocalDateTime> newestBySender = chatMessageRepository.findNewestLegacyReadTimestampBySender(chatId);
+        Map<Long, LocalDateTime> seeded = new HashMap<>();
+        for (Long userId : userIds) {
+            LocalDateTime readUpTo = NOTHING_READ;
+            for (Map.Entry<Long, LocalDateTime> entry : newestBySender.entrySet()) {
+                if (!Objects.equals(entry.getKey(), userId)
+                        && entry.getValue() != null && entry.getValue().isAfter(readUpTo)) {
+                    readUpTo = entry.getValue();
+                }
+            }
+            seeded.put(userId, readUpTo);
+        }
+        return seeded;
+    }
+
+    /** The two furthest watermarks of a room: enough to answer "read by anyone but the sender". */
+    public record RoomReadState(Long leaderId, LocalDateTime leader, LocalDateTime runnerUp) {
+
+        public boolean isReadByOtherThan(Long senderId, LocalDateTime timestamp) {
+            LocalDateTime horizon = Objects.equals(senderId, leaderId) ? runnerUp : leader;
+            return timestamp != null && !timestamp.isAfter(horizon);
+        }
+    }
+}
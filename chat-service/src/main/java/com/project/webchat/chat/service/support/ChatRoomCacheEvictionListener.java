@@ -0,0 +1,36 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatRoom;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached rooms when this node saves or deletes them through the mapping layer.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatRoomCacheEvictionListener extends AbstractMongoEventListener<ChatRoom> {
+
+    private final ChatRoomLookupService chatRoomLookupService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<ChatRoom> event) {
+        chatRoomLookupService.evict(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<ChatRoom> event) {
+        Document filter = event.getSource();
+        Object id = filter != null ? filter.get("_id") : null;
+        // bulk deletes carry no single id
+        if (id == null || id instanceof Document) {
+            chatRoomLookupService.evictAll();
+        } else {
+            chatRoomLookupService.evict(id.toString());
+        }
+    }
+}
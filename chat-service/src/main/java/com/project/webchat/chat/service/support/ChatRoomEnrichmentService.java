@@ -1,32 +1,84 @@
 package com.project.webchat.chat.service.support;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.project.webchat.chat.dto.ChatRoomDTO;
 import com.project.webchat.chat.entity.ChatRoom;
 import com.project.webchat.chat.entity.ChatType;
 import com.project.webchat.chat.entity.RoomVisibility;
 import com.project.webchat.chat.repository.ChatMessageRepository;
+import com.project.webchat.chat.service.RedisService;
 import com.project.webchat.chat.service.WebSocketService;
 import com.project.webchat.chat.service.user.ChatUserInfoService;
+import com.project.webchat.chat.service.user.DeletedUserInfoFactory;
 import com.project.webchat.shared.dto.UserInfoDTO;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 public class ChatRoomEnrichmentService {
 
     private final ChatUserInfoService chatUserInfoService;
     private final ChatRoomPermissionService roomPermissionService;
     private final ChatMessageRepository chatMessageRepository;
     private final WebSocketService webSocketService;
+    private final RedisService redisService;
+    private final ChatReadWatermarkService readWatermarkService;
 
+    // profiles inside a snapshot may lag behind user-service by this much
+    private static final Duration SNAPSHOT_TTL = Duration.ofSeconds(10);
+    private static final int SNAPSHOT_CACHE_MAX_ROOMS = 1_000;
+    private final Cache<String, CachedSnapshot> snapshotCache;
+
+    public ChatRoomEnrichmentService(ChatUserInfoService chatUserInfoService,
+                                     ChatRoomPermissionService roomPermissionService,
+                                     ChatMessageRepository chatMessageRepository,
+                                     WebSocketService webSocketService,
+                                     RedisService redisService,
+                                     ChatReadWatermarkService readWatermarkService,
+                                     MeterRegistry meterRegistry) {
+        this.chatUserInfoService = chatUserInfoService;
+        this.roomPermissionService = roomPermissionService;
+        this.chatMessageRepository = chatMessageRepository;
+        this.webSocketService = webSocketService;
+        this.redisService = redisService;
+        this.readWatermarkService = readWatermarkService;
+        this.snapshotCache = Caffeine.newBuilder()
+                .maximumSize(SNAPSHOT_CACHE_MAX_ROOMS)
+                .expireAfterWrite(SNAPSHOT_TTL)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshotCache, "chat-room-snapshots");
+    }
+
+    /**
+     * Reads the denormalized Redis counter; on a miss the messages after the member's read watermark
+     * are counted in Mongo and used to seed it, unless a message or read landed while counting.
+     */
     public int getUnreadCount(String chatId, Long currentUserId) {
-        return chatMessageRepository.findUnreadMessagesNotFromUser(chatId, currentUserId).size();
+        Long cached = redisService.getUnreadCounter(chatId, currentUserId);
+        if (cached != null) {
+            return Math.toIntExact(Math.max(0L, cached));
+        }
+        String generation = redisService.getUnreadGeneration(chatId);
+        long count = chatMessageRepository.countUnreadAfter(
+                chatId, currentUserId, readWatermarkService.getWatermark(chatId, currentUserId));
+        redisService.seedUnreadCounter(chatId, currentUserId, generation, count);
+        return Math.toIntExact(count);
     }
 
     public ChatRoomDTO enrichChatWithUserData(ChatRoom chat, Long currentUserId, int unreadCount) {
@@ -38,7 +90,42 @@ public class ChatRoomEnrichmentService {
      */
     public ChatRoomDTO enrichChatWithUserData(
             ChatRoom chat, Long currentUserId, int unreadCount, boolean freshUserProfiles) {
-        boolean useUserCache = !freshUserProfiles;
+        return buildSnapshot(chat, !freshUserProfiles).forMember(overlayFor(chat, currentUserId, unreadCount));
+    }
+
+    /**
+     * Personalized DTOs for many members of one room: the room snapshot is built (or reused) once,
+     * then each member only gets its overlay merged in, so the work is O(members) instead of O(members²).
+     */
+    public Map<Long, ChatRoomDTO> enrichChatForMembers(ChatRoom chat, Collection<Long> memberIds) {
+        if (memberIds == null || memberIds.isEmpty()) {
+            return Map.of();
+        }
+        ChatRoomSnapshot snapshot = getSnapshot(chat);
+        Map<Long, Integer> unreadCounts = getUnreadCounts(chat.getId(), memberIds);
+        Map<Long, ChatRoomDTO> result = new LinkedHashMap<>();
+        for (Long memberId : memberIds) {
+            if (memberId != null) {
+                result.put(memberId, snapshot.forMember(
+                        overlayFor(chat, memberId, unreadCounts.getOrDefault(memberId, 0))));
+            }
+        }
+        return result;
+    }
+
+    /** Room snapshot for the given room version, reused while the room and the snapshot are fresh. */
+    public ChatRoomSnapshot getSnapshot(ChatRoom chat) {
+        RoomVersion version = RoomVersion.of(chat);
+        CachedSnapshot cached = snapshotCache.getIfPresent(chat.getId());
+        if (cached != null && cached.version().equals(version)) {
+            return cached.snapshot();
+        }
+        ChatRoomSnapshot snapshot = buildSnapshot(chat, true);
+        snapshotCache.put(chat.getId(), new CachedSnapshot(version, snapshot));
+        return snapshot;
+    }
+
+    private ChatRoomSnapshot buildSnapshot(ChatRoom chat, boolean useUserCache) {
         RoomVisibility visibility = chat.getVisibility() != null ? chat.getVisibility() : RoomVisibility.PRIVATE;
 
         ChatRoomDTO.ChatRoomDTOBuilder builder = ChatRoomDTO.builder()
@@ -48,32 +135,8 @@ public class ChatRoomEnrichmentService {
                 .createdAt(chat.getCreatedAt())
                 .lastActivity(chat.getLastActivity())
                 .lastMessage(chat.getLastMessage())
-                .unreadCount(unreadCount)
                 .createdBy(chat.getCreatedBy())
-                .memberCount(chat.getMemberIds() != null ? chat.getMemberIds().size() : 0)
-                .currentUserAdmin(roomPermissionService.hasGroupAdminRights(chat, currentUserId));
-
-        boolean channelCreator = chat.getType() == ChatType.CHANNEL
-                && roomPermissionService.sameUserId(chat.getCreatedBy(), currentUserId);
-        boolean channelPromotedAdmin = chat.getType() == ChatType.CHANNEL
-                && roomPermissionService.setContainsUserId(chat.getAdminIds(), currentUserId);
-        boolean channelPoster = chat.getType() == ChatType.CHANNEL
-                && roomPermissionService.setContainsUserId(
-                        roomPermissionService.channelPosterIdsSet(chat), currentUserId);
-        builder.currentUserChannelCreator(channelCreator)
-                .currentUserChannelAdmin(channelPromotedAdmin)
-                .currentUserChannelPoster(channelPoster);
-
-        if (chat.getType() == ChatType.PRIVATE) {
-            Long otherUserId = chat.getMemberIds().stream()
-                    .filter(id -> !id.equals(currentUserId))
-                    .findFirst()
-                    .orElse(null);
-            if (otherUserId != null) {
-                UserInfoDTO otherUser = chatUserInfoService.getUserInfo(otherUserId, useUserCache);
-                builder.otherUser(otherUser);
-            }
-        }
+                .memberCount(chat.getMemberIds() != null ? chat.getMemberIds().size() : 0);
 
         if (chat.getType() == ChatType.PERSONAL_SPACE) {
             builder.groupName(chat.getGroupName() != null
@@ -83,24 +146,25 @@ public class ChatRoomEnrichmentService {
             builder.description(chat.getDescription());
         }
 
-        if (chat.getType() == ChatType.GROUP || chat.getType() == ChatType.CHANNEL) {
-            List<UserInfoDTO> members = chat.getMemberIds().stream()
-                    .map(id -> chatUserInfoService.getUserInfo(id, useUserCache))
-                    .toList();
-            builder.members(members);
+        Set<Long> memberIds = chat.getMemberIds() != null ? chat.getMemberIds() : Set.of();
+        boolean roomWithMembers = chat.getType() == ChatType.GROUP || chat.getType() == ChatType.CHANNEL;
+        Set<Long> bannedIds = roomWithMembers && chat.getBannedUserIds() != null ? chat.getBannedUserIds() : Set.of();
+        Map<Long, UserInfoDTO> users = Map.of();
+        if (chat.getType() == ChatType.PRIVATE || roomWithMembers) {
+            // one batch lookup for every profile the room DTO can reference
+            Set<Long> ids = new LinkedHashSet<>(memberIds);
+            ids.addAll(bannedIds);
+            users = chatUserInfoService.getUserInfoBatch(ids, useUserCache);
+        }
+
+        if (roomWithMembers) {
+            builder.members(orderedUsers(memberIds, users));
             builder.groupName(chat.getGroupName());
             builder.groupPhoto(chat.getGroupPhoto());
             builder.description(chat.getDescription());
-            boolean canModerateMembers = roomPermissionService.canModerateMembers(chat, currentUserId);
-            builder.currentUserCanModerateMembers(canModerateMembers);
-            if (canModerateMembers && chat.getBannedUserIds() != null && !chat.getBannedUserIds().isEmpty()) {
-                builder.bannedMembers(chat.getBannedUserIds().stream()
-                        .map(id -> chatUserInfoService.getUserInfo(id, useUserCache))
-                        .toList());
-            }
             if (chat.getType() == ChatType.GROUP) {
                 builder.adminUserIds(new ArrayList<>(roomPermissionService.effectiveAdminIds(chat)));
-            } else if (chat.getType() == ChatType.CHANNEL) {
+            } else {
                 builder.adminUserIds(chat.getAdminIds() == null
                         ? new ArrayList<>()
                         : new ArrayList<>(chat.getAdminIds()));
@@ -108,16 +172,82 @@ public class ChatRoomEnrichmentService {
             }
         }
 
-        return builder.build();
+        return new ChatRoomSnapshot(builder.build(), users, orderedUsers(bannedIds, users));
+    }
+
+    private ChatRoomSnapshot.MemberOverlay overlayFor(ChatRoom chat, Long currentUserId, int unreadCount) {
+        boolean channel = chat.getType() == ChatType.CHANNEL;
+        boolean roomWithMembers = chat.getType() == ChatType.GROUP || channel;
+        Long otherUserId = null;
+        if (chat.getType() == ChatType.PRIVATE) {
+            otherUserId = chat.getMemberIds().stream()
+                    .filter(id -> !id.equals(currentUserId))
+                    .findFirst()
+                    .orElse(null);
+        }
+        return new ChatRoomSnapshot.MemberOverlay(
+                unreadCount,
+                roomPermissionService.hasGroupAdminRights(chat, currentUserId),
+                channel && roomPermissionService.sameUserId(chat.getCreatedBy(), currentUserId),
+                channel && roomPermissionService.setContainsUserId(chat.getAdminIds(), currentUserId),
+                channel && roomPermissionService.setContainsUserId(
+                        roomPermissionService.channelPosterIdsSet(chat), currentUserId),
+                roomWithMembers && roomPermissionService.canModerateMembers(chat, currentUserId),
+                otherUserId);
+    }
+
+    /**
+     * Copy of every room field that ends up in the snapshot; compared with {@code equals}, so any change
+     * to them (and nothing else) builds a new snapshot. The sets are copied because rooms are mutated in place.
+     */
+    private record RoomVersion(ChatType type, RoomVisibility visibility, Set<Long> memberIds, Set<Long> adminIds,
+                               Set<Long> channelPosterIds, Set<Long> bannedUserIds, Long createdBy,
+                               LocalDateTime createdAt, LocalDateTime lastActivity, String lastMessage,
+                               String groupName, String groupPhoto, String description) {
+
+        static RoomVersion of(ChatRoom chat) {
+            return new RoomVersion(chat.getType(), chat.getVisibility(), copy(chat.getMemberIds()),
+                    copy(chat.getAdminIds()), copy(chat.getChannelPosterIds()), copy(chat.getBannedUserIds()),
+                    chat.getCreatedBy(), chat.getCreatedAt(), chat.getLastActivity(), chat.getLastMessage(),
+                    chat.getGroupName(), chat.getGroupPhoto(), chat.getDescription());
+        }
+
+        private static Set<Long> copy(Set<Long> ids) {
+            return ids == null ? null : new HashSet<>(ids);
+        }
+    }
+
+    private record CachedSnapshot(RoomVersion version, ChatRoomSnapshot snapshot) {
+    }
+
+    private static List<UserInfoDTO> orderedUsers(Collection<Long> ids, Map<Long, UserInfoDTO> byId) {
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .map(id -> byId.getOrDefault(id, DeletedUserInfoFactory.build(id)))
+                .toList();
+    }
+
+    /** Unread counters of many members with one HMGET; missing counters are recounted and seeded. */
+    public Map<Long, Integer> getUnreadCounts(String chatId, Collection<Long> userIds) {
+        Map<Long, Long> cached = redisService.getUnreadCounters(chatId, userIds);
+        Map<Long, Integer> result = new HashMap<>();
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            Long value = cached.get(userId);
+            result.put(userId, value != null
+                    ? Math.toIntExact(Math.max(0L, value))
+                    : getUnreadCount(chatId, userId));
+        }
+        return result;
     }
 
     public void notifyRoomMembersChatUpdated(ChatRoom room) {
         if (room.getMemberIds() == null || room.getMemberIds().isEmpty()) {
             return;
         }
-        for (Long memberId : new HashSet<>(room.getMemberIds())) {
-            ChatRoomDTO dto = enrichChatWithUserData(room, memberId, getUnreadCount(room.getId(), memberId));
-            webSocketService.notifyChatUpdated(room.getId(), dto, Set.of(memberId));
-        }
+        enrichChatForMembers(room, new HashSet<>(room.getMemberIds())).forEach((memberId, dto) ->
+                webSocketService.notifyChatUpdated(room.getId(), dto, Set.of(memberId)));
     }
 }
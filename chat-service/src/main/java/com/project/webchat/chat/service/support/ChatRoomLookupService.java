@@ -0,0 +1,143 @@
+package com.project.webchat.chat.service.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpAttributes;
+import org.springframework.messaging.simp.SimpAttributesContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Room reads for the message pipeline. A room loaded during an HTTP request or STOMP message is kept
+ * in that request's attributes, so the membership check, the send and the event publishing share one
+ * Mongo read. Membership-only checks may also be answered from a short-TTL in-process cache that is
+ * evicted on local room saves and deletes; other nodes' writes become visible when the TTL expires.
+ */
+@Service
+public class ChatRoomLookupService {
+
+    private static final String CONTEXT_ATTRIBUTE = ChatRoomLookupService.class.getName() + ".rooms";
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, ChatRoom> accessCache;
+
+    public ChatRoomLookupService(ChatRoomRepository chatRoomRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.rooms.cache.ttl:2s}") Duration ttl,
+                                 @Value("${app.rooms.cache.max-size:10000}") int maxSize) {
+        this.chatRoomRepository = chatRoomRepository;
+        this.meterRegistry = meterRegistry;
+        this.accessCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accessCache, "chat-rooms-access");
+    }
+
+    /**
+     * Room for the current request; the returned instance may be modified and saved by the caller.
+     */
+    public Optional<ChatRoom> findRoom(String chatId, String operation) {
+        if (chatId == null || chatId.isBlank()) {
+            return Optional.empty();
+        }
+        Map<String, ChatRoom> context = contextRooms(true);
+        ChatRoom room = context != null ? context.get(chatId) : null;
+        if (room != null) {
+            countLoad(operation, "context");
+            return Optional.of(room);
+        }
+        countLoad(operation, "mongo");
+        Optional<ChatRoom> loaded = chatRoomRepository.findById(chatId);
+        if (context != null) {
+            loaded.ifPresent(r -> context.put(chatId, r));
+        }
+        return loaded;
+    }
+
+    /**
+     * Room for read-only access checks. Instances coming from the shared cache must not be modified.
+     */
+    public Optional<ChatRoom> findRoomForAccessCheck(String chatId, String operation) {
+        if (chatId == null || chatId.isBlank()) {
+            return Optional.empty();
+        }
+        Map<String, ChatRoom> context = contextRooms(false);
+        if (context != null && context.containsKey(chatId)) {
+            countLoad(operation, "context");
+            return Optional.of(context.get(chatId));
+        }
+        ChatRoom cached = accessCache.getIfPresent(chatId);
+        if (cached != null) {
+            countLoad(operation, "cache");
+            return Optional.of(cached);
+        }
+        countLoad(operation, "mongo");
+        Optional<ChatRoom> loaded = chatRoomRepository.findById(chatId);
+        if (loaded.isPresent()) {
+            accessCache.put(chatId, loaded.get());
+        } else {
+            accessCache.invalidate(chatId);
+        }
+        return loaded;
+    }
+
+    public void evict(String chatId) {
+        if (chatId == null) {
+            return;
+        }
+        accessCache.invalidate(chatId);
+        Map<String, ChatRoom> context = contextRooms(false);
+        if (context != null) {
+            context.remove(chatId);
+        }
+    }
+
+    public void evictAll() {
+        accessCache.invalidateAll();
+        Map<String, ChatRoom> context = contextRooms(false);
+        if (context != null) {
+            context.clear();
+        }
+    }
+
+    private void countLoad(String operation, String source) {
+        meterRegistry.counter("chat.rooms.loads", "operation", operation, "source", source).increment();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ChatRoom> contextRooms(boolean create) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object rooms = request.getAttribute(CONTEXT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (rooms == null && create) {
+                rooms = new HashMap<String, ChatRoom>();
+                request.setAttribute(CONTEXT_ATTRIBUTE, rooms, RequestAttributes.SCOPE_REQUEST);
+            }
+            return (Map<String, ChatRoom>) rooms;
+        }
+        SimpAttributes simp = SimpAttributesContextHolder.getAttributes();
+        if (simp != null) {
+            Object rooms = simp.getAttribute(CONTEXT_ATTRIBUTE);
+            if (rooms == null && create) {
+                rooms = new HashMap<String, ChatRoom>();
+                simp.setAttribute(CONTEXT_ATTRIBUTE, rooms);
+            }
+            return (Map<String, ChatRoom>) rooms;
+        }
+        return null;
+    }
+}
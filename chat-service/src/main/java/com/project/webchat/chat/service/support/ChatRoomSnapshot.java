@@ -0,0 +1,47 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.dto.ChatRoomDTO;
+import com.project.webchat.shared.dto.UserInfoDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Room-level part of a {@link ChatRoomDTO}: everything that is the same for every member
+ * (names, photo, member list, admin lists). Built once per room version and never mutated;
+ * per-member fields are merged in with {@link #forMember(MemberOverlay)}.
+ *
+ * @param base          DTO with room-level fields only; per-member fields keep their defaults
+ * @param users         profiles of members and banned users, for the PRIVATE chat counterpart
+ * @param bannedMembers banned users' profiles, exposed only to moderators
+ */
+public record ChatRoomSnapshot(ChatRoomDTO base, Map<Long, UserInfoDTO> users, List<UserInfoDTO> bannedMembers) {
+
+    /** Fields of {@link ChatRoomDTO} that differ between members of the same room. */
+    public record MemberOverlay(int unreadCount,
+                                boolean currentUserAdmin,
+                                boolean currentUserChannelCreator,
+                                boolean currentUserChannelAdmin,
+                                boolean currentUserChannelPoster,
+                                boolean currentUserCanModerateMembers,
+                                Long otherUserId) {
+    }
+
+    /** Shallow copy of {@link #base()} with the overlay applied; shared lists are not copied. */
+    public ChatRoomDTO forMember(MemberOverlay overlay) {
+        ChatRoomDTO.ChatRoomDTOBuilder builder = base.toBuilder()
+                .unreadCount(overlay.unreadCount())
+                .currentUserAdmin(overlay.currentUserAdmin())
+                .currentUserChannelCreator(overlay.currentUserChannelCreator())
+                .currentUserChannelAdmin(overlay.currentUserChannelAdmin())
+                .currentUserChannelPoster(overlay.currentUserChannelPoster())
+                .currentUserCanModerateMembers(overlay.currentUserCanModerateMembers());
+        if (overlay.otherUserId() != null) {
+            builder.otherUser(users.get(overlay.otherUserId()));
+        }
+        if (overlay.currentUserCanModerateMembers() && !bannedMembers.isEmpty()) {
+            builder.bannedMembers(bannedMembers);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.webchat.chat.service.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.webchat.chat.dto.UserBanEdgesDTO;
+import com.project.webchat.chat.feign.UserServiceClient;
+import com.project.webchat.chat.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ban lists per user, read from the local cache, then Redis, then user-service. Both directions are
+ * kept together, so every ban check between a viewer and another user is answered from the viewer's entry.
+ * Entries are evicted on every node by {@code UserBanChangedEventConsumer}; the TTLs only bound staleness
+ * when an event is lost.
+ */
+@Component
+@Slf4j
+public class UserBanGraphCache {
+
+    private static final UserBanEdgesDTO NO_BANS = new UserBanEdgesDTO(Set.of(), Set.of());
+
+    private final UserServiceClient userServiceClient;
+    private final RedisService redisService;
+    private final Cache<Long, UserBanEdgesDTO> local;
+
+    public UserBanGraphCache(UserServiceClient userServiceClient,
+                             RedisService redisService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.bans.cache.max-size:10000}") long maxSize,
+                             @Value("${app.bans.cache.ttl:5m}") Duration ttl) {
+        this.userServiceClient = userServiceClient;
+        this.redisService = redisService;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "user-bans-l1");
+    }
+
+    /** Ban lists of the user; empty when user-service cannot be reached (not cached then). */
+    public UserBanEdgesDTO getEdges(Long userId) {
+        if (userId == null) {
+            return NO_BANS;
+        }
+        UserBanEdgesDTO edges = local.get(userId, this::load);
+        return edges != null ? edges : NO_BANS;
+    }
+
+    public void evict(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        redisService.evictBanEdges(ids);
+        local.invalidateAll(ids);
+    }
+
+    private UserBanEdgesDTO load(Long userId) {
+        UserBanEdgesDTO cached = redisService.getCachedBanEdges(userId);
+        if (cached != null) {
+            return immutable(cached);
+        }
+        String generation = redisService.getBanEdgesGeneration(userId);
+        UserBanEdgesDTO loaded;
+        try {
+            loaded = new UserBanEdgesDTO(
+                    toSet(userServiceClient.getBannedUserIds(userId)),
+                    toSet(userServiceClient.getBanningUserIds(userId)));
+        } catch (Exception e) {
+            log.warn("Failed to load ban lists of {}: {}", userId, e.getMessage());
+            return null;
+        }
+        redisService.cacheBanEdges(userId, generation, loaded);
+        return loaded;
+    }
+
+    private static UserBanEdgesDTO immutable(UserBanEdgesDTO edges) {
+        return new UserBanEdgesDTO(toSet(edges.getBannedUserIds()), toSet(edges.getBanningUserIds()));
+    }
+
+    private static Set<Long> toSet(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Set.of();
+        }
+        return ids.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -1,65 +1,36 @@
 package com.project.webchat.chat.service.support;
 
+import com.project.webchat.chat.dto.UserBanEdgesDTO;
 import com.project.webchat.chat.entity.ChatRoom;
 import com.project.webchat.chat.entity.ChatType;
 import com.project.webchat.chat.exception.ForbiddenChatOperationException;
 import com.project.webchat.chat.exception.UserBanException;
-import com.project.webchat.chat.feign.UserServiceClient;
 import com.project.webchat.shared.dto.UserInfoDTO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserBanGuardService {
 
-    private final UserServiceClient userServiceClient;
+    private final UserBanGraphCache userBanGraphCache;
 
     public Set<Long> getBannedUserIds(Long userId) {
-        if (userId == null) {
-            return Set.of();
-        }
-        try {
-            List<Long> ids = userServiceClient.getBannedUserIds(userId);
-            if (ids == null || ids.isEmpty()) {
-                return Set.of();
-            }
-            return ids.stream().collect(Collectors.toSet());
-        } catch (Exception e) {
-            return Set.of();
-        }
+        return userBanGraphCache.getEdges(userId).getBannedUserIds();
     }
 
     public Set<Long> getBanningUserIds(Long userId) {
-        if (userId == null) {
-            return Set.of();
-        }
-        try {
-            List<Long> ids = userServiceClient.getBanningUserIds(userId);
-            if (ids == null || ids.isEmpty()) {
-                return Set.of();
-            }
-            return ids.stream().collect(Collectors.toSet());
-        } catch (Exception e) {
-            return Set.of();
-        }
+        return userBanGraphCache.getEdges(userId).getBanningUserIds();
     }
 
     public boolean hasBanned(Long userId, Long targetUserId) {
         if (userId == null || targetUserId == null || userId.equals(targetUserId)) {
             return false;
         }
-        try {
-            Boolean banned = userServiceClient.hasBanned(userId, targetUserId);
-            return Boolean.TRUE.equals(banned);
-        } catch (Exception e) {
-            return false;
-        }
+        return getBannedUserIds(userId).contains(targetUserId);
     }
 
     public Long getOtherPrivateChatMemberId(ChatRoom room, Long userId) {
@@ -80,11 +51,13 @@ public class UserBanGuardService {
         if (otherId == null) {
             return;
         }
-        if (hasBanned(viewerId, otherId)) {
+        // both directions come from the viewer's cached entry
+        UserBanEdgesDTO edges = userBanGraphCache.getEdges(viewerId);
+        if (edges.getBannedUserIds().contains(otherId)) {
             String label = resolveDisplayName(otherUser, otherId);
             throw new UserBanException(label);
         }
-        if (hasBanned(otherId, viewerId)) {
+        if (edges.getBanningUserIds().contains(otherId)) {
             throw new ForbiddenChatOperationException("You are not a member of this chat");
         }
     }
@@ -101,7 +74,8 @@ public class UserBanGuardService {
         if (otherId == null) {
             return false;
         }
-        return hasBanned(viewerId, otherId) || hasBanned(otherId, viewerId);
+        UserBanEdgesDTO edges = userBanGraphCache.getEdges(viewerId);
+        return edges.getBannedUserIds().contains(otherId) || edges.getBanningUserIds().contains(otherId);
     }
 
     /**
@@ -112,7 +86,7 @@ public class UserBanGuardService {
         if (inviterId == null || inviteeId == null || inviterId.equals(inviteeId)) {
             return;
         }
-        if (hasBanned(inviteeId, inviterId)) {
+        if (getBanningUserIds(inviterId).contains(inviteeId)) {
             throw new IllegalArgumentException("User not found");
         }
     }
@@ -9,7 +9,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,8 +24,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ChatUserInfoService {
 
+    // user-service rejects larger /api/users/internal/batch requests (MAX_INTERNAL_BATCH_SIZE)
+    static final int USER_SERVICE_BATCH_SIZE = 1000;
+
     private final RedisService redisService;
     private final UserServiceClient userServiceClient;
+    private final LocalUserInfoCache localUserInfoCache;
 
     public UserInfoDTO getUserInfo(Long userId) {
         return getUserInfo(userId, true);
@@ -30,12 +40,16 @@ public class ChatUserInfoService {
      */
     public UserInfoDTO getUserInfo(Long userId, boolean useCache) {
         if (useCache) {
-            UserInfoDTO cached = redisService.getCachedUserInfo(userId);
+            UserInfoDTO cached = localUserInfoCache.get(userId);
+            if (cached == null) {
+                cached = redisService.getCachedUserInfo(userId);
+                localUserInfoCache.put(cached);
+            }
             if (cached != null) {
                 if (cached.isDeleted()) {
                     return DeletedUserInfoFactory.build(userId);
                 }
-                cached.setOnline(redisService.isUserOnline(userId));
+                cached.setOnline(isOnline(userId));
                 return cached;
             }
         }
@@ -49,22 +63,16 @@ public class ChatUserInfoService {
                     UserInfoDTO deleted = DeletedUserInfoFactory.build(userId);
                     if (useCache) {
                         redisService.cacheUserInfo(deleted);
+                        localUserInfoCache.put(deleted);
                     }
                     return deleted;
                 }
 
-                UserInfoDTO userInfo = UserInfoDTO.builder()
-                        .id(userData.getId())
-                        .username(userData.getUsername())
-                        .firstName(userData.getFirstName())
-                        .lastName(userData.getLastName())
-                        .profilePicture(userData.getProfilePicture())
-                        .online(redisService.isUserOnline(userId))
-                        .deleted(false)
-                        .build();
+                UserInfoDTO userInfo = toUserInfo(userData, isOnline(userId));
 
                 if (useCache) {
                     redisService.cacheUserInfo(userInfo);
+                    localUserInfoCache.put(userInfo);
                 }
                 return userInfo;
             }
@@ -75,16 +83,119 @@ public class ChatUserInfoService {
         return DeletedUserInfoFactory.build(userId);
     }
 
-    public Map<Long, UserInfoDTO> getUserInfoBatch(Set<Long> userIds) {
+    public Map<Long, UserInfoDTO> getUserInfoBatch(Collection<Long> userIds) {
         return getUserInfoBatch(userIds, true);
     }
 
-    public Map<Long, UserInfoDTO> getUserInfoBatch(Set<Long> userIds, boolean useCache) {
+    /**
+     * Resolves many users from the local cache first, then with one Redis MGET and batch calls of at
+     * most {@value #USER_SERVICE_BATCH_SIZE} ids to user-service for the misses. Unknown or inactive users map to deleted placeholders.
+     */
+    public Map<Long, UserInfoDTO> getUserInfoBatch(Collection<Long> userIds, boolean useCache) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<Long> online = localUserInfoCache.onlineUserIds(ids);
+        Map<Long, UserInfoDTO> result = new LinkedHashMap<>();
+
+        if (useCache) {
+            Map<Long, UserInfoDTO> cachedById = new LinkedHashMap<>(localUserInfoCache.getAll(ids));
+            Set<Long> notLocal = ids.stream()
+                    .filter(id -> !cachedById.containsKey(id))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            if (!notLocal.isEmpty()) {
+                Map<Long, UserInfoDTO> fromRedis = redisService.getCachedUserInfoBatch(notLocal);
+                localUserInfoCache.putAll(fromRedis.values());
+                cachedById.putAll(fromRedis);
+            }
+            cachedById.forEach((id, cached) -> {
+                if (cached.isDeleted()) {
+                    result.put(id, DeletedUserInfoFactory.build(id));
+                } else {
+                    cached.setOnline(online.contains(id));
+                    result.put(id, cached);
+                }
+            });
+        }
+
+        List<Long> missing = ids.stream()
+                .filter(id -> !result.containsKey(id))
+                .toList();
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<UserDTO> fetched = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += USER_SERVICE_BATCH_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + USER_SERVICE_BATCH_SIZE, missing.size()));
+            try {
+                List<UserDTO> users = userServiceClient.getUsersByIds(chunk);
+                if (users != null) {
+                    fetched.addAll(users);
+                }
+            } catch (Exception e) {
+                log.warn("Batch user lookup failed for {} users, falling back to single lookups: {}",
+                        chunk.size(), e.getMessage());
+                chunk.forEach(id -> result.put(id, getUserInfo(id, useCache)));
+            }
+        }
+
+        List<UserInfoDTO> toCache = new ArrayList<>();
+        for (UserDTO userData : fetched) {
+            if (userData == null || userData.getId() == null || !ids.contains(userData.getId())) {
+                continue;
+            }
+            UserInfoDTO userInfo = userData.isDeleted() || !userData.isActive()
+                    ? DeletedUserInfoFactory.build(userData.getId())
+                    : toUserInfo(userData, online.contains(userData.getId()));
+            result.put(userData.getId(), userInfo);
+            toCache.add(userInfo);
+        }
+        if (useCache) {
+            redisService.cacheUserInfoBatch(toCache);
+            localUserInfoCache.putAll(toCache);
+        }
+
+        missing.forEach(id -> result.computeIfAbsent(id, DeletedUserInfoFactory::build));
+        return result;
+    }
+
+    public List<UserInfoDTO> getUserInfoList(Collection<Long> userIds) {
+        return getUserInfoList(userIds, true);
+    }
+
+    /** Batch lookup that keeps the order of {@code userIds}. */
+    public List<UserInfoDTO> getUserInfoList(Collection<Long> userIds, boolean useCache) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, UserInfoDTO> byId = getUserInfoBatch(userIds, useCache);
         return userIds.stream()
-                .collect(Collectors.toMap(
-                        id -> id,
-                        id -> getUserInfo(id, useCache),
-                        (existing, replacement) -> existing
-                ));
+                .filter(Objects::nonNull)
+                .map(id -> byId.getOrDefault(id, DeletedUserInfoFactory.build(id)))
+                .toList();
+    }
+
+    private boolean isOnline(Long userId) {
+        return localUserInfoCache.onlineUserIds(List.of(userId)).contains(userId);
+    }
+
+    private static UserInfoDTO toUserInfo(UserDTO userData, boolean online) {
+        return UserInfoDTO.builder()
+                .id(userData.getId())
+                .username(userData.getUsername())
+                .firstName(userData.getFirstName())
+                .lastName(userData.getLastName())
+                .profilePicture(userData.getProfilePicture())
+                .online(online)
+                .deleted(false)
+                .build();
     }
 }
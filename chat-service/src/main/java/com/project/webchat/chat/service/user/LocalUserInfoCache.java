@@ -0,0 +1,121 @@
+package com.project.webchat.chat.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.webchat.chat.service.RedisService;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * L1 cache in front of the Redis {@code user_info:} keys. Profiles are kept without the online flag;
+ * online status comes from a separate short-lived presence snapshot that is refreshed in bulk.
+ * Entries are dropped when any node publishes an eviction on {@link RedisService#USER_INFO_INVALIDATION_CHANNEL}.
+ */
+@Component
+@Slf4j
+public class LocalUserInfoCache implements MessageListener {
+
+    private final RedisService redisService;
+    private final Cache<Long, UserInfoDTO> profiles;
+    private final Cache<Long, Boolean> presence;
+
+    public LocalUserInfoCache(RedisService redisService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.user-info.l1.max-size:10000}") long maxSize,
+                              @Value("${app.user-info.l1.ttl:60s}") Duration ttl,
+                              @Value("${app.user-info.l1.presence-ttl:2s}") Duration presenceTtl) {
+        this.redisService = redisService;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.presence = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(presenceTtl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "user-info-l1");
+    }
+
+    /** Cached profiles for the given ids; returned DTOs are copies with {@code online} unset. */
+    public Map<Long, UserInfoDTO> getAll(Collection<Long> userIds) {
+        Map<Long, UserInfoDTO> result = new HashMap<>();
+        profiles.getAllPresent(userIds).forEach((id, info) -> result.put(id, copyOf(info)));
+        return result;
+    }
+
+    public UserInfoDTO get(Long userId) {
+        UserInfoDTO cached = profiles.getIfPresent(userId);
+        return cached != null ? copyOf(cached) : null;
+    }
+
+    public void put(UserInfoDTO userInfo) {
+        if (userInfo != null && userInfo.getId() != null) {
+            profiles.put(userInfo.getId(), copyOf(userInfo));
+        }
+    }
+
+    public void putAll(Collection<UserInfoDTO> userInfos) {
+        userInfos.forEach(this::put);
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            profiles.invalidate(userId);
+            presence.invalidate(userId);
+        }
+    }
+
+    /** Online users among {@code userIds}; unknown ids are resolved together with one Redis MGET. */
+    public Set<Long> onlineUserIds(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Boolean> states = presence.getAll(ids, missing -> {
+            Set<Long> online = redisService.getOnlineUserIds(new HashSet<>(missing));
+            return missing.stream().collect(Collectors.toMap(id -> id, online::contains));
+        });
+        return states.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8).trim();
+        try {
+            invalidate(Long.valueOf(body));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed user info invalidation: {}", body);
+        }
+    }
+
+    private static UserInfoDTO copyOf(UserInfoDTO info) {
+        return UserInfoDTO.builder()
+                .id(info.getId())
+                .username(info.getUsername())
+                .firstName(info.getFirstName())
+                .lastName(info.getLastName())
+                .profilePicture(info.getProfilePicture())
+                .deleted(info.isDeleted())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.webchat.chat.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSerialExecutorTest {
+
+    @Test
+    void tasksOfOneKeyRunInSubmissionOrderEvenWhenTheQueueIsFull() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor("test-keyed-", 4, 4);
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            int n = i;
+            executor.execute("chat-1", () -> seen.add(n));
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(seen).hasSize(200).isSorted();
+    }
+
+    @Test
+    void tasksOfOneKeyNeverOverlap() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor("test-keyed-", 4, 100);
+        int[] running = {0};
+        List<Integer> maxRunning = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            executor.execute("chat-1", () -> {
+                maxRunning.add(++running[0]);
+                Thread.yield();
+                running[0]--;
+            });
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning).containsOnly(1);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.webchat.chat.config;
+
+import com.project.webchat.chat.entity.ChatMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private MongoIndexInitializer initializer;
+
+    @Test
+    void ensureIndexes_createsEveryDeclaredIndex_evenWhenOneFails() {
+        when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOperations);
+        when(indexOperations.ensureIndex(any(IndexDefinition.class)))
+                .thenThrow(new IllegalStateException("conflict"))
+                .thenReturn("ok");
+
+        initializer.ensureIndexes();
+
+        verify(indexOperations, times(MongoIndexDefinitions.INDEXES.size())).ensureIndex(any(IndexDefinition.class));
+    }
+
+    @Test
+    void obsoleteIndexes_areOnlyDroppedWhenEnabled() {
+        when(mongoTemplate.indexOps(ChatMessage.class)).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(
+                new IndexInfo(List.of(), "_id_", false, false, null),
+                new IndexInfo(List.of(), "readAt", false, false, null)));
+
+        initializer.handleObsoleteIndexes();
+        verify(indexOperations, never()).dropIndex(anyString());
+
+        ReflectionTestUtils.setField(initializer, "dropObsolete", true);
+        initializer.handleObsoleteIndexes();
+        verify(indexOperations).dropIndex("readAt");
+        verify(indexOperations, never()).dropIndex("_id_");
+    }
+
+    @Test
+    void collectPlan_findsCollectionScansInNestedPlans() {
+        Document explain = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"queryPlan": {"stage": "SORT",
+                    "inputStage": {"stage": "COLLSCAN", "direction": "forward"}}}}}
+                """);
+        Set<String> stages = new LinkedHashSet<>();
+        Set<String> indexNames = new LinkedHashSet<>();
+
+        MongoIndexInitializer.collectPlan(MongoIndexInitializer.winningPlan(explain), stages, indexNames);
+
+        assertThat(stages).containsExactly("SORT", "COLLSCAN");
+        assertThat(indexNames).isEmpty();
+    }
+
+    @Test
+    void collectPlan_reportsIndexUsedByFetch() {
+        Document explain = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"stage": "LIMIT", "inputStage": {"stage": "FETCH",
+                    "inputStage": {"stage": "IXSCAN", "indexName": "chat_timestamp_desc"}}}}}
+                """);
+        Set<String> stages = new LinkedHashSet<>();
+        Set<String> indexNames = new LinkedHashSet<>();
+
+        MongoIndexInitializer.collectPlan(MongoIndexInitializer.winningPlan(explain), stages, indexNames);
+
+        assertThat(stages).doesNotContain("COLLSCAN", "SORT");
+        assertThat(indexNames).containsExactly("chat_timestamp_desc");
+    }
+}
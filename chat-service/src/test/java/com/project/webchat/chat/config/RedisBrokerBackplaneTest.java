@@ -0,0 +1,166 @@
+package com.project.webchat.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.user.DefaultUserDestinationResolver;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two broker stacks in one JVM connected through the backplane; the Redis channel is an in-memory bus.
+ */
+class RedisBrokerBackplaneTest {
+
+    private static final String CHANNEL = "chat:ws:broadcast";
+
+    private final List<Node> nodes = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(node -> {
+            node.userDestinations.stop();
+            node.broker.stop();
+        });
+    }
+
+    @Test
+    void topicMessageSentOnOneNode_reachesSubscriberOnOtherNode() {
+        Node nodeA = new Node("session-a");
+        Node nodeB = new Node("session-b");
+        nodeB.subscribe("/topic/chat/room-1/messages");
+
+        nodeA.template.convertAndSend("/topic/chat/room-1/messages", Map.of("text", "hello"));
+
+        assertThat(nodeB.delivered).hasSize(1);
+        assertThat(new String((byte[]) nodeB.delivered.get(0).getPayload(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"text\":\"hello\"}");
+        assertThat(nodeB.published).isZero();
+        assertThat(nodeA.published).isEqualTo(1);
+    }
+
+    @Test
+    void userMessageSentOnOneNode_reachesThatUsersSessionOnOtherNode() {
+        Node nodeA = new Node("session-a");
+        Node nodeB = new Node("session-b");
+        nodeB.connectUser("42", "/queue/chats/updated");
+
+        nodeA.template.convertAndSendToUser("42", "/queue/chats/updated", Map.of("id", "room-1"));
+
+        assertThat(nodeA.delivered).isEmpty();
+        assertThat(nodeB.delivered).hasSize(1);
+        assertThat(SimpMessageHeaderAccessor.getDestination(nodeB.delivered.get(0).getHeaders()))
+                .isEqualTo("/queue/chats/updated-usersession-b");
+        assertThat(new String((byte[]) nodeB.delivered.get(0).getPayload(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":\"room-1\"}");
+        // the relayed copy and its per-session resolution stay on node B
+        assertThat(nodeA.published).isEqualTo(1);
+        assertThat(nodeB.published).isZero();
+    }
+
+    @Test
+    void resolvedSessionDestinations_areNotPublished() {
+        Node nodeA = new Node("session-a");
+
+        nodeA.template.convertAndSend("/queue/chats/updated-usersession-a", Map.of("id", "room-1"));
+
+        assertThat(nodeA.published).isZero();
+    }
+
+    private final class Node {
+        private final String sessionId;
+        private final SimpleBrokerMessageHandler broker;
+        private final DefaultSimpUserRegistry userRegistry = new DefaultSimpUserRegistry();
+        private final UserDestinationMessageHandler userDestinations;
+        private final SimpMessagingTemplate template;
+        private final RedisBrokerBackplane backplane;
+        private final List<Message<?>> delivered = new CopyOnWriteArrayList<>();
+        private int published;
+
+        @SuppressWarnings("unchecked")
+        Node(String sessionId) {
+            this.sessionId = sessionId;
+            ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+            ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+            clientOutbound.subscribe(message -> {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    delivered.add(message);
+                }
+            });
+
+            broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel,
+                    List.of("/topic", "/queue"));
+            broker.start();
+            // resolves /user/{name}/... against this node's sessions only, as in a running instance
+            userDestinations = new UserDestinationMessageHandler(clientInbound, brokerChannel,
+                    new DefaultUserDestinationResolver(userRegistry));
+            userDestinations.start();
+
+            template = new SimpMessagingTemplate(brokerChannel);
+            template.setMessageConverter(new MappingJackson2MessageConverter());
+
+            RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+            doAnswer(invocation -> {
+                published++;
+                byte[] body = invocation.getArgument(1, String.class).getBytes(StandardCharsets.UTF_8);
+                nodes.forEach(node -> node.backplane.onMessage(
+                        new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body), null));
+                return 1L;
+            }).when(redisTemplate).convertAndSend(eq(CHANNEL), anyString());
+
+            ObjectProvider<SimpMessagingTemplate> templateProvider = mock(ObjectProvider.class);
+            when(templateProvider.getObject()).thenReturn(template);
+            backplane = new RedisBrokerBackplane(redisTemplate, new ObjectMapper(), templateProvider, CHANNEL);
+            brokerChannel.addInterceptor(backplane);
+            nodes.add(this);
+        }
+
+        /** Connects {@code userName} on this node's session and subscribes it to /user{queue}. */
+        void connectUser(String userName, String queue) {
+            SimpMessageHeaderAccessor connected = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+            connected.setSessionId(sessionId);
+            Principal user = () -> userName;
+            userRegistry.onApplicationEvent(new SessionConnectedEvent(this,
+                    MessageBuilder.createMessage(new byte[0], connected.getMessageHeaders()), user));
+            subscribe(queue + "-user" + sessionId);
+        }
+
+        void subscribe(String destination) {
+            SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+            connect.setSessionId(sessionId);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            accessor.setSessionId(sessionId);
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.webchat.chat.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.webchat.chat.dto.ChatRoomDTO;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketPropertiesTest {
+
+    private static final int LARGE_GROUP_SIZE = 1000;
+    private static final int QUEUED_UPDATES = 4;
+
+    @Test
+    void defaults_areNotBelowSpringDefaults() {
+        WebSocketProperties properties = new WebSocketProperties();
+
+        assertThat(properties.getMessageSizeLimit()).isGreaterThanOrEqualTo(64 * 1024);
+        assertThat(properties.getBufferSize()).isGreaterThanOrEqualTo(512 * 1024);
+    }
+
+    @Test
+    void sendBuffer_holdsSeveralChatUpdatesOfALargeGroup() throws Exception {
+        List<UserInfoDTO> members = new ArrayList<>();
+        for (long id = 1; id <= LARGE_GROUP_SIZE; id++) {
+            members.add(UserInfoDTO.builder()
+                    .id(100_000 + id)
+                    .username("member_user_" + id)
+                    .firstName("Firstname")
+                    .lastName("Lastname")
+                    .profilePicture("/api/users/" + (100_000 + id) + "/avatar?v=" + "a".repeat(64) + "&size=64")
+                    .online(true)
+                    .build());
+        }
+        ChatRoomDTO room = ChatRoomDTO.builder()
+                .id("65f0c1e2a1b2c3d4e5f60718")
+                .type("GROUP")
+                .groupName("Large group")
+                .lastActivity(LocalDateTime.now())
+                .lastMessage("hello")
+                .memberCount(LARGE_GROUP_SIZE)
+                .members(members)
+                .build();
+
+        int frameSize = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(room).length;
+
+        assertThat(new WebSocketProperties().getBufferSize()).isGreaterThanOrEqualTo(QUEUED_UPDATES * frameSize);
+    }
+}
@@ -0,0 +1,33 @@
+package com.project.webchat.chat.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class WebSocketTransportMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebSocketTransportMetrics metrics = new WebSocketTransportMetrics(meterRegistry);
+
+    @Test
+    void decoratedHandler_countsOpenSessionsAndSlowClientDisconnects() throws Exception {
+        WebSocketHandler handler = metrics.decorate(mock(WebSocketHandler.class));
+        WebSocketSession slow = mock(WebSocketSession.class);
+        WebSocketSession normal = mock(WebSocketSession.class);
+
+        handler.afterConnectionEstablished(slow);
+        handler.afterConnectionEstablished(normal);
+        assertThat(meterRegistry.get("chat.websocket.sessions.open").gauge().value()).isEqualTo(2.0);
+
+        handler.afterConnectionClosed(slow, CloseStatus.SESSION_NOT_RELIABLE.withReason("Send time limit exceeded"));
+        handler.afterConnectionClosed(normal, CloseStatus.NORMAL);
+
+        assertThat(meterRegistry.get("chat.websocket.sessions.open").gauge().value()).isZero();
+        assertThat(meterRegistry.get("chat.websocket.sessions.slow.disconnects").counter().count()).isEqualTo(1.0);
+    }
+}
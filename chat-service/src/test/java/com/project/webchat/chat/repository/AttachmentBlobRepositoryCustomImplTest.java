@@ -0,0 +1,114 @@
+package com.project.webchat.chat.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.project.webchat.chat.entity.AttachmentBlob;
+import com.project.webchat.chat.repository.AttachmentBlobRepositoryCustom.Acquired;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentBlobRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private AttachmentBlobRepositoryCustomImpl repository;
+
+    @Test
+    void acquire_newContentIsCreatedAndSkipsRecordsBeingUnlinked() {
+        assertThat(repository.acquire("abc", 42L)).isEqualTo(Acquired.CREATED);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(),
+                eq(AttachmentBlob.class));
+        assertThat(query.getValue().getQueryObject()).containsKey("$or");
+        assertThat(update.getValue().getUpdateObject().get("$inc")).isEqualTo(new Document("refCount", 1));
+        assertThat(update.getValue().getUpdateObject().get("$unset")).isEqualTo(new Document("unlinkingSince", 1));
+        assertThat((Document) update.getValue().getUpdateObject().get("$setOnInsert")).containsEntry("size", 42L);
+        assertThat(options.getValue().isUpsert()).isTrue();
+        assertThat(options.getValue().isReturnNew()).isFalse();
+    }
+
+    @Test
+    void acquire_reportsStoredContentAndTakenOverUnlinks() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(AttachmentBlob.class)))
+                .thenReturn(AttachmentBlob.builder().id("abc").refCount(1).build())
+                .thenReturn(AttachmentBlob.builder().id("abc").unlinkingSince(LocalDateTime.now().minusHours(1)).build());
+
+        assertThat(repository.acquire("abc", 42L)).isEqualTo(Acquired.EXISTING);
+        assertThat(repository.acquire("abc", 42L)).isEqualTo(Acquired.CREATED);
+    }
+
+    @Test
+    void acquire_recordBeingUnlinkedIsBusy() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(AttachmentBlob.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThat(repository.acquire("abc", 42L)).isEqualTo(Acquired.BUSY);
+    }
+
+    @Test
+    void release_returnsReferencesLeft() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(AttachmentBlob.class))).thenReturn(AttachmentBlob.builder().id("abc").refCount(2).build());
+
+        assertThat(repository.release("abc")).isEqualTo(2L);
+    }
+
+    @Test
+    void beginUnlink_claimsOnlyUnreferencedUnclaimedBlobs() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AttachmentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        LocalDateTime marker = repository.beginUnlink("abc");
+
+        assertThat(marker).isNotNull();
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(AttachmentBlob.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "abc")
+                .append("refCount", new Document("$lte", 0))
+                .append("unlinkingSince", new Document("$exists", false)));
+    }
+
+    @Test
+    void beginUnlink_referencedAgainIsNotClaimed() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AttachmentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, null));
+
+        assertThat(repository.beginUnlink("abc")).isNull();
+    }
+
+    @Test
+    void finishUnlink_removesOnlyItsOwnClaim() {
+        LocalDateTime marker = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        repository.finishUnlink("abc", marker);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(AttachmentBlob.class));
+        assertThat(query.getValue().getQueryObject())
+                .isEqualTo(new Document("_id", "abc").append("unlinkingSince", marker));
+    }
+}
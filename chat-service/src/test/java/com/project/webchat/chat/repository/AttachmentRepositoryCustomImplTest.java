@@ -0,0 +1,73 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.Attachment;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private AttachmentRepositoryCustomImpl repository;
+
+    @Test
+    void addVariants_addsToSetWithoutRewritingTheAttachment() {
+        repository.addVariants("att-1", List.of("thumb", "preview"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Attachment.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "att-1"));
+        Document addToSet = (Document) update.getValue().getUpdateObject().get("$addToSet");
+        Update.Modifier each = (Update.Modifier) addToSet.get("variants");
+        assertThat(each.getKey()).isEqualTo("$each");
+        assertThat((Object[]) each.getValue()).containsExactly("thumb", "preview");
+        assertThat(update.getValue().getUpdateObject()).doesNotContainKey("$set");
+    }
+
+    @Test
+    void addVariants_nothingToAdd_skipsTheWrite() {
+        repository.addVariants("att-1", List.of());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void linkToMessage_setsOnlyTheMessageId() {
+        Attachment linked = Attachment.builder().id("att-1").messageId("msg-1").build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Attachment.class))).thenReturn(linked);
+
+        assertThat(repository.linkToMessage("att-1", "msg-1")).isSameAs(linked);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Attachment.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "att-1"));
+        assertThat(update.getValue().getUpdateObject())
+                .isEqualTo(new Document("$set", new Document("messageId", "msg-1")));
+        assertThat(options.getValue().isReturnNew()).isTrue();
+    }
+}
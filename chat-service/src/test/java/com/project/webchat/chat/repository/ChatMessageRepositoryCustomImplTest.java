@@ -0,0 +1,102 @@
+package com.project.webchat.chat.repository;
+
+import com.project.webchat.chat.entity.ChatMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ChatMessageRepositoryCustomImpl repository;
+
+    @Test
+    void findHistorySlice_withoutAnchor_readsNewestFirstWithoutSkip() {
+        repository.findHistorySlice("chat-1", null, null, true, 51);
+
+        Query query = capturedQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("chatId", "chat-1"));
+        assertThat(query.getSortObject()).isEqualTo(new Document("timestamp", -1).append("_id", -1));
+        assertThat(query.getLimit()).isEqualTo(51);
+        assertThat(query.getSkip()).isZero();
+    }
+
+    @Test
+    void findHistorySlice_beforeMessage_breaksTimestampTiesById() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        repository.findHistorySlice("chat-1", at, "m-5", true, 21);
+
+        Query query = capturedQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("chatId", "chat-1")
+                .append("$or", List.of(
+                        new Document("timestamp", new Document("$lt", at)),
+                        new Document("timestamp", at).append("_id", new Document("$lt", "m-5")))));
+    }
+
+    @Test
+    void findHistorySlice_afterTime_readsOldestFirst() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+        repository.findHistorySlice("chat-1", at, null, false, 11);
+
+        Query query = capturedQuery();
+        assertThat(query.getQueryObject()).isEqualTo(new Document("chatId", "chat-1")
+                .append("timestamp", new Document("$gt", at)));
+        assertThat(query.getSortObject()).isEqualTo(new Document("timestamp", 1).append("_id", 1));
+    }
+
+    @Test
+    void countUnreadAfter_isARangeCountFromTheWatermark() {
+        LocalDateTime watermark = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(mongoTemplate.count(any(Query.class), eq(ChatMessage.class))).thenReturn(4L);
+
+        assertThat(repository.countUnreadAfter("chat-1", 7L, watermark)).isEqualTo(4L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).count(query.capture(), eq(ChatMessage.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("chatId", "chat-1")
+                .append("senderId", new Document("$ne", 7L))
+                .append("timestamp", new Document("$gt", watermark)));
+    }
+
+    @Test
+    void findNewestTimestamp_projectsTimestampOnly() {
+        LocalDateTime newest = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(mongoTemplate.findOne(any(Query.class), eq(ChatMessage.class)))
+                .thenReturn(ChatMessage.builder().timestamp(newest).build());
+
+        assertThat(repository.findNewestTimestamp("chat-1")).contains(newest);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(ChatMessage.class));
+        assertThat(query.getValue().getFieldsObject()).isEqualTo(new Document("timestamp", 1));
+        assertThat(query.getValue().getSortObject()).isEqualTo(new Document("timestamp", -1));
+        assertThat(query.getValue().getLimit()).isEqualTo(1);
+    }
+
+    private Query capturedQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(ChatMessage.class));
+        return query.getValue();
+    }
+}
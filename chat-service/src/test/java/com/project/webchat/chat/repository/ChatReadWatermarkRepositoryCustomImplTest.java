@@ -0,0 +1,93 @@
+package com.project.webchat.chat.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatReadWatermarkRepositoryCustomImplTest {
+
+    private static final LocalDateTime READ_UP_TO = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ChatReadWatermarkRepositoryCustomImpl repository;
+
+    @Test
+    void advance_upsertsWithMaxSoTheWatermarkNeverMovesBack() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ChatReadWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        assertThat(repository.advance("chat-1", 7L, READ_UP_TO)).isTrue();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(ChatReadWatermark.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("chatId", "chat-1").append("userId", 7L));
+        assertThat(update.getValue().getUpdateObject())
+                .isEqualTo(new Document("$max", new Document("lastReadAt", READ_UP_TO)));
+    }
+
+    @Test
+    void advance_reportsCreatedWatermark() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ChatReadWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, new BsonObjectId()));
+
+        assertThat(repository.advance("chat-1", 7L, READ_UP_TO)).isTrue();
+    }
+
+    @Test
+    void advance_reportsNoOpWhenAlreadyFurtherAhead() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(ChatReadWatermark.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 0L, null));
+
+        assertThat(repository.advance("chat-1", 7L, READ_UP_TO)).isFalse();
+    }
+
+    @Test
+    void advanceAll_upsertsEveryMemberInOneBulkWrite() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatReadWatermark.class)).thenReturn(bulk);
+
+        repository.advanceAll("chat-1", Map.of(7L, READ_UP_TO));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(query.capture(), update.capture());
+        verify(bulk).execute();
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("chatId", "chat-1").append("userId", 7L));
+        assertThat(update.getValue().getUpdateObject())
+                .isEqualTo(new Document("$max", new Document("lastReadAt", READ_UP_TO)));
+    }
+
+    @Test
+    void advanceAll_nothingToWriteSkipsTheBulk() {
+        repository.advanceAll("chat-1", Map.of());
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,87 @@
+package com.project.webchat.chat.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.project.webchat.chat.entity.ChatRoom;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatRoomRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private ChatRoomRepositoryCustomImpl repository;
+
+    @Test
+    void updateLastActivity_setsOnlyActivityFields() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ChatRoom.class)))
+                .thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+
+        assertThat(repository.updateLastActivity("room-1", now, "hello")).isTrue();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(ChatRoom.class));
+        assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("_id", "room-1"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertThat(set).containsOnlyKeys("lastActivity", "lastMessage");
+        assertThat(set.get("lastActivity")).isEqualTo(now);
+        assertThat(set.get("lastMessage")).isEqualTo("hello");
+    }
+
+    @Test
+    void updateLastActivity_reportsMissingRoom() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ChatRoom.class)))
+                .thenReturn(UpdateResult.acknowledged(0L, 0L, null));
+
+        assertThat(repository.updateLastActivity("gone", LocalDateTime.now(), "x")).isFalse();
+    }
+
+    @Test
+    void updateLastActivity_ignoresNullId() {
+        assertThat(repository.updateLastActivity(null, LocalDateTime.now(), "x")).isFalse();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void findRoommateIds_keepsOnlyRequestedMembersOfSharedRooms() {
+        when(mongoTemplate.find(any(Query.class), eq(ChatRoom.class))).thenReturn(List.of(
+                ChatRoom.builder().memberIds(Set.of(1L, 2L, 9L)).build(),
+                ChatRoom.builder().memberIds(Set.of(1L, 3L)).build()));
+
+        assertThat(repository.findRoommateIds(1L, Set.of(2L, 3L, 4L))).containsExactlyInAnyOrder(2L, 3L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(ChatRoom.class));
+        assertThat(query.getValue().getQueryObject()).containsKey("$and");
+        assertThat(query.getValue().getFieldsObject()).isEqualTo(new Document("memberIds", 1));
+    }
+
+    @Test
+    void findRoommateIds_noCandidatesSkipsTheQuery() {
+        assertThat(repository.findRoommateIds(1L, Set.of())).isEmpty();
+        verifyNoInteractions(mongoTemplate);
+    }
+}
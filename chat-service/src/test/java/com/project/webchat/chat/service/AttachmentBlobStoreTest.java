@@ -0,0 +1,180 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.chat.entity.AttachmentVariant;
+import com.project.webchat.chat.repository.AttachmentBlobRepository;
+import com.project.webchat.chat.repository.AttachmentBlobRepositoryCustom.Acquired;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentBlobStoreTest {
+
+    // SHA-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final LocalDateTime MARKER = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private AttachmentBlobRepository blobRepository;
+
+    private AttachmentBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new AttachmentBlobStore(blobRepository);
+        ReflectionTestUtils.setField(blobStore, "uploadDir", uploadDir.toString());
+        blobStore.init();
+    }
+
+    @Test
+    void writeTemp_hashesAndCountsWhileStreaming() throws Exception {
+        AttachmentBlobStore.PendingBlob pending = blobStore.writeTemp(stream("hello"), 1024);
+
+        assertThat(pending.hash()).isEqualTo(HELLO_HASH);
+        assertThat(pending.size()).isEqualTo(5);
+        assertThat(Files.readString(pending.tempFile())).isEqualTo("hello");
+    }
+
+    @Test
+    void store_newContentIsMovedIntoPlace() throws Exception {
+        AttachmentBlobStore.PendingBlob pending = blobStore.writeTemp(stream("hello"), 1024);
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED);
+
+        Path stored = blobStore.store(pending);
+
+        assertThat(stored).isEqualTo(uploadDir.resolve("blobs").resolve("2c").resolve(HELLO_HASH));
+        assertThat(Files.readString(stored)).isEqualTo("hello");
+        assertThat(pending.tempFile()).doesNotExist();
+    }
+
+    @Test
+    void store_knownContentDropsTheDuplicate() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED, Acquired.EXISTING);
+        Path stored = blobStore.store(blobStore.writeTemp(stream("hello"), 1024));
+
+        AttachmentBlobStore.PendingBlob duplicate = blobStore.writeTemp(stream("hello"), 1024);
+        assertThat(blobStore.store(duplicate)).isEqualTo(stored);
+
+        assertThat(duplicate.tempFile()).doesNotExist();
+        assertThat(stored).exists();
+    }
+
+    @Test
+    void release_unlinksOnlyWithTheLastReference() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED);
+        Path stored = blobStore.store(blobStore.writeTemp(stream("hello"), 1024));
+
+        when(blobRepository.release(HELLO_HASH)).thenReturn(1L, 0L);
+        when(blobRepository.beginUnlink(HELLO_HASH)).thenReturn(MARKER);
+
+        blobStore.release(HELLO_HASH);
+        assertThat(stored).exists();
+        verify(blobRepository, never()).beginUnlink(HELLO_HASH);
+
+        blobStore.release(HELLO_HASH);
+        assertThat(stored).doesNotExist();
+        verify(blobRepository).finishUnlink(HELLO_HASH, MARKER);
+    }
+
+    @Test
+    void release_keepsTheFileWhenItCannotClaimTheUnlink() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED);
+        Path stored = blobStore.store(blobStore.writeTemp(stream("hello"), 1024));
+
+        // referenced again by an upload on another instance, or unlinked by one
+        when(blobRepository.release(HELLO_HASH)).thenReturn(0L);
+        when(blobRepository.beginUnlink(HELLO_HASH)).thenReturn(null);
+        blobStore.release(HELLO_HASH);
+
+        assertThat(stored).exists();
+        verify(blobRepository, never()).finishUnlink(any(), any());
+    }
+
+    @Test
+    void store_ofContentBeingUnlinkedWaitsForTheUnlinkToFinish() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.BUSY, Acquired.BUSY, Acquired.CREATED);
+        AttachmentBlobStore.PendingBlob reupload = blobStore.writeTemp(stream("hello"), 1024);
+
+        blobStore.store(reupload);
+
+        verify(blobRepository, times(3)).acquire(HELLO_HASH, 5);
+        assertThat(blobStore.pathOf(HELLO_HASH)).hasContent("hello");
+    }
+
+    @Test
+    void store_failureDeletesThePendingFile() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenThrow(new IllegalStateException("mongo down"));
+        AttachmentBlobStore.PendingBlob pending = blobStore.writeTemp(stream("hello"), 1024);
+
+        assertThatThrownBy(() -> blobStore.store(pending)).isInstanceOf(IllegalStateException.class);
+        assertThat(pending.tempFile()).doesNotExist();
+    }
+
+    @Test
+    void release_unlinksVariantsWithTheBlob() throws Exception {
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED);
+        blobStore.store(blobStore.writeTemp(stream("hello"), 1024));
+        Path thumb = blobStore.newTempFile();
+        assertThat(blobStore.storeVariant(HELLO_HASH, AttachmentVariant.THUMB, thumb)).isTrue();
+        Path variant = blobStore.variantPathOf(HELLO_HASH, AttachmentVariant.THUMB);
+        assertThat(variant).exists();
+
+        when(blobRepository.release(HELLO_HASH)).thenReturn(0L);
+        when(blobRepository.beginUnlink(HELLO_HASH)).thenReturn(MARKER);
+        blobStore.release(HELLO_HASH);
+
+        assertThat(variant).doesNotExist();
+    }
+
+    @Test
+    void storeVariant_isDroppedWhenTheBlobIsGone() throws Exception {
+        Path temp = blobStore.newTempFile();
+
+        assertThat(blobStore.storeVariant(HELLO_HASH, AttachmentVariant.THUMB, temp)).isFalse();
+        assertThat(temp).doesNotExist();
+    }
+
+    @Test
+    void retain_missingBlobIsRejected() {
+        when(blobRepository.retain(HELLO_HASH)).thenReturn(false);
+
+        assertThatThrownBy(() -> blobStore.retain(HELLO_HASH)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void adopt_movesAnExistingFileIntoTheStore() throws Exception {
+        Path legacy = Files.writeString(uploadDir.resolve("legacy.txt"), "hello");
+        when(blobRepository.acquire(HELLO_HASH, 5)).thenReturn(Acquired.CREATED);
+
+        AttachmentBlobStore.PendingBlob adopted = blobStore.adopt(legacy);
+
+        assertThat(adopted.hash()).isEqualTo(HELLO_HASH);
+        assertThat(legacy).doesNotExist();
+        assertThat(blobStore.pathOf(HELLO_HASH)).exists();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
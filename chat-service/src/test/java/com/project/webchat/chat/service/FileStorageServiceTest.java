@@ -0,0 +1,114 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.repository.AttachmentRepository;
+import com.project.webchat.chat.service.support.AttachmentThumbnailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private AttachmentRepository attachmentRepository;
+
+    @Mock
+    private AttachmentBlobStore blobStore;
+
+    @Mock
+    private AttachmentThumbnailService thumbnailService;
+
+    private ThreadPoolExecutor uploadExecutor;
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        uploadExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        fileStorageService = new FileStorageService(attachmentRepository, blobStore, uploadExecutor, thumbnailService);
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(fileStorageService, "maxSize", 1024L);
+        ReflectionTestUtils.setField(fileStorageService, "allowedExtensions", "png,txt");
+        fileStorageService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadExecutor.shutdownNow();
+    }
+
+    @Test
+    void saveFile_rejectsWrongMagicBytesBeforeWritingAnything() throws Exception {
+        MockMultipartFile fakePng = file("fake.png", "definitely not a png");
+
+        assertThatThrownBy(() -> fileStorageService.saveFile(fakePng, 1L, "chat-1"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("doesn't match its type");
+        verify(blobStore, never()).writeTemp(any(InputStream.class), anyLong());
+    }
+
+    @Test
+    void saveFile_streamsTheWholeUploadIncludingTheSniffedHeader() throws Exception {
+        MockMultipartFile notes = file("notes.txt", "twelve bytes and then some more");
+        when(blobStore.writeTemp(any(InputStream.class), anyLong())).thenAnswer(invocation -> {
+            String streamed = new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(streamed).isEqualTo("twelve bytes and then some more");
+            return new AttachmentBlobStore.PendingBlob(uploadDir.resolve("tmp"), "hash-1", streamed.length());
+        });
+        when(blobStore.store(any())).thenReturn(uploadDir.resolve("blob"));
+        when(attachmentRepository.save(any(Attachment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Attachment saved = fileStorageService.saveFile(notes, 1L, "chat-1");
+
+        assertThat(saved.getContentHash()).isEqualTo("hash-1");
+        assertThat(saved.getSize()).isEqualTo(31L);
+        verify(thumbnailService).generateAsync(saved);
+    }
+
+    @Test
+    void saveFiles_deletesTheSavedFilesWhenOneIsRejected() throws Exception {
+        when(blobStore.writeTemp(any(InputStream.class), anyLong()))
+                .thenReturn(new AttachmentBlobStore.PendingBlob(uploadDir.resolve("tmp"), "hash-1", 31));
+        when(blobStore.store(any())).thenReturn(uploadDir.resolve("blob"));
+        when(attachmentRepository.save(any(Attachment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<MockMultipartFile> batch = List.of(
+                file("notes.txt", "twelve bytes and then some more"),
+                file("fake.png", "definitely not a png"));
+
+        assertThatThrownBy(() -> fileStorageService.saveFiles(List.copyOf(batch), 1L, "chat-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(attachmentRepository).delete(any(Attachment.class));
+        verify(blobStore).release("hash-1");
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("files", name, "application/octet-stream",
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+}
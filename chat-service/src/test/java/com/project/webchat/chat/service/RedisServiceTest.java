@@ -0,0 +1,179 @@
+package com.project.webchat.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.webchat.chat.dto.PresenceSnapshotDTO;
+import com.project.webchat.chat.service.codec.RedisCacheCodecs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private RedisService redisService;
+
+    @BeforeEach
+    void setUp() {
+        redisService = new RedisService(redisTemplate, new RedisCacheCodecs(new ObjectMapper(), "binary"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void presenceWrites_areSingleScriptCalls() {
+        redisService.markUserOnline(7L, "chat-1");
+        redisService.markUserAfk(7L, "chat-1");
+        redisService.updatePresence(7L, "chat-2");
+        redisService.markUserOffline(7L);
+
+        // every key a script writes up front is declared; only the previous chat's set is derived inside
+        verify(redisTemplate, times(2)).execute(
+                any(RedisScript.class),
+                eq(List.of("user_chat:7", "last_seen:7", "online_users", "chat_online_users:chat-1")),
+                any(Object[].class));
+        verify(redisTemplate).execute(
+                any(RedisScript.class),
+                eq(List.of("user_chat:7", "last_seen:7", "online_users", "chat_online_users:chat-2")),
+                any(Object[].class));
+        verify(redisTemplate).execute(
+                any(RedisScript.class),
+                eq(List.of("user_chat:7", "last_seen:7", "online_users")),
+                any(Object[].class));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heartbeatForChat_reportsWhetherPresenceWasRefreshed() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(1L, 0L);
+
+        assertThat(redisService.heartbeat(7L, "chat-1")).isTrue();
+        assertThat(redisService.heartbeat(7L, "chat-2")).isFalse();
+    }
+
+    @Test
+    void getOnlineUsersInChat_usesOneMgetAndOneBatchedSrem() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(setOperations.members("chat_online_users:chat-1"))
+                .thenReturn(new LinkedHashSet<>(List.of("1", "2", "3", "bad")));
+        when(valueOperations.multiGet(List.of("user_chat:1", "user_chat:2", "user_chat:3")))
+                .thenReturn(Arrays.asList("chat-1", "chat-9", null));
+
+        Set<Long> online = redisService.getOnlineUsersInChat("chat-1");
+
+        assertThat(online).containsExactly(1L);
+        verify(setOperations).remove("chat_online_users:chat-1", "bad", "2", "3");
+    }
+
+    @Test
+    void getPresenceSnapshot_readsStateAndLastSeenTogether() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("user_chat:1", "user_chat:2", "last_seen:1", "last_seen:2")))
+                .thenReturn(Arrays.asList("AFK:chat-1", null, "100", "200"));
+
+        Map<Long, PresenceSnapshotDTO> snapshot = redisService.getPresenceSnapshot(List.of(1L, 2L), null);
+
+        assertThat(snapshot.get(1L).isOnline()).isTrue();
+        assertThat(snapshot.get(1L).isAfk()).isTrue();
+        assertThat(snapshot.get(1L).isOnlineInChat()).isFalse();
+        assertThat(snapshot.get(2L).isOnline()).isFalse();
+        assertThat(snapshot.get(2L).getLastSeen()).isEqualTo(200L);
+    }
+
+    @Test
+    void getPresenceSnapshot_reportsOnlyWhetherTheQueriedChatIsOpen() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("user_chat:1", "user_chat:2", "last_seen:1", "last_seen:2")))
+                .thenReturn(Arrays.asList("chat-1", "chat-2", null, null));
+
+        Map<Long, PresenceSnapshotDTO> snapshot = redisService.getPresenceSnapshot(List.of(1L, 2L), "chat-1");
+
+        assertThat(snapshot.get(1L).isOnlineInChat()).isTrue();
+        assertThat(snapshot.get(2L).isOnline()).isTrue();
+        assertThat(snapshot.get(2L).isOnlineInChat()).isFalse();
+    }
+
+    @Test
+    void evictUserInfo_publishesInvalidation() {
+        redisService.evictUserInfo(42L);
+
+        verify(redisTemplate).delete("user_info:42");
+        verify(redisTemplate).convertAndSend(RedisService.USER_INFO_INVALIDATION_CHANNEL, "42");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void chatMemberWrites_bumpGenerationAndFillIsGuardedByIt() {
+        List<String> keys = List.of("chat_members:room-1", "chat_members_gen:room-1");
+
+        redisService.addChatMembers("room-1", List.of(5L, 5L, 6L));
+        redisService.removeChatMembers("room-1", List.of(6L));
+        redisService.fillChatMembers("room-1", "3", Set.of(5L));
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("add"), eq("5"), eq("6"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("remove"), eq("6"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("3"), eq("5"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreadCounterWrites_bumpGenerationAndSeedIsGuardedByIt() {
+        List<String> keys = List.of("chat_unread:room-1", "chat_unread_gen:room-1");
+        String generationTtl = String.valueOf(Duration.ofDays(14).toSeconds());
+
+        redisService.incrementUnreadCounters("room-1", List.of(5L, 6L));
+        redisService.clearUnreadCounter("room-1", 5L);
+        redisService.evictUnreadCounters("room-1");
+        redisService.seedUnreadCounter("room-1", 6L, "3", 2L);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(generationTtl), eq("5"), eq("6"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(generationTtl), eq("5"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(generationTtl));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(keys),
+                eq("3"), eq("6"), eq("2"), eq(String.valueOf(Duration.ofDays(7).toSeconds())));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictBanEdges_dropsBothListsAndBumpsGenerationPerUser() {
+        redisService.evictBanEdges(Arrays.asList(1L, null, 1L, 2L));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("user_bans:1", "user_banned_by:1", "user_bans_gen:1")), any(Object[].class));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("user_bans:2", "user_banned_by:2", "user_bans_gen:2")), any(Object[].class));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+}
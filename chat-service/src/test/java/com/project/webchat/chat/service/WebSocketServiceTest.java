@@ -0,0 +1,59 @@
+package com.project.webchat.chat.service;
+
+import com.project.webchat.chat.dto.ChatRoomDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.AbstractMessageChannel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketServiceTest {
+
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WebSocketService webSocketService;
+
+    @BeforeEach
+    void setUp() {
+        SimpMessagingTemplate template = new SimpMessagingTemplate(new AbstractMessageChannel() {
+            @Override
+            protected boolean sendInternal(Message<?> message, long timeout) {
+                sent.add(message);
+                return true;
+            }
+        });
+        template.setMessageConverter(new MappingJackson2MessageConverter());
+        webSocketService = new WebSocketService(template, meterRegistry);
+    }
+
+    @Test
+    void notifyChatUpdated_serializesOnceAndReusesPayloadForEveryMember() {
+        ChatRoomDTO room = ChatRoomDTO.builder().id("room-1").groupName("Team").build();
+
+        webSocketService.notifyChatUpdated("room-1", room, new LinkedHashSet<>(List.of(1L, 2L, 3L)));
+
+        assertThat(sent).hasSize(6);
+        assertThat(sent).extracting(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders()))
+                .contains("/user/1/queue/chats/updated", "/topic/users/3/inbox");
+        List<Object> roomPayloads = sent.stream()
+                .filter(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders()).endsWith("/queue/chats/updated"))
+                .map(Message::getPayload)
+                .map(Object.class::cast)
+                .toList();
+        assertThat(roomPayloads).hasSize(3);
+        assertThat(roomPayloads).allSatisfy(payload -> assertThat(payload).isSameAs(roomPayloads.get(0)));
+        assertThat(meterRegistry.get("chat.websocket.frames.sent").tag("event", "ChatRoomDTO").counter().count())
+                .isEqualTo(3.0);
+        assertThat(meterRegistry.get("chat.websocket.bytes.sent").tag("event", "ChatRoomDTO").counter().count())
+                .isEqualTo(3.0 * ((byte[]) roomPayloads.get(0)).length);
+    }
+}
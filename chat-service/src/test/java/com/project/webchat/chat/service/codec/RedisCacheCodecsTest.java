@@ -0,0 +1,69 @@
+package com.project.webchat.chat.service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisCacheCodecsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RedisCacheCodecs binary = new RedisCacheCodecs(objectMapper, "binary");
+    private final RedisCacheCodecs json = new RedisCacheCodecs(objectMapper, "json");
+
+    private static UserInfoDTO sampleUser() {
+        return UserInfoDTO.builder()
+                .id(123456L)
+                .username("olena")
+                .firstName("Олена")
+                .lastName(null)
+                .profilePicture("/api/users/123456/avatar")
+                .online(true)
+                .build();
+    }
+
+    @Test
+    void userInfo_roundTripsAndIsSmallerThanJson() throws Exception {
+        UserInfoDTO user = sampleUser();
+
+        byte[] encoded = binary.userInfo().encode(user);
+
+        assertThat(binary.userInfo().decode(encoded)).isEqualTo(user);
+        assertThat(encoded.length).isLessThan(objectMapper.writeValueAsBytes(user).length / 2);
+    }
+
+    @Test
+    void userInfo_readsValuesWrittenByEitherMode() throws Exception {
+        UserInfoDTO user = sampleUser();
+
+        assertThat(binary.userInfo().decode(objectMapper.writeValueAsBytes(user))).isEqualTo(user);
+        assertThat(json.userInfo().decode(binary.userInfo().encode(user))).isEqualTo(user);
+        assertThat((char) json.userInfo().encode(user)[0]).isEqualTo('{');
+    }
+
+    @Test
+    void idSet_roundTripsSortedGapsAndNegativeIds() {
+        Set<Long> ids = new LinkedHashSet<>(Set.of(900L, 12L, -3L, 1_000_000_000_000L));
+
+        assertThat(binary.idSet().decode(binary.idSet().encode(ids)))
+                .containsExactly(-3L, 12L, 900L, 1_000_000_000_000L);
+        assertThat(binary.idSet().decode(binary.idSet().encode(Set.of()))).isEmpty();
+    }
+
+    @Test
+    void idSet_packsDenseRoomsIntoAboutOneBytePerMember() throws Exception {
+        Set<Long> members = new LinkedHashSet<>();
+        LongStream.range(50_000, 50_500).forEach(members::add);
+
+        byte[] packed = binary.idSet().encode(members);
+
+        assertThat(packed.length).isLessThan(members.size() + 8);
+        assertThat(packed.length).isLessThan(objectMapper.writeValueAsBytes(members).length / 5);
+        assertThat(binary.idSet().decode(objectMapper.writeValueAsBytes(members))).isEqualTo(members);
+    }
+}
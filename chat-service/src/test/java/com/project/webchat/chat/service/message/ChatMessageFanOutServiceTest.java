@@ -0,0 +1,71 @@
+package com.project.webchat.chat.service.message;
+
+import com.project.webchat.chat.config.KeyedSerialExecutor;
+import com.project.webchat.chat.dto.ChatMessageDTO;
+import com.project.webchat.chat.dto.ChatRoomDTO;
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.entity.ChatType;
+import com.project.webchat.chat.service.WebSocketService;
+import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatMessageFanOutServiceTest {
+
+    @Mock
+    private ChatRoomEnrichmentService roomEnrichmentService;
+    @Mock
+    private WebSocketService webSocketService;
+
+    private final KeyedSerialExecutor executor = new KeyedSerialExecutor("test-fan-out-", 2, 10);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fanOut_buildsProjectionOnceAndSkipsIncomingEventForSender() throws Exception {
+        ChatMessageFanOutService service = new ChatMessageFanOutService(
+                executor, roomEnrichmentService, webSocketService, meterRegistry);
+        ChatRoom room = ChatRoom.builder()
+                .id("room-1")
+                .type(ChatType.GROUP)
+                .memberIds(Set.of(1L, 2L, 3L))
+                .build();
+        ChatMessageDTO message = new ChatMessageDTO();
+        when(roomEnrichmentService.enrichChatForMembers(eq(room), any())).thenReturn(Map.of(
+                1L, ChatRoomDTO.builder().id("room-1").build(),
+                2L, ChatRoomDTO.builder().id("room-1").unreadCount(1).build(),
+                3L, ChatRoomDTO.builder().id("room-1").unreadCount(4).build()));
+
+        service.fanOut(room, 1L, message);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        verify(roomEnrichmentService, times(1)).enrichChatForMembers(eq(room), any());
+        verify(webSocketService, times(3)).notifyChatUpdated(eq("room-1"), any(), any());
+        verify(webSocketService, never()).notifyIncomingChatMessage(eq(1L), any(), any());
+        verify(webSocketService).notifyIncomingChatMessage(eq(2L), any(), eq(message));
+        verify(webSocketService).notifyIncomingChatMessage(eq(3L), any(), eq(message));
+        assertThat(meterRegistry.get("chat.delivery.fanout.latency").timer().count()).isEqualTo(1);
+    }
+}
@@ -3,10 +3,26 @@ package com.project.webchat.chat.service.room;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.webchat.chat.entity.ChatRoom;
 import com.project.webchat.chat.entity.ChatType;
+import com.project.webchat.chat.feign.UserServiceClient;
+import com.project.webchat.chat.repository.AttachmentRepository;
+import com.project.webchat.chat.repository.ChatMessageRepository;
 import com.project.webchat.chat.repository.ChatRoomRepository;
+import com.project.webchat.chat.repository.RoomMemberInviteRepository;
+import com.project.webchat.chat.service.ChatNotificationEventPublisher;
+import com.project.webchat.chat.service.FileStorageService;
 import com.project.webchat.chat.service.RedisService;
+import com.project.webchat.chat.service.WebSocketService;
+import com.project.webchat.chat.service.codec.RedisCacheCodecs;
+import com.project.webchat.chat.service.support.ChatParticipantsCache;
+import com.project.webchat.chat.service.support.ChatReadWatermarkService;
+import com.project.webchat.chat.service.support.ChatRoomEnrichmentService;
+import com.project.webchat.chat.service.support.ChatRoomLookupService;
+import com.project.webchat.chat.service.support.ChatRoomPermissionService;
+import com.project.webchat.chat.service.support.UserBanGuardService;
 import com.project.webchat.chat.service.user.ChatUserInfoService;
 import com.project.webchat.shared.dto.UserInfoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,27 +32,34 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.test.context.ActiveProfiles;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(classes = {
         ChatRoomManagementService.class,
-        RedisService.class
+        RedisService.class,
+        RedisCacheCodecs.class,
+        ChatParticipantsCache.class,
+        ChatRoomLookupService.class
 })
 @Import(ChatRoomParticipantsRedisCacheIntegrationTest.LocalTestConfig.class)
 @ActiveProfiles("test")
@@ -48,39 +71,77 @@ class ChatRoomParticipantsRedisCacheIntegrationTest {
         ObjectMapper objectMapper() {
             return new ObjectMapper();
         }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
 
     @MockBean
     private ChatRoomRepository chatRoomRepository;
     @MockBean
+    private ChatMessageRepository chatMessageRepository;
+    @MockBean
+    private AttachmentRepository attachmentRepository;
+    @MockBean
+    private FileStorageService fileStorageService;
+    @MockBean
+    private RoomMemberInviteRepository roomMemberInviteRepository;
+    @MockBean
+    private UserServiceClient userServiceClient;
+    @MockBean
+    private WebSocketService webSocketService;
+    @MockBean
     private ChatUserInfoService chatUserInfoService;
     @MockBean
+    private ChatRoomEnrichmentService roomEnrichmentService;
+    @MockBean
+    private ChatRoomPermissionService roomPermissionService;
+    @MockBean
+    private ChatNotificationEventPublisher chatNotificationEventPublisher;
+    @MockBean
+    private PersonalSpaceService personalSpaceService;
+    @MockBean
+    private UserBanGuardService userBanGuardService;
+    @MockBean
+    private ChatReadWatermarkService readWatermarkService;
+    @MockBean
     private RedisTemplate<String, String> redisTemplate;
     @MockBean
+    private SetOperations<String, String> setOperations;
+    @MockBean
     private ValueOperations<String, String> valueOperations;
 
     @Autowired
     private ChatRoomManagementService chatRoomManagementService;
 
-    private final Map<String, String> redisValues = new HashMap<>();
+    private final Map<String, Set<String>> redisSets = new HashMap<>();
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUpRedisMock() {
-        redisValues.clear();
+        redisSets.clear();
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(anyString()))
-                .thenAnswer(invocation -> redisValues.get(invocation.getArgument(0)));
-        doAnswer(invocation -> {
-            redisValues.put(invocation.getArgument(0), invocation.getArgument(1));
-            return null;
-        }).when(valueOperations).set(anyString(), anyString(), any(Duration.class));
-        doAnswer(invocation -> {
-            redisValues.remove(invocation.getArgument(0));
-            return true;
-        }).when(redisTemplate).delete(anyString());
+        when(setOperations.members(anyString()))
+                .thenAnswer(invocation -> redisSets.getOrDefault(invocation.getArgument(0), Set.of()));
+        // member set fill script: ARGV = generation, ids...
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    List<String> keys = invocation.getArgument(1);
+                    Object[] args = (Object[]) invocation.getRawArguments()[2];
+                    Set<String> members = new HashSet<>();
+                    for (int i = 1; i < args.length; i++) {
+                        members.add(args[i].toString());
+                    }
+                    redisSets.put(keys.get(0), members);
+                    return 1L;
+                });
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void repeatedParticipantsRequest_usesRedisCache_andSkipsSecondMongoLookup() {
         String roomId = "room-1";
         Long requestingUserId = 10L;
@@ -95,11 +156,13 @@ class ChatRoomParticipantsRedisCacheIntegrationTest {
                 .build();
 
         when(chatRoomRepository.findById(roomId)).thenReturn(Optional.of(room));
-        when(chatUserInfoService.getUserInfo(any(Long.class)))
-                .thenAnswer(invocation -> UserInfoDTO.builder()
-                        .id(invocation.getArgument(0))
-                        .username("user-" + invocation.getArgument(0))
-                        .build());
+        when(chatUserInfoService.getUserInfoList(any()))
+                .thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .map(id -> UserInfoDTO.builder()
+                                .id(id)
+                                .username("user-" + id)
+                                .build())
+                        .toList());
 
         var firstCall = chatRoomManagementService.getRoomParticipantsForMember(roomId, requestingUserId);
         var secondCall = chatRoomManagementService.getRoomParticipantsForMember(roomId, requestingUserId);
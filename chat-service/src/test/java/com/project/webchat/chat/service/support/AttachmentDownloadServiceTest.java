@@ -0,0 +1,145 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.Attachment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentDownloadServiceTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AttachmentDownloadService downloadService = new AttachmentDownloadService(meterRegistry);
+
+    private Attachment attachment;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.writeString(tempDir.resolve("stored-1.mp4"), CONTENT);
+        attachment = Attachment.builder()
+                .id("att-1")
+                .filename("clip.mp4")
+                .storedFilename("stored-1.mp4")
+                .mimeType("video/mp4")
+                .createdAt(LocalDateTime.of(2024, 3, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    void fullDownload_setsValidatorsAndImmutableCaching() throws Exception {
+        MockHttpServletResponse response = serve(new MockHttpServletRequest("GET", "/"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"stored-1.mp4\"");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable").contains("private");
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(meterRegistry.get("chat.attachments.bytes.served").counter().count()).isEqualTo(20.0);
+    }
+
+    @Test
+    void rangeRequest_returnsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 5-9/20");
+        assertThat(meterRegistry.get("chat.attachments.downloads").tag("outcome", "partial").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void suffixAndOpenEndedRanges_areClampedToTheFile() throws Exception {
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", "/");
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-4");
+        MockHttpServletRequest openEnded = new MockHttpServletRequest("GET", "/");
+        openEnded.addHeader(HttpHeaders.RANGE, "bytes=15-100");
+
+        assertThat(serve(suffix).getContentAsString()).isEqualTo("ghij");
+        assertThat(serve(openEnded).getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 15-19/20");
+    }
+
+    @Test
+    void rangeBeyondTheEnd_isNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */20");
+    }
+
+    @Test
+    void matchingIfNoneMatch_returnsNotModifiedWithoutBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", \"stored-1.mp4\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void staleIfRange_ignoresTheRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stored-0.mp4\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendfileCapableConnector_getsTheFileRegionInsteadOfABody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute(AttachmentDownloadService.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute(AttachmentDownloadService.SENDFILE_FILENAME_ATTR))
+                .isEqualTo(file.toRealPath().toString());
+        assertThat(request.getAttribute(AttachmentDownloadService.SENDFILE_START_ATTR)).isEqualTo(10L);
+        assertThat(request.getAttribute(AttachmentDownloadService.SENDFILE_END_ATTR)).isEqualTo(20L);
+    }
+
+    @Test
+    void blobBackedAttachment_usesTheContentHashAsEtag() throws Exception {
+        attachment.setContentHash("2cf24dba");
+
+        assertThat(serve(new MockHttpServletRequest("GET", "/")).getHeader(HttpHeaders.ETAG))
+                .isEqualTo("\"2cf24dba\"");
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        downloadService.serve(attachment, file, true, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,150 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.Attachment;
+import com.project.webchat.chat.entity.AttachmentVariant;
+import com.project.webchat.chat.entity.FileType;
+import com.project.webchat.chat.repository.AttachmentBlobRepository;
+import com.project.webchat.chat.repository.AttachmentRepository;
+import com.project.webchat.chat.service.AttachmentBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentThumbnailServiceTest {
+
+    private static final String HASH = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path uploadDir;
+
+    @Mock
+    private AttachmentBlobRepository blobRepository;
+
+    @Mock
+    private AttachmentRepository attachmentRepository;
+
+    @Mock
+    private ThreadPoolExecutor thumbnailExecutor;
+
+    private AttachmentBlobStore blobStore;
+    private AttachmentThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new AttachmentBlobStore(blobRepository);
+        ReflectionTestUtils.setField(blobStore, "uploadDir", uploadDir.toString());
+        blobStore.init();
+        thumbnailService = new AttachmentThumbnailService(
+                blobStore, attachmentRepository, thumbnailExecutor, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void generate_rendersEveryVariantSmallerThanTheOriginal() throws Exception {
+        storeImage(2000, 1000);
+
+        List<AttachmentVariant> variants = thumbnailService.generate(image());
+
+        assertThat(variants).containsExactly(AttachmentVariant.THUMB, AttachmentVariant.PREVIEW);
+        BufferedImage thumb = ImageIO.read(blobStore.variantPathOf(HASH, AttachmentVariant.THUMB).toFile());
+        assertThat(thumb.getWidth()).isEqualTo(320);
+        assertThat(thumb.getHeight()).isEqualTo(160);
+        BufferedImage preview = ImageIO.read(blobStore.variantPathOf(HASH, AttachmentVariant.PREVIEW).toFile());
+        assertThat(preview.getWidth()).isEqualTo(1280);
+        verify(attachmentRepository).addVariants("att-1", List.of("thumb", "preview"));
+    }
+
+    @Test
+    void generate_turnsSidewaysPhonePhotosUpright() throws Exception {
+        // stored landscape with EXIF orientation 6, shown portrait by browsers
+        Path blob = blobStore.pathOf(HASH);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, jpegWithOrientation(1000, 600, 6));
+
+        thumbnailService.generate(image());
+
+        BufferedImage thumb = ImageIO.read(blobStore.variantPathOf(HASH, AttachmentVariant.THUMB).toFile());
+        assertThat(thumb.getWidth()).isEqualTo(192);
+        assertThat(thumb.getHeight()).isEqualTo(320);
+    }
+
+    @Test
+    void generate_smallImageOnlyGetsTheThumb() throws Exception {
+        storeImage(600, 400);
+
+        assertThat(thumbnailService.generate(image())).containsExactly(AttachmentVariant.THUMB);
+        assertThat(blobStore.variantPathOf(HASH, AttachmentVariant.PREVIEW)).doesNotExist();
+    }
+
+    @Test
+    void generate_unreadableFormatKeepsOnlyTheOriginal() throws Exception {
+        Path blob = blobStore.pathOf(HASH);
+        Files.createDirectories(blob.getParent());
+        Files.writeString(blob, "RIFF....WEBPVP8 not decodable by ImageIO", StandardCharsets.US_ASCII);
+
+        assertThat(thumbnailService.generate(image())).isEmpty();
+        verify(attachmentRepository).addVariants(eq("att-1"), eq(List.of()));
+    }
+
+    @Test
+    void generateAsync_ignoresAttachmentsThatAreNotStoredImages() {
+        Attachment document = image();
+        document.setFileType(FileType.DOCUMENT);
+
+        thumbnailService.generateAsync(document);
+
+        verify(thumbnailExecutor, never()).execute(any());
+        verify(attachmentRepository, never()).addVariants(any(), anyList());
+    }
+
+    private void storeImage(int width, int height) throws Exception {
+        Path blob = blobStore.pathOf(HASH);
+        Files.createDirectories(blob.getParent());
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", blob.toFile());
+    }
+
+    // a JPEG whose JFIF header is swapped for an EXIF block carrying the orientation, as cameras write it
+    private static byte[] jpegWithOrientation(int width, int height, int orientation) throws Exception {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", encoded);
+        byte[] jpeg = encoded.toByteArray();
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0, 'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+        int app0End = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, 0, (byte) (exif.length + 2)});
+        out.write(exif);
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    private static Attachment image() {
+        return Attachment.builder()
+                .id("att-1")
+                .contentHash(HASH)
+                .fileType(FileType.IMAGE)
+                .build();
+    }
+}
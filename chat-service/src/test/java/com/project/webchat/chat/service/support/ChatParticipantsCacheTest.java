@@ -0,0 +1,67 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.service.RedisService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatParticipantsCacheTest {
+
+    @Mock
+    private RedisService redisService;
+    @Mock
+    private ChatRoomLookupService chatRoomLookupService;
+
+    @InjectMocks
+    private ChatParticipantsCache chatParticipantsCache;
+
+    @Test
+    void isMember_answersFromSetWithoutLoadingRoom() {
+        when(redisService.isChatMember("room-1", 7L)).thenReturn(false);
+
+        assertThat(chatParticipantsCache.isMember("room-1", 7L)).isFalse();
+        verify(chatRoomLookupService, never()).findRoom(anyString(), anyString());
+    }
+
+    @Test
+    void missingSet_isRebuiltWithGenerationReadBeforeLoad() {
+        ChatRoom room = ChatRoom.builder().id("room-1").memberIds(new HashSet<>(Set.of(7L, 8L))).build();
+        when(redisService.isChatMember("room-1", 7L)).thenReturn(null);
+        when(redisService.getChatMembersGeneration("room-1")).thenReturn("4");
+        when(chatRoomLookupService.findRoom("room-1", "participants-rebuild")).thenReturn(Optional.of(room));
+
+        assertThat(chatParticipantsCache.isMember("room-1", 7L)).isTrue();
+
+        InOrder order = inOrder(redisService, chatRoomLookupService);
+        order.verify(redisService).getChatMembersGeneration("room-1");
+        order.verify(chatRoomLookupService).findRoom("room-1", "participants-rebuild");
+        order.verify(redisService).fillChatMembers("room-1", "4", room.getMemberIds());
+    }
+
+    @Test
+    void getMemberIds_ofMissingRoomIsEmptyAndNotCached() {
+        when(redisService.getChatMembers("gone")).thenReturn(null);
+        when(redisService.getChatMembersGeneration("gone")).thenReturn("0");
+        when(chatRoomLookupService.findRoom("gone", "participants-rebuild")).thenReturn(Optional.empty());
+
+        assertThat(chatParticipantsCache.getMemberIds("gone")).isEmpty();
+        verify(redisService, never()).fillChatMembers(anyString(), anyString(), any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatReadWatermark;
+import com.project.webchat.chat.repository.ChatMessageRepository;
+import com.project.webchat.chat.repository.ChatReadWatermarkRepository;
+import com.project.webchat.chat.service.RedisService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatReadWatermarkServiceTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 12, 0);
+    private static final LocalDateTime T2 = T1.plusMinutes(1);
+    private static final LocalDateTime T3 = T1.plusMinutes(2);
+
+    @Mock
+    private ChatReadWatermarkRepository watermarkRepository;
+
+    @Mock
+    private ChatMessageRepository chatMessageRepository;
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private ChatReadWatermarkService watermarkService;
+
+    @Test
+    void getWatermarks_mirrorHitsSkipMongo() {
+        when(redisService.getReadWatermarks("chat-1", List.of(1L, 2L))).thenReturn(Map.of(1L, T1, 2L, T2));
+
+        assertThat(watermarkService.getWatermarks("chat-1", List.of(1L, 2L))).containsEntry(1L, T1).containsEntry(2L, T2);
+        verifyNoInteractions(watermarkRepository, chatMessageRepository);
+    }
+
+    @Test
+    void getWatermarks_loadsMissesFromMongoAndMirrorsThem() {
+        when(redisService.getReadWatermarks("chat-1", List.of(1L, 2L))).thenReturn(Map.of(1L, T1));
+        when(watermarkRepository.findByChatIdAndUserIdIn("chat-1", List.of(2L)))
+                .thenReturn(List.of(ChatReadWatermark.builder().chatId("chat-1").userId(2L).lastReadAt(T2).build()));
+
+        assertThat(watermarkService.getWatermarks("chat-1", List.of(1L, 2L))).containsEntry(2L, T2);
+        verify(redisService).raiseReadWatermarks("chat-1", Map.of(2L, T2));
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void getWatermarks_seedsMembersWithoutWatermarkFromOneLegacyAggregate() {
+        when(redisService.getReadWatermarks("chat-1", List.of(3L, 4L))).thenReturn(Map.of());
+        when(watermarkRepository.findByChatIdAndUserIdIn("chat-1", List.of(3L, 4L))).thenReturn(List.of());
+        // member 3 sent the newest read message, so their own seed comes from member 4's messages
+        when(chatMessageRepository.findNewestLegacyReadTimestampBySender("chat-1")).thenReturn(Map.of(3L, T2, 4L, T1));
+
+        assertThat(watermarkService.getWatermarks("chat-1", List.of(3L, 4L)))
+                .containsEntry(3L, T1)
+                .containsEntry(4L, T2);
+        verify(chatMessageRepository).findNewestLegacyReadTimestampBySender("chat-1");
+        verify(watermarkRepository).advanceAll("chat-1", Map.of(3L, T1, 4L, T2));
+    }
+
+    @Test
+    void getWatermark_memberWhoReadNothingGetsTheEpochAndIsPersisted() {
+        when(redisService.getReadWatermarks("chat-1", List.of(3L))).thenReturn(Map.of());
+        when(watermarkRepository.findByChatIdAndUserIdIn("chat-1", List.of(3L))).thenReturn(List.of());
+        when(chatMessageRepository.findNewestLegacyReadTimestampBySender("chat-1")).thenReturn(Map.of());
+
+        assertThat(watermarkService.getWatermark("chat-1", 3L)).isEqualTo(ChatReadWatermarkService.NOTHING_READ);
+        verify(watermarkRepository).advanceAll("chat-1", Map.of(3L, ChatReadWatermarkService.NOTHING_READ));
+        verify(redisService).raiseReadWatermarks("chat-1", Map.of(3L, ChatReadWatermarkService.NOTHING_READ));
+    }
+
+    @Test
+    void membersJoined_startsNewMembersAtTheNewestMessage() {
+        when(chatMessageRepository.findNewestTimestamp("chat-1")).thenReturn(Optional.of(T3));
+
+        watermarkService.membersJoined("chat-1", List.of(5L, 6L));
+
+        verify(watermarkRepository).advanceAll("chat-1", Map.of(5L, T3, 6L, T3));
+        verify(redisService).raiseReadWatermarks("chat-1", Map.of(5L, T3, 6L, T3));
+    }
+
+    @Test
+    void membersJoined_emptyChatStoresTheEpoch() {
+        when(chatMessageRepository.findNewestTimestamp("chat-1")).thenReturn(Optional.empty());
+
+        watermarkService.membersJoined("chat-1", List.of(5L));
+
+        verify(watermarkRepository).advanceAll("chat-1", Map.of(5L, ChatReadWatermarkService.NOTHING_READ));
+    }
+
+    @Test
+    void advance_mirrorsOnlyWhenTheWatermarkMoved() {
+        when(watermarkRepository.advance("chat-1", 1L, T2)).thenReturn(true);
+        when(watermarkRepository.advance("chat-1", 1L, T1)).thenReturn(false);
+
+        assertThat(watermarkService.advance("chat-1", 1L, T2)).isTrue();
+        assertThat(watermarkService.advance("chat-1", 1L, T1)).isFalse();
+        verify(redisService).raiseReadWatermarks("chat-1", Map.of(1L, T2));
+        verify(redisService, never()).raiseReadWatermarks(eq("chat-1"), eq(Map.of(1L, T1)));
+    }
+
+    @Test
+    void roomReadState_ignoresTheSendersOwnWatermark() {
+        when(redisService.getReadWatermarks(eq("chat-1"), anyCollection())).thenReturn(Map.of(1L, T3, 2L, T1));
+
+        ChatReadWatermarkService.RoomReadState state = watermarkService.getRoomReadState("chat-1", List.of(1L, 2L));
+
+        // member 1 is furthest ahead, so their own messages are only as read as member 2 got
+        assertThat(state.isReadByOtherThan(1L, T2)).isFalse();
+        assertThat(state.isReadByOtherThan(1L, T1)).isTrue();
+        assertThat(state.isReadByOtherThan(2L, T2)).isTrue();
+        assertThat(state.isReadByOtherThan(2L, T3.plusSeconds(1))).isFalse();
+        verify(redisService, never()).raiseReadWatermarks(any(), anyMap());
+    }
+}
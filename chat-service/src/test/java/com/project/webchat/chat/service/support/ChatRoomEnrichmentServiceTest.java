@@ -5,17 +5,32 @@ import com.project.webchat.chat.entity.ChatRoom;
 import com.project.webchat.chat.entity.ChatType;
 import com.project.webchat.chat.entity.RoomVisibility;
 import com.project.webchat.chat.repository.ChatMessageRepository;
+import com.project.webchat.chat.service.RedisService;
 import com.project.webchat.chat.service.WebSocketService;
 import com.project.webchat.chat.service.user.ChatUserInfoService;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +48,12 @@ class ChatRoomEnrichmentServiceTest {
     @Mock
     private WebSocketService webSocketService;
 
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private ChatReadWatermarkService readWatermarkService;
+
     private ChatRoomEnrichmentService enrichmentService;
 
     @BeforeEach
@@ -41,7 +62,10 @@ class ChatRoomEnrichmentServiceTest {
                 chatUserInfoService,
                 roomPermissionService,
                 chatMessageRepository,
-                webSocketService);
+                webSocketService,
+                redisService,
+                readWatermarkService,
+                new SimpleMeterRegistry());
     }
 
     @Test
@@ -63,4 +87,72 @@ class ChatRoomEnrichmentServiceTest {
         assertThat(dto.getGroupName()).isEqualTo("Work notes");
         assertThat(dto.getDescription()).isEqualTo("Project reminders and drafts");
     }
+
+    @Test
+    void getUnreadCount_usesRedisCounterWhenSeeded() {
+        when(redisService.getUnreadCounter("room-1", 7L)).thenReturn(3L);
+
+        assertThat(enrichmentService.getUnreadCount("room-1", 7L)).isEqualTo(3);
+        verifyNoInteractions(chatMessageRepository, readWatermarkService);
+    }
+
+    @Test
+    void getUnreadCount_countsAfterWatermarkAndSeedsCounterOnMiss() {
+        LocalDateTime watermark = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(redisService.getUnreadCounter("room-1", 7L)).thenReturn(null);
+        when(redisService.getUnreadGeneration("room-1")).thenReturn("4");
+        when(readWatermarkService.getWatermark("room-1", 7L)).thenReturn(watermark);
+        when(chatMessageRepository.countUnreadAfter("room-1", 7L, watermark)).thenReturn(5L);
+
+        assertThat(enrichmentService.getUnreadCount("room-1", 7L)).isEqualTo(5);
+        verify(redisService).seedUnreadCounter("room-1", 7L, "4", 5L);
+    }
+
+    @Test
+    void enrichChatForMembers_sharesRoomSnapshotAndPersonalizesOverlay() {
+        ChatRoom room = ChatRoom.builder()
+                .id("group-1")
+                .type(ChatType.GROUP)
+                .memberIds(new LinkedHashSet<>(List.of(1L, 2L)))
+                .groupName("Team")
+                .build();
+        when(chatUserInfoService.getUserInfoBatch(anyCollection(), eq(true))).thenReturn(Map.of(
+                1L, UserInfoDTO.builder().id(1L).build(),
+                2L, UserInfoDTO.builder().id(2L).build()));
+        when(redisService.getUnreadCounters(eq("group-1"), anyCollection())).thenReturn(Map.of(1L, 0L, 2L, 3L));
+        when(roomPermissionService.hasGroupAdminRights(room, 1L)).thenReturn(true);
+        when(roomPermissionService.hasGroupAdminRights(room, 2L)).thenReturn(false);
+
+        Map<Long, ChatRoomDTO> dtos = enrichmentService.enrichChatForMembers(room, List.of(1L, 2L));
+
+        assertThat(dtos.get(1L).isCurrentUserAdmin()).isTrue();
+        assertThat(dtos.get(2L).isCurrentUserAdmin()).isFalse();
+        assertThat(dtos.get(2L).getUnreadCount()).isEqualTo(3);
+        assertThat(dtos.get(1L).getMembers()).isSameAs(dtos.get(2L).getMembers());
+        verify(chatUserInfoService, times(1)).getUserInfoBatch(anyCollection(), eq(true));
+    }
+
+    @Test
+    void getSnapshot_rebuildsWhenMembersChangeEvenIfTheirHashesCollide() {
+        when(chatUserInfoService.getUserInfoBatch(anyCollection(), eq(true))).thenAnswer(invocation -> {
+            Map<Long, UserInfoDTO> users = new HashMap<>();
+            for (Object id : invocation.getArgument(0, Collection.class)) {
+                users.put((Long) id, UserInfoDTO.builder().id((Long) id).build());
+            }
+            return users;
+        });
+        // Set.hashCode sums the element hashes: {1, 4} and {2, 3} collide
+        ChatRoom before = ChatRoom.builder().id("group-1").type(ChatType.GROUP)
+                .memberIds(new HashSet<>(List.of(1L, 4L))).groupName("Team").build();
+        ChatRoom after = ChatRoom.builder().id("group-1").type(ChatType.GROUP)
+                .memberIds(new HashSet<>(List.of(2L, 3L))).groupName("Team").build();
+
+        ChatRoomSnapshot first = enrichmentService.getSnapshot(before);
+        ChatRoomSnapshot sameRoom = enrichmentService.getSnapshot(before);
+        ChatRoomSnapshot changed = enrichmentService.getSnapshot(after);
+
+        assertThat(sameRoom).isSameAs(first);
+        assertThat(changed.base().getMembers()).extracting(UserInfoDTO::getId).containsExactlyInAnyOrder(2L, 3L);
+        verify(chatUserInfoService, times(2)).getUserInfoBatch(anyCollection(), eq(true));
+    }
 }
@@ -0,0 +1,108 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.entity.ChatRoom;
+import com.project.webchat.chat.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatRoomLookupServiceTest {
+
+    @Mock
+    private ChatRoomRepository chatRoomRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChatRoomLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lookupService = new ChatRoomLookupService(chatRoomRepository, meterRegistry, Duration.ofMinutes(1), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void findRoom_reusesRoomWithinRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        ChatRoom room = ChatRoom.builder().id("room-1").build();
+        when(chatRoomRepository.findById("room-1")).thenReturn(Optional.of(room));
+
+        assertThat(lookupService.findRoom("room-1", "send")).containsSame(room);
+        assertThat(lookupService.findRoomForAccessCheck("room-1", "membership")).containsSame(room);
+        assertThat(lookupService.findRoom("room-1", "send")).containsSame(room);
+
+        verify(chatRoomRepository, times(1)).findById("room-1");
+        assertThat(loads("send", "mongo")).isEqualTo(1.0);
+        assertThat(loads("send", "context")).isEqualTo(1.0);
+        assertThat(loads("membership", "context")).isEqualTo(1.0);
+    }
+
+    @Test
+    void findRoom_withoutRequestContext_readsMongoEachTime() {
+        when(chatRoomRepository.findById("room-1")).thenReturn(Optional.of(ChatRoom.builder().id("room-1").build()));
+
+        lookupService.findRoom("room-1", "send");
+        lookupService.findRoom("room-1", "send");
+
+        verify(chatRoomRepository, times(2)).findById("room-1");
+    }
+
+    @Test
+    void accessCheck_usesTtlCacheUntilEvicted() {
+        when(chatRoomRepository.findById("room-1")).thenReturn(Optional.of(ChatRoom.builder().id("room-1").build()));
+
+        lookupService.findRoomForAccessCheck("room-1", "membership");
+        lookupService.findRoomForAccessCheck("room-1", "membership");
+        verify(chatRoomRepository, times(1)).findById("room-1");
+        assertThat(loads("membership", "cache")).isEqualTo(1.0);
+
+        lookupService.evict("room-1");
+        lookupService.findRoomForAccessCheck("room-1", "membership");
+        verify(chatRoomRepository, times(2)).findById("room-1");
+    }
+
+    @Test
+    void accessCheck_expiredEntryIsReloaded() {
+        lookupService = new ChatRoomLookupService(chatRoomRepository, meterRegistry, Duration.ZERO, 100);
+        when(chatRoomRepository.findById("room-1")).thenReturn(Optional.of(ChatRoom.builder().id("room-1").build()));
+
+        lookupService.findRoomForAccessCheck("room-1", "membership");
+        lookupService.findRoomForAccessCheck("room-1", "membership");
+
+        verify(chatRoomRepository, times(2)).findById("room-1");
+    }
+
+    @Test
+    void accessCheck_doesNotCacheMissingRoom() {
+        when(chatRoomRepository.findById("gone")).thenReturn(Optional.empty());
+
+        assertThat(lookupService.findRoomForAccessCheck("gone", "membership")).isEmpty();
+        assertThat(lookupService.findRoomForAccessCheck("gone", "membership")).isEmpty();
+
+        verify(chatRoomRepository, times(2)).findById("gone");
+    }
+
+    private double loads(String operation, String source) {
+        return meterRegistry.counter("chat.rooms.loads", "operation", operation, "source", source).count();
+    }
+}
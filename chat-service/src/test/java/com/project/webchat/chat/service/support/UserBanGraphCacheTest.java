@@ -0,0 +1,90 @@
+package com.project.webchat.chat.service.support;
+
+import com.project.webchat.chat.dto.UserBanEdgesDTO;
+import com.project.webchat.chat.feign.UserServiceClient;
+import com.project.webchat.chat.service.RedisService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserBanGraphCacheTest {
+
+    @Mock
+    private UserServiceClient userServiceClient;
+    @Mock
+    private RedisService redisService;
+
+    private UserBanGraphCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserBanGraphCache(userServiceClient, redisService, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void getEdges_loadsFromUserServiceOnce_andStoresWithGeneration() {
+        when(redisService.getCachedBanEdges(1L)).thenReturn(null);
+        when(redisService.getBanEdgesGeneration(1L)).thenReturn("4");
+        when(userServiceClient.getBannedUserIds(1L)).thenReturn(List.of(2L));
+        when(userServiceClient.getBanningUserIds(1L)).thenReturn(List.of(3L));
+
+        UserBanEdgesDTO first = cache.getEdges(1L);
+        UserBanEdgesDTO second = cache.getEdges(1L);
+
+        assertThat(first.getBannedUserIds()).containsExactly(2L);
+        assertThat(first.getBanningUserIds()).containsExactly(3L);
+        assertThat(second).isSameAs(first);
+        verify(userServiceClient, times(1)).getBannedUserIds(1L);
+        verify(redisService).cacheBanEdges(eq(1L), eq("4"), any(UserBanEdgesDTO.class));
+    }
+
+    @Test
+    void getEdges_prefersRedisOverUserService() {
+        when(redisService.getCachedBanEdges(1L)).thenReturn(new UserBanEdgesDTO(Set.of(2L), Set.of()));
+
+        assertThat(cache.getEdges(1L).getBannedUserIds()).containsExactly(2L);
+        verify(userServiceClient, never()).getBannedUserIds(any());
+    }
+
+    @Test
+    void getEdges_doesNotCacheFailedLoads() {
+        when(redisService.getBanEdgesGeneration(1L)).thenReturn("0");
+        when(userServiceClient.getBannedUserIds(1L))
+                .thenThrow(new RuntimeException("down"))
+                .thenReturn(List.of(2L));
+        when(userServiceClient.getBanningUserIds(1L)).thenReturn(List.of());
+
+        assertThat(cache.getEdges(1L).getBannedUserIds()).isEmpty();
+        assertThat(cache.getEdges(1L).getBannedUserIds()).containsExactly(2L);
+    }
+
+    @Test
+    void evict_dropsLocalEntriesAndRedisListsOfBothUsers() {
+        when(redisService.getCachedBanEdges(1L))
+                .thenReturn(new UserBanEdgesDTO(Set.of(), Set.of()))
+                .thenReturn(new UserBanEdgesDTO(Set.of(2L), Set.of()));
+        assertThat(cache.getEdges(1L).getBannedUserIds()).isEmpty();
+
+        cache.evict(List.of(1L, 2L));
+
+        verify(redisService).evictBanEdges(List.of(1L, 2L));
+        assertThat(cache.getEdges(1L).getBannedUserIds()).containsExactly(2L);
+    }
+}
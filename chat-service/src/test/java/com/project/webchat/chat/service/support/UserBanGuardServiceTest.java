@@ -1,10 +1,10 @@
 package com.project.webchat.chat.service.support;
 
+import com.project.webchat.chat.dto.UserBanEdgesDTO;
 import com.project.webchat.chat.entity.ChatRoom;
 import com.project.webchat.chat.entity.ChatType;
 import com.project.webchat.chat.exception.ForbiddenChatOperationException;
 import com.project.webchat.chat.exception.UserBanException;
-import com.project.webchat.chat.feign.UserServiceClient;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,7 +21,7 @@ import static org.mockito.Mockito.when;
 class UserBanGuardServiceTest {
 
     @Mock
-    private UserServiceClient userServiceClient;
+    private UserBanGraphCache userBanGraphCache;
 
     @InjectMocks
     private UserBanGuardService userBanGuardService;
@@ -56,7 +56,7 @@ class UserBanGuardServiceTest {
     @Test
     void assertPrivateChatAccessible_throwsUserBanExceptionForBanner() {
         ChatRoom room = privateRoom(1L, 2L);
-        when(userServiceClient.hasBanned(1L, 2L)).thenReturn(true);
+        when(userBanGraphCache.getEdges(1L)).thenReturn(edges(Set.of(2L), Set.of()));
 
         assertThatThrownBy(() -> userBanGuardService.assertPrivateChatAccessible(room, 1L, null))
                 .isInstanceOf(UserBanException.class);
@@ -65,8 +65,7 @@ class UserBanGuardServiceTest {
     @Test
     void assertPrivateChatAccessible_throwsGenericForbiddenForBannedUser() {
         ChatRoom room = privateRoom(1L, 2L);
-        when(userServiceClient.hasBanned(1L, 2L)).thenReturn(false);
-        when(userServiceClient.hasBanned(2L, 1L)).thenReturn(true);
+        when(userBanGraphCache.getEdges(1L)).thenReturn(edges(Set.of(), Set.of(2L)));
 
         assertThatThrownBy(() -> userBanGuardService.assertPrivateChatAccessible(room, 1L, null))
                 .isInstanceOf(ForbiddenChatOperationException.class)
@@ -76,14 +75,14 @@ class UserBanGuardServiceTest {
     @Test
     void isPrivateChatBlocked_returnsTrueForEitherDirection() {
         ChatRoom room = privateRoom(1L, 2L);
-        when(userServiceClient.hasBanned(1L, 2L)).thenReturn(true);
+        when(userBanGraphCache.getEdges(1L)).thenReturn(edges(Set.of(2L), Set.of()));
 
         assertThat(userBanGuardService.isPrivateChatBlocked(room, 1L)).isTrue();
     }
 
     @Test
     void assertCanInviteUser_throwsWhenInviteeBannedInviter() {
-        when(userServiceClient.hasBanned(2L, 1L)).thenReturn(true);
+        when(userBanGraphCache.getEdges(1L)).thenReturn(edges(Set.of(), Set.of(2L)));
 
         assertThatThrownBy(() -> userBanGuardService.assertCanInviteUser(1L, 2L))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -92,11 +91,23 @@ class UserBanGuardServiceTest {
 
     @Test
     void assertCanInviteUser_allowsWhenInviterBannedInvitee() {
-        when(userServiceClient.hasBanned(2L, 1L)).thenReturn(false);
+        when(userBanGraphCache.getEdges(1L)).thenReturn(edges(Set.of(2L), Set.of()));
 
         userBanGuardService.assertCanInviteUser(1L, 2L);
     }
 
+    @Test
+    void hasBanned_readsTheBannersOwnList() {
+        when(userBanGraphCache.getEdges(2L)).thenReturn(edges(Set.of(1L), Set.of()));
+
+        assertThat(userBanGuardService.hasBanned(2L, 1L)).isTrue();
+        assertThat(userBanGuardService.hasBanned(2L, 3L)).isFalse();
+    }
+
+    private static UserBanEdgesDTO edges(Set<Long> banned, Set<Long> banning) {
+        return new UserBanEdgesDTO(banned, banning);
+    }
+
     private static ChatRoom privateRoom(Long userId1, Long userId2) {
         return ChatRoom.builder()
                 .type(ChatType.PRIVATE)
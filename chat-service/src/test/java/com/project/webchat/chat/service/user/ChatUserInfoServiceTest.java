@@ -0,0 +1,141 @@
+package com.project.webchat.chat.service.user;
+
+import com.project.webchat.chat.feign.UserServiceClient;
+import com.project.webchat.chat.service.RedisService;
+import com.project.webchat.shared.dto.UserDTO;
+import com.project.webchat.shared.dto.UserInfoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatUserInfoServiceTest {
+
+    @Mock
+    private RedisService redisService;
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private LocalUserInfoCache localUserInfoCache;
+    private ChatUserInfoService chatUserInfoService;
+
+    @BeforeEach
+    void setUp() {
+        localUserInfoCache = new LocalUserInfoCache(redisService, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        chatUserInfoService = new ChatUserInfoService(redisService, userServiceClient, localUserInfoCache);
+    }
+
+    @Test
+    void getUserInfoBatch_fetchesOnlyCacheMissesInOneCall() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(redisService.getOnlineUserIds(Set.copyOf(ids))).thenReturn(Set.of(2L));
+        when(redisService.getCachedUserInfoBatch(Set.copyOf(ids))).thenReturn(Map.of(
+                1L, UserInfoDTO.builder().id(1L).username("cached").build()));
+        when(userServiceClient.getUsersByIds(List.of(2L, 3L))).thenReturn(List.of(
+                UserDTO.builder().id(2L).username("fresh").active(true).build()));
+
+        Map<Long, UserInfoDTO> result = chatUserInfoService.getUserInfoBatch(ids, true);
+
+        assertThat(result.get(1L).getUsername()).isEqualTo("cached");
+        assertThat(result.get(2L).getUsername()).isEqualTo("fresh");
+        assertThat(result.get(2L).isOnline()).isTrue();
+        assertThat(result.get(3L).isDeleted()).isTrue();
+        verify(userServiceClient, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void getUserInfoBatch_splitsLargeLookupsIntoUserServiceSizedChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(userServiceClient.getUsersByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().map(id -> UserDTO.builder().id(id).active(true).build()).toList();
+        });
+
+        Map<Long, UserInfoDTO> result = chatUserInfoService.getUserInfoBatch(ids, false);
+
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(userServiceClient, times(3)).getUsersByIds(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(1000, 1000, 500);
+        assertThat(result).hasSize(2500);
+        assertThat(result.values()).noneMatch(UserInfoDTO::isDeleted);
+    }
+
+    @Test
+    void getUserInfoList_keepsRequestedOrder() {
+        List<Long> ids = List.of(3L, 1L);
+        when(redisService.getOnlineUserIds(Set.copyOf(ids))).thenReturn(Set.of());
+        when(redisService.getCachedUserInfoBatch(Set.copyOf(ids))).thenReturn(Map.of(
+                1L, UserInfoDTO.builder().id(1L).build(),
+                3L, UserInfoDTO.builder().id(3L).build()));
+
+        assertThat(chatUserInfoService.getUserInfoList(ids))
+                .extracting(UserInfoDTO::getId)
+                .containsExactly(3L, 1L);
+    }
+
+    @Test
+    void getUserInfo_servesRepeatedLookupsFromLocalCache() {
+        when(redisService.getCachedUserInfo(1L)).thenReturn(UserInfoDTO.builder().id(1L).username("alice").build());
+        when(redisService.getOnlineUserIds(Set.of(1L))).thenReturn(Set.of(1L));
+
+        UserInfoDTO first = chatUserInfoService.getUserInfo(1L);
+        first.setUsername("mutated by caller");
+        UserInfoDTO second = chatUserInfoService.getUserInfo(1L);
+
+        assertThat(second.getUsername()).isEqualTo("alice");
+        assertThat(second.isOnline()).isTrue();
+        verify(redisService, times(1)).getCachedUserInfo(1L);
+        verify(redisService, times(1)).getOnlineUserIds(Set.of(1L));
+        verify(redisService, never()).isUserOnline(anyLong());
+    }
+
+    @Test
+    void invalidationMessage_dropsLocalEntry() {
+        when(redisService.getCachedUserInfo(1L)).thenReturn(UserInfoDTO.builder().id(1L).username("alice").build());
+        when(redisService.getOnlineUserIds(Set.of(1L))).thenReturn(Set.of());
+        chatUserInfoService.getUserInfo(1L);
+
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn("1".getBytes(StandardCharsets.UTF_8));
+        localUserInfoCache.onMessage(message, null);
+        chatUserInfoService.getUserInfo(1L);
+
+        verify(redisService, times(2)).getCachedUserInfo(1L);
+    }
+
+    @Test
+    void getUserInfoBatch_readsRedisOnlyForLocalMisses() {
+        localUserInfoCache.put(UserInfoDTO.builder().id(1L).username("local").build());
+        when(redisService.getOnlineUserIds(Set.of(1L, 2L))).thenReturn(Set.of());
+        when(redisService.getCachedUserInfoBatch(Set.of(2L))).thenReturn(Map.of(
+                2L, UserInfoDTO.builder().id(2L).username("redis").build()));
+
+        Map<Long, UserInfoDTO> result = chatUserInfoService.getUserInfoBatch(List.of(1L, 2L), true);
+
+        assertThat(result.get(1L).getUsername()).isEqualTo("local");
+        assertThat(result.get(2L).getUsername()).isEqualTo("redis");
+        assertThat(localUserInfoCache.get(2L)).isNotNull();
+    }
+}
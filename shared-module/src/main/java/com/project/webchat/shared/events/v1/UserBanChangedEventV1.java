@@ -0,0 +1,38 @@
+package com.project.webchat.shared.events.v1;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBanChangedEventV1 {
+
+    public static final String SCHEMA_VERSION_V1 = "v1";
+
+    @NotNull
+    private UUID eventId;
+
+    @NotNull
+    private Instant occurredAt;
+
+    @NotNull
+    private String schemaVersion;
+
+    /** User who created or removed the ban. */
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private Long targetUserId;
+
+    /** true after a ban, false after an unban. */
+    private boolean banned;
+}
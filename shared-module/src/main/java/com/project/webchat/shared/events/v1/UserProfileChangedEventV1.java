@@ -0,0 +1,32 @@
+package com.project.webchat.shared.events.v1;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** A user's public profile (name, avatar) changed; consumers drop what they cached about the user. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfileChangedEventV1 {
+
+    public static final String SCHEMA_VERSION_V1 = "v1";
+
+    @NotNull
+    private UUID eventId;
+
+    @NotNull
+    private Instant occurredAt;
+
+    @NotNull
+    private String schemaVersion;
+
+    @NotNull
+    private Long userId;
+}
@@ -0,0 +1,134 @@
+package com.project.webchat.shared.image;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * EXIF Orientation (tag 0x0112) support for ImageIO, which decodes JPEGs as stored and ignores the tag.
+ * Phone cameras store pixels sideways and rely on it, so renditions must apply it to match what
+ * browsers show for the original.
+ */
+public final class ExifOrientation {
+
+    /** Pixels are stored the way they are shown. */
+    public static final int NORMAL = 1;
+
+    private static final int SOI_MARKER = 0xD8;
+    private static final int SOS_MARKER = 0xDA;
+    private static final int EOI_MARKER = 0xD9;
+    private static final int APP1_MARKER = 0xE1;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * Orientation stored in a JPEG's EXIF block, found by walking the header segments up to the image data;
+     * {@link #NORMAL} for other formats, images without one, or unreadable headers. Reads only the header.
+     */
+    public static int read(InputStream stream) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != SOI_MARKER) {
+                return NORMAL;
+            }
+            while (true) {
+                if (in.readUnsignedByte() != 0xFF) {
+                    return NORMAL;
+                }
+                int marker = in.readUnsignedByte();
+                while (marker == 0xFF) {
+                    marker = in.readUnsignedByte();
+                }
+                if (marker == SOS_MARKER || marker == EOI_MARKER) {
+                    return NORMAL;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker == APP1_MARKER) {
+                    byte[] payload = in.readNBytes(length);
+                    int orientation = parse(payload);
+                    if (orientation != NORMAL) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return NORMAL;
+        }
+    }
+
+    /** Orientation from an APP1 payload ({@code "Exif\0\0"} followed by a TIFF structure). */
+    static int parse(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return NORMAL;
+        }
+        int tiff = 6;
+        boolean littleEndian = app1[tiff] == 'I' && app1[tiff + 1] == 'I';
+        long ifd = tiff + readInt(app1, tiff + 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > app1.length) {
+            return NORMAL;
+        }
+        int entries = readShort(app1, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                break;
+            }
+            if (readShort(app1, entry, littleEndian) == ORIENTATION_TAG) {
+                int value = readShort(app1, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : NORMAL;
+            }
+        }
+        return NORMAL;
+    }
+
+    /** The image as it should be shown; orientations 5-8 swap width and height. */
+    public static BufferedImage apply(BufferedImage image, int orientation) {
+        if (orientation <= NORMAL || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // maps stored pixel (x, y) to its shown position
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);  // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);  // mirrored upside down
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);   // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);  // turned 90° clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // transversed
+            default -> new AffineTransform(0, -1, 1, 0, 0, w); // turned 90° counter-clockwise
+        };
+        boolean swap = orientation >= 5;
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? b0 | b1 << 8 : b0 << 8 | b1;
+    }
+
+    private static long readInt(byte[] data, int offset, boolean littleEndian) {
+        long high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        long low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return high << 16 | low;
+    }
+}
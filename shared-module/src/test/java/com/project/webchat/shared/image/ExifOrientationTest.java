@@ -0,0 +1,103 @@
+package com.project.webchat.shared.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExifOrientationTest {
+
+    @Test
+    void read_findsTheOrientationInAJpegExifBlock() throws Exception {
+        byte[] jpeg = withOrientation(jpeg(40, 20), 6);
+
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(jpeg))).isEqualTo(6);
+        // the camera layout (APP1 instead of JFIF) still decodes
+        assertThat(ImageIO.read(new ByteArrayInputStream(jpeg)).getWidth()).isEqualTo(40);
+    }
+
+    @Test
+    void read_imagesWithoutExifAreNormal() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(jpeg(4, 4)))).isEqualTo(ExifOrientation.NORMAL);
+        assertThat(ExifOrientation.read(new ByteArrayInputStream(png.toByteArray()))).isEqualTo(ExifOrientation.NORMAL);
+    }
+
+    @Test
+    void parse_handlesBothByteOrders() {
+        assertThat(ExifOrientation.parse(app1(8, true))).isEqualTo(8);
+        assertThat(ExifOrientation.parse(app1(3, false))).isEqualTo(3);
+        assertThat(ExifOrientation.parse(new byte[]{'J', 'F', 'I', 'F'})).isEqualTo(ExifOrientation.NORMAL);
+    }
+
+    @Test
+    void apply_turnsClockwiseForOrientation6() {
+        // red on the left, blue on the right; turned clockwise red ends up on top
+        BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        image.setRGB(1, 0, 0x0000FF);
+
+        BufferedImage shown = ExifOrientation.apply(image, 6);
+
+        assertThat(shown.getWidth()).isEqualTo(1);
+        assertThat(shown.getHeight()).isEqualTo(2);
+        assertThat(shown.getRGB(0, 0) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(shown.getRGB(0, 1) & 0xFFFFFF).isEqualTo(0x0000FF);
+    }
+
+    @Test
+    void apply_everyOrientationKeepsAllPixels() {
+        BufferedImage image = new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            BufferedImage shown = ExifOrientation.apply(image, orientation);
+            int red = 0;
+            for (int x = 0; x < shown.getWidth(); x++) {
+                for (int y = 0; y < shown.getHeight(); y++) {
+                    if ((shown.getRGB(x, y) & 0xFFFFFF) == 0xFF0000) {
+                        red++;
+                    }
+                }
+            }
+            assertThat(shown.getWidth() * shown.getHeight()).isEqualTo(6);
+            assertThat(red).as("orientation %d", orientation).isEqualTo(1);
+        }
+    }
+
+    private static byte[] jpeg(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+
+    // swaps the JFIF APP0 segment for an EXIF APP1 one, the way cameras write it
+    static byte[] withOrientation(byte[] jpeg, int orientation) {
+        byte[] payload = app1(orientation, false);
+        int app0End = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(0xFF);
+        out.write(0xE1);
+        out.write((payload.length + 2) >> 8);
+        out.write((payload.length + 2) & 0xFF);
+        out.write(payload, 0, payload.length);
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    private static byte[] app1(int orientation, boolean littleEndian) {
+        byte[] tiff = littleEndian
+                ? new byte[]{'I', 'I', 42, 0, 8, 0, 0, 0, 1, 0, 0x12, 0x01, 3, 0, 1, 0, 0, 0, (byte) orientation, 0, 0, 0, 0, 0, 0, 0}
+                : new byte[]{'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+        byte[] app1 = new byte[6 + tiff.length];
+        System.arraycopy(new byte[]{'E', 'x', 'i', 'f', 0, 0}, 0, app1, 0, 6);
+        System.arraycopy(tiff, 0, app1, 6, tiff.length);
+        return app1;
+    }
+}
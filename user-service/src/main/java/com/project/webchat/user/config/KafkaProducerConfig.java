@@ -0,0 +1,62 @@
+package com.project.webchat.user.config;
+
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaProducerConfig {
+
+    @Bean
+    public ProducerFactory<String, UserBanChangedEventV1> userBanChangedProducerFactory(
+            KafkaProperties kafkaProperties,
+            SslBundles sslBundles
+    ) {
+        return new DefaultKafkaProducerFactory<>(producerProperties(kafkaProperties, sslBundles));
+    }
+
+    @Bean
+    public KafkaTemplate<String, UserBanChangedEventV1> userBanChangedKafkaTemplate(
+            ProducerFactory<String, UserBanChangedEventV1> userBanChangedProducerFactory
+    ) {
+        return new KafkaTemplate<>(userBanChangedProducerFactory);
+    }
+
+    @Bean
+    public ProducerFactory<String, UserProfileChangedEventV1> userProfileChangedProducerFactory(
+            KafkaProperties kafkaProperties,
+            SslBundles sslBundles
+    ) {
+        return new DefaultKafkaProducerFactory<>(producerProperties(kafkaProperties, sslBundles));
+    }
+
+    @Bean
+    public KafkaTemplate<String, UserProfileChangedEventV1> userProfileChangedKafkaTemplate(
+            ProducerFactory<String, UserProfileChangedEventV1> userProfileChangedProducerFactory
+    ) {
+        return new KafkaTemplate<>(userProfileChangedProducerFactory);
+    }
+
+    private static Map<String, Object> producerProperties(KafkaProperties kafkaProperties, SslBundles sslBundles) {
+        Map<String, Object> producerProperties = new HashMap<>(kafkaProperties
+                .buildProducerProperties(sslBundles));
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        producerProperties.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProperties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProperties.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        return producerProperties;
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.webchat.user.config;
+
+import com.project.webchat.user.service.ProfileImageService;
+import com.project.webchat.user.service.ProfileImageStorage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves profile images that still sit in the legacy {@code profile_images.data} BYTEA column into
+ * {@link ProfileImageStorage} and records their version on the row and the user. Runs on every start
+ * and does nothing once the column is empty or gone. The column is made nullable while the context
+ * starts, before the web server accepts uploads; only the copy runs once the application is up.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileImageStorageMigration implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProfileImageStorage storage;
+    private final ProfileImageService profileImageService;
+
+    // new rows carry no bytes, so the column must accept nulls before anyone uploads
+    @PostConstruct
+    void relaxLegacyColumn() {
+        if (legacyColumnPresent()) {
+            jdbcTemplate.execute("ALTER TABLE profile_images ALTER COLUMN data DROP NOT NULL");
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!legacyColumnPresent()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM profile_images WHERE data IS NOT NULL", Long.class);
+        int migrated = 0;
+        for (Long id : ids) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> migrate(id));
+                migrated++;
+            } catch (RuntimeException e) {
+                log.error("Failed to move profile image {} out of the database: {}", id, e.getMessage());
+            }
+        }
+        if (!ids.isEmpty()) {
+            log.info("Moved {} of {} profile images out of the database", migrated, ids.size());
+        }
+    }
+
+    // one row at a time, so only one image is held in memory
+    private void migrate(Long id) {
+        jdbcTemplate.query("SELECT user_id, kind, data FROM profile_images WHERE id = ?", rs -> {
+            long userId = rs.getLong("user_id");
+            String kind = rs.getString("kind");
+            byte[] data = rs.getBytes("data");
+            String version;
+            try {
+                version = storage.write(userId, kind, data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            jdbcTemplate.update("UPDATE profile_images SET version = ?, size_bytes = ?, data = NULL WHERE id = ?",
+                    version, (long) data.length, id);
+            String column = ProfileImageService.KIND_AVATAR.equals(kind) ? "avatar_version" : "background_version";
+            jdbcTemplate.update("UPDATE users SET " + column + " = ? WHERE id = ?", version, userId);
+            if (ProfileImageService.KIND_AVATAR.equals(kind)) {
+                profileImageService.storeVariants(userId, kind, version, data);
+            }
+        }, id);
+    }
+
+    private boolean legacyColumnPresent() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns "
+                        + "WHERE LOWER(table_name) = 'profile_images' AND LOWER(column_name) = 'data'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -10,17 +10,18 @@ import com.project.webchat.user.dto.UpdateAccountDTO;
 import com.project.webchat.user.dto.UpdateAccountResultDTO;
 import com.project.webchat.user.dto.UpdateUserDTO;
 import com.project.webchat.shared.dto.UserDTO;
-import com.project.webchat.user.entity.ProfileImage;
 import com.project.webchat.user.service.ProfileImageService;
 import com.project.webchat.user.service.UserService;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.Validator;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashSet;
@@ -28,6 +29,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/users")
@@ -193,24 +195,50 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserDTOById(userId));
     }
 
+    // size: edge in pixels of a square rendition (64, 256); omitted for the original
     @GetMapping("/{id}/avatar")
-    public ResponseEntity<byte[]> getAvatar(@PathVariable("id") Long userId) {
-        return toImageResponse(profileImageService.load(userId, ProfileImageService.KIND_AVATAR));
+    public ResponseEntity<Resource> getAvatar(
+            @PathVariable("id") Long userId,
+            @RequestParam(name = "v", required = false) String version,
+            @RequestParam(name = "size", defaultValue = "0") int size,
+            WebRequest request) {
+        return toImageResponse(profileImageService.load(userId, ProfileImageService.KIND_AVATAR, version, size),
+                version, request);
     }
 
     @GetMapping("/{id}/background")
-    public ResponseEntity<byte[]> getBackground(@PathVariable("id") Long userId) {
-        return toImageResponse(profileImageService.load(userId, ProfileImageService.KIND_BACKGROUND));
-    }
-
-    private ResponseEntity<byte[]> toImageResponse(ProfileImage image) {
+    public ResponseEntity<Resource> getBackground(
+            @PathVariable("id") Long userId,
+            @RequestParam(name = "v", required = false) String version,
+            WebRequest request) {
+        return toImageResponse(profileImageService.load(userId, ProfileImageService.KIND_BACKGROUND, version,
+                        ProfileImageService.ORIGINAL_SIZE),
+                version, request);
+    }
+
+    // the versioned URL of the current image never changes content; anything else is revalidated by ETag
+    private ResponseEntity<Resource> toImageResponse(
+            ProfileImageService.StoredImage image, String requestedVersion, WebRequest request) {
         if (image == null) {
             return ResponseEntity.notFound().build();
         }
+        CacheControl cacheControl = image.version().equals(requestedVersion)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        String etag = "\"" + image.version()
+                + (image.edge() != ProfileImageService.ORIGINAL_SIZE ? "-" + image.edge() : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(image.getContentType()))
-                .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
-                .body(image.getData());
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .contentLength(image.size())
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(image.body());
     }
 
     private Set<String> extractProvidedFields(JsonNode payload) {
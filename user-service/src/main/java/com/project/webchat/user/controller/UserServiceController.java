@@ -33,6 +33,8 @@ import org.springframework.web.bind.annotation.*;
 public class UserServiceController {
     //endpoints for feign calls
 
+    private static final int MAX_INTERNAL_BATCH_SIZE = 1000;
+
     private final UserService userService;
     private final ContactService contactService;
     private final UserBanService userBanService;
@@ -265,6 +267,15 @@ public class UserServiceController {
         return ResponseEntity.ok(userBanService.getBanStatus(currentUserId, targetUserId));
     }
 
+    @PostMapping("/internal/batch")
+    public ResponseEntity<java.util.List<UserDTO>> getUsersByIdsInternal(
+            @RequestBody java.util.List<Long> userIds) {
+        if (userIds != null && userIds.size() > MAX_INTERNAL_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.getUserDTOsByIds(userIds));
+    }
+
     @GetMapping("/internal/{userId}/banned-user-ids")
     public ResponseEntity<java.util.List<Long>> getBannedUserIdsInternal(@PathVariable Long userId) {
         return ResponseEntity.ok(userBanService.listBannedUserIds(userId));
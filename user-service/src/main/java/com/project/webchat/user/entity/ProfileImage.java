@@ -34,8 +34,12 @@ public class ProfileImage {
     @Column(name = "content_type", nullable = false, length = 100)
     private String contentType;
 
-    @Column(name = "data", nullable = false, columnDefinition = "BYTEA")
-    private byte[] data;
+    // content hash; the bytes live in ProfileImageStorage under it. Null only for rows not migrated yet
+    @Column(name = "version", length = 64)
+    private String version;
+
+    @Column(name = "size_bytes")
+    private Long size;
 
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
@@ -41,6 +41,13 @@ public class User {
     @Column(name = "profile_picture")
     private String profilePicture;
 
+    // content hash of the current avatar / background (also their URL version); null when there is none
+    @Column(name = "avatar_version", length = 64)
+    private String avatarVersion;
+
+    @Column(name = "background_version", length = 64)
+    private String backgroundVersion;
+
     @Column(name = "description", length = 500)
     private String description;
 
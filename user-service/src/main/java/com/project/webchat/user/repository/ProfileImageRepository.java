@@ -7,8 +7,6 @@ import java.util.Optional;
 
 public interface ProfileImageRepository extends JpaRepository<ProfileImage, Long> {
     Optional<ProfileImage> findByUserIdAndKind(Long userId, String kind);
-    boolean existsByUserIdAndKind(Long userId, String kind);
-    void deleteByUserIdAndKind(Long userId, String kind);
 
     void deleteByUserId(Long userId);
 }
@@ -15,7 +15,7 @@ public interface UserBanRepository extends JpaRepository<UserBan, Long> {
 
     List<UserBan> findByBannedUserIdOrderByCreatedAtDesc(Long bannedUserId);
 
-    void deleteByUserIdAndBannedUserId(Long userId, Long bannedUserId);
+    long deleteByUserIdAndBannedUserId(Long userId, Long bannedUserId);
 
     void deleteByUserId(Long userId);
 
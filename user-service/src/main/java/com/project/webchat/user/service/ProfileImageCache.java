@@ -0,0 +1,88 @@
+package com.project.webchat.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * In-memory LRU of hot profile images, bounded by total bytes. Entries are keyed by version and never
+ * go stale; replaced versions are evicted only to free memory.
+ */
+@Component
+public class ProfileImageCache {
+
+    /** {@code edge} is the rendition held, 0 for the original (also when a size fell back to it). */
+    public record Entry(String contentType, int edge, byte[] data) {
+    }
+
+    // size 0 is the original
+    private record Key(Long userId, String kind, String version, int size) {
+    }
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public ProfileImageCache(
+            @Value("${app.profile-images.cache.max-bytes:33554432}") long maxBytes,
+            @Value("${app.profile-images.cache.max-entry-bytes:524288}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    // large backgrounds are streamed from disk rather than pushing many avatars out
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    public synchronized Entry get(Long userId, String kind, String version, int size) {
+        return entries.get(new Key(userId, kind, version, size));
+    }
+
+    public synchronized void put(Long userId, String kind, String version, int size, Entry entry) {
+        if (!accepts(entry.data().length)) {
+            return;
+        }
+        Entry previous = entries.put(new Key(userId, kind, version, size), entry);
+        if (previous != null) {
+            totalBytes -= previous.data().length;
+        }
+        totalBytes += entry.data().length;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().data().length;
+            eldest.remove();
+        }
+    }
+
+    /** Drops a version in every size. */
+    public synchronized void evict(Long userId, String kind, String version) {
+        evictIf(key -> Objects.equals(key.userId(), userId) && key.kind().equals(kind)
+                && key.version().equals(version));
+    }
+
+    public synchronized void evictUser(Long userId) {
+        evictIf(key -> Objects.equals(key.userId(), userId));
+    }
+
+    private void evictIf(Predicate<Key> condition) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (condition.test(entry.getKey())) {
+                totalBytes -= entry.getValue().data().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+}
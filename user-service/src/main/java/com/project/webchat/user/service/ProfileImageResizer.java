@@ -0,0 +1,145 @@
+package com.project.webchat.user.service;
+
+import com.project.webchat.shared.image.ExifOrientation;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Renders the square avatar sizes clients ask for with {@code ?size=}. Opaque images are encoded as
+ * JPEG, images with transparency as PNG. Formats ImageIO cannot decode (WebP) get no renditions and are
+ * served at their original size.
+ */
+@Component
+public class ProfileImageResizer {
+
+    /** Edge lengths in pixels, smallest first. */
+    public static final List<Integer> SIZES = List.of(64, 256);
+
+    // the decoded bitmap of anything larger would not fit a sane heap
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    public record Rendition(int size, String extension, byte[] data) {
+    }
+
+    public static boolean isSupportedSize(int size) {
+        return SIZES.contains(size);
+    }
+
+    /** Renditions for every size smaller than the image; empty when the format cannot be decoded. */
+    public List<Rendition> render(byte[] original) throws IOException {
+        BufferedImage source = decode(original);
+        if (source == null) {
+            return List.of();
+        }
+        // center square, as avatars are shown in round or square frames
+        int edge = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage square = source.getSubimage(
+                (source.getWidth() - edge) / 2, (source.getHeight() - edge) / 2, edge, edge);
+        boolean alpha = source.getColorModel().hasAlpha();
+
+        List<Rendition> renditions = new ArrayList<>();
+        BufferedImage current = square;
+        for (int size : SIZES.reversed()) {
+            if (size >= edge) {
+                continue;
+            }
+            // each size is scaled from the previous, larger one
+            current = scale(current, size, alpha);
+            renditions.add(alpha
+                    ? new Rendition(size, "png", encodePng(current))
+                    : new Rendition(size, "jpg", encodeJpeg(current)));
+        }
+        return renditions.reversed();
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        try (ImageInputStream in = new MemoryCacheImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    return null;
+                }
+                // decode only about twice the pixels the largest size needs
+                int step = Math.max(1, Math.min(width, height) / (SIZES.getLast() * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                // ImageIO ignores EXIF orientation; browsers show the original turned upright
+                return ExifOrientation.apply(reader.read(0, param),
+                        ExifOrientation.read(new ByteArrayInputStream(data)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static BufferedImage scale(BufferedImage source, int edge, boolean alpha) {
+        // halve step by step: a single bilinear pass over a large ratio skips most source pixels
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= edge) {
+            current = draw(current, current.getWidth() / 2, alpha);
+        }
+        return draw(current, edge, alpha);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int edge, boolean alpha) {
+        BufferedImage target = new BufferedImage(edge, edge,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, edge, edge, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -1,16 +1,36 @@
 package com.project.webchat.user.service;
 
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import com.project.webchat.shared.exceptions.ResourceNotFoundException;
 import com.project.webchat.user.entity.ProfileImage;
+import com.project.webchat.user.entity.User;
 import com.project.webchat.user.repository.ProfileImageRepository;
+import com.project.webchat.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 @Transactional
 public class ProfileImageService {
 
@@ -18,7 +38,28 @@ public class ProfileImageService {
     public static final String KIND_BACKGROUND = "BACKGROUND";
 
     private final ProfileImageRepository profileImageRepository;
+    private final UserRepository userRepository;
+    private final ProfileImageStorage storage;
+    private final ProfileImageCache cache;
+    private final ProfileImageResizer resizer;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /** Original size in {@link #load}. */
+    public static final int ORIGINAL_SIZE = 0;
+
+    /**
+     * Image bytes with the version they belong to; the body is in memory for cached images, streamed
+     * otherwise. {@code edge} is the rendition served, or {@link #ORIGINAL_SIZE}.
+     */
+    public record StoredImage(String contentType, String version, int edge, long size, Resource body) {
+    }
+
+    /**
+     * Writes the file and its renditions first, outside any transaction: decoding an image must not hold a
+     * pooled connection. Only recording the new version runs in a transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void upload(Long userId, String kind, MultipartFile file) {
         validateKind(kind);
         ProfileImageUploadValidator.validate(file);
@@ -30,27 +71,191 @@ public class ProfileImageService {
             throw new IllegalArgumentException("Unable to read uploaded file", e);
         }
 
+        String version;
+        try {
+            version = storage.write(userId, kind, data);
+        } catch (IOException e) {
+            log.error("Failed to store {} image of user {}: {}", kind, userId, e.getMessage());
+            throw new UncheckedIOException("Failed to store image", e);
+        }
+        if (KIND_AVATAR.equals(kind)) {
+            storeVariants(userId, kind, version, data);
+        }
+
+        transactionTemplate.executeWithoutResult(
+                status -> recordVersion(userId, kind, file.getContentType(), version, data.length));
+    }
+
+    private void recordVersion(Long userId, String kind, String contentType, String version, long size) {
         ProfileImage existing = profileImageRepository.findByUserIdAndKind(userId, kind).orElse(null);
+        String previous = existing != null ? existing.getVersion() : null;
+        if (!version.equals(previous)) {
+            // the replaced file goes once the new version is visible; a rolled back upload leaves no file
+            afterCompletion(committed -> {
+                if (!committed) {
+                    storage.delete(userId, kind, version);
+                } else if (previous != null) {
+                    storage.delete(userId, kind, previous);
+                    cache.evict(userId, kind, previous);
+                }
+            });
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id " + userId));
         if (existing == null) {
             existing = ProfileImage.builder()
                     .userId(userId)
                     .kind(kind)
                     .build();
         }
-        existing.setContentType(file.getContentType());
-        existing.setData(data);
+        existing.setContentType(contentType);
+        existing.setVersion(version);
+        existing.setSize(size);
         profileImageRepository.save(existing);
+        setVersion(user, kind, version);
+        publishAvatarChanged(userId, kind);
     }
 
     public void delete(Long userId, String kind) {
         validateKind(kind);
-        profileImageRepository.deleteByUserIdAndKind(userId, kind);
+        ProfileImage image = profileImageRepository.findByUserIdAndKind(userId, kind).orElse(null);
+        if (image == null) {
+            return;
+        }
+        profileImageRepository.delete(image);
+        userRepository.findById(userId).ifPresent(user -> setVersion(user, kind, null));
+        publishAvatarChanged(userId, kind);
+
+        String version = image.getVersion();
+        if (version != null) {
+            afterCompletion(committed -> {
+                if (committed) {
+                    storage.delete(userId, kind, version);
+                    cache.evict(userId, kind, version);
+                }
+            });
+        }
+    }
+
+    /** Removes every image of a deleted account; the caller clears the versions on the user. */
+    public void deleteAll(Long userId) {
+        profileImageRepository.deleteByUserId(userId);
+        afterCompletion(committed -> {
+            if (committed) {
+                storage.deleteAll(userId);
+                cache.evictUser(userId);
+            }
+        });
     }
 
-    @Transactional(readOnly = true)
-    public ProfileImage load(Long userId, String kind) {
+    /**
+     * Renders and stores the fixed avatar sizes. A failure only costs the renditions: clients then get
+     * the original for every size.
+     */
+    public void storeVariants(Long userId, String kind, String version, byte[] data) {
+        try {
+            for (ProfileImageResizer.Rendition rendition : resizer.render(data)) {
+                storage.writeVariant(userId, kind, version, rendition.size(), rendition.extension(), rendition.data());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to resize {} image {} of user {}: {}", kind, version, userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the current image, resized to {@code size} when such a rendition exists. When the client asks
+     * for the version it already knows, a cached image is returned without touching the database.
+     *
+     * @param size one of {@link ProfileImageResizer#SIZES}, or {@link #ORIGINAL_SIZE}
+     * @return null when the user has no such image
+     */
+    // no transaction: a cache hit must not take a pooled connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public StoredImage load(Long userId, String kind, String requestedVersion, int size) {
         validateKind(kind);
-        return profileImageRepository.findByUserIdAndKind(userId, kind).orElse(null);
+        if (size != ORIGINAL_SIZE && !ProfileImageResizer.isSupportedSize(size)) {
+            throw new IllegalArgumentException("Unsupported image size: " + size);
+        }
+        if (requestedVersion != null) {
+            ProfileImageCache.Entry cached = cache.get(userId, kind, requestedVersion, size);
+            if (cached != null) {
+                return inMemory(requestedVersion, cached);
+            }
+        }
+
+        ProfileImage image = profileImageRepository.findByUserIdAndKind(userId, kind).orElse(null);
+        if (image == null || image.getVersion() == null) {
+            return null;
+        }
+        String version = image.getVersion();
+        ProfileImageCache.Entry cached = cache.get(userId, kind, version, size);
+        if (cached != null) {
+            return inMemory(version, cached);
+        }
+
+        // sizes without a rendition (small or undecodable originals) are answered with the original
+        Path variant = size == ORIGINAL_SIZE ? null : storage.variantPathOf(userId, kind, version, size);
+        Path file = variant != null ? variant : storage.pathOf(userId, kind, version);
+        int edge = variant != null ? size : ORIGINAL_SIZE;
+        String contentType = variant != null ? contentTypeOf(variant) : image.getContentType();
+        try {
+            if (!Files.isReadable(file)) {
+                log.warn("{} image {} of user {} is missing on disk", kind, version, userId);
+                return null;
+            }
+            long length = Files.size(file);
+            if (!cache.accepts(length)) {
+                return new StoredImage(contentType, version, edge, length, new FileSystemResource(file));
+            }
+            ProfileImageCache.Entry entry = new ProfileImageCache.Entry(contentType, edge, Files.readAllBytes(file));
+            cache.put(userId, kind, version, size, entry);
+            return inMemory(version, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read image", e);
+        }
+    }
+
+    private static StoredImage inMemory(String version, ProfileImageCache.Entry entry) {
+        return new StoredImage(entry.contentType(), version, entry.edge(), entry.data().length,
+                new ByteArrayResource(entry.data()));
+    }
+
+    private static String contentTypeOf(Path variant) {
+        return variant.getFileName().toString().endsWith(".png") ? "image/png" : "image/jpeg";
+    }
+
+    private static void setVersion(User user, String kind, String version) {
+        if (KIND_AVATAR.equals(kind)) {
+            user.setAvatarVersion(version);
+        } else {
+            user.setBackgroundVersion(version);
+        }
+    }
+
+    // avatar URLs are versioned and cached for a year, so chat-service must drop the profiles it holds
+    private void publishAvatarChanged(Long userId, String kind) {
+        if (KIND_AVATAR.equals(kind)) {
+            eventPublisher.publishEvent(UserProfileChangedEventV1.builder()
+                    .eventId(UUID.randomUUID())
+                    .occurredAt(Instant.now())
+                    .schemaVersion(UserProfileChangedEventV1.SCHEMA_VERSION_V1)
+                    .userId(userId)
+                    .build());
+        }
+    }
+
+    private static void afterCompletion(Consumer<Boolean> task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    task.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            task.accept(true);
+        }
     }
 
     private void validateKind(String kind) {
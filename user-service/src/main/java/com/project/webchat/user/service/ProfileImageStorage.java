@@ -0,0 +1,147 @@
+package com.project.webchat.user.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Profile image files under {@code <dir>/<userId>/<kind>-<sha256>}, with resized renditions next to
+ * them as {@code <kind>-<sha256>-<size>.<ext>}. A file never changes once written, so its hash doubles
+ * as the version in avatar URLs.
+ */
+@Component
+@Slf4j
+public class ProfileImageStorage {
+
+    private static final List<String> VARIANT_EXTENSIONS = List.of("jpg", "png");
+
+    @Value("${app.profile-images.dir}")
+    private String dir;
+
+    private Path root;
+    private Path tempPath;
+
+    @PostConstruct
+    public void init() {
+        try {
+            this.root = Paths.get(dir).toAbsolutePath().normalize();
+            this.tempPath = root.resolve("tmp");
+            Files.createDirectories(tempPath);
+        } catch (IOException e) {
+            log.error("Failed to initialize profile image directory: {}", e.getMessage());
+            throw new RuntimeException("Failed to initialize profile image storage", e);
+        }
+    }
+
+    /**
+     * Stores the image unless the same content is already there.
+     *
+     * @return the content hash, i.e. the version of the image
+     */
+    public String write(Long userId, String kind, byte[] data) throws IOException {
+        String version = sha256(data);
+        writeAtomically(pathOf(userId, kind, version), data);
+        return version;
+    }
+
+    /** Stores a resized rendition next to the original it was made from. */
+    public void writeVariant(Long userId, String kind, String version, int size, String extension, byte[] data)
+            throws IOException {
+        writeAtomically(pathOf(userId, kind, version).resolveSibling(
+                variantPrefix(kind, version, size) + "." + extension), data);
+    }
+
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        // written aside and renamed, so a reader never sees half a file
+        Path tempFile = Files.createTempFile(tempPath, "image-", ".part");
+        try {
+            Files.write(tempFile, data);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    public Path pathOf(Long userId, String kind, String version) {
+        return root.resolve(String.valueOf(userId)).resolve(kind.toLowerCase(Locale.ROOT) + "-" + version);
+    }
+
+    /** @return the rendition of that size, or null when none was made (small or undecodable original) */
+    public Path variantPathOf(Long userId, String kind, String version, int size) {
+        Path original = pathOf(userId, kind, version);
+        for (String extension : VARIANT_EXTENSIONS) {
+            Path variant = original.resolveSibling(variantPrefix(kind, version, size) + "." + extension);
+            if (Files.exists(variant)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /** Deletes the original and every rendition of it. */
+    public void delete(Long userId, String kind, String version) {
+        Path original = pathOf(userId, kind, version);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(original.getParent(),
+                original.getFileName() + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (NoSuchFileException ignored) {
+            // nothing stored for this user
+        } catch (IOException e) {
+            log.warn("Failed to delete {} image {} of user {}: {}", kind, version, userId, e.getMessage());
+        }
+    }
+
+    public void deleteAll(Long userId) {
+        Path userDir = root.resolve(String.valueOf(userId));
+        if (!Files.isDirectory(userDir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(userDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete profile images of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private static String variantPrefix(String kind, String version, int size) {
+        return kind.toLowerCase(Locale.ROOT) + "-" + version + "-" + size;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
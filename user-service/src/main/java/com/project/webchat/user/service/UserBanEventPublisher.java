@@ -0,0 +1,38 @@
+package com.project.webchat.user.service;
+
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends ban changes to Kafka once the ban row is committed, so consumers that reload
+ * the ban lists after the event always see the new state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserBanEventPublisher {
+
+    private final KafkaTemplate<String, UserBanChangedEventV1> userBanChangedKafkaTemplate;
+
+    @Value("${app.kafka.topics.user-ban-changed:user.ban.changed.v1}")
+    private String userBanChangedTopic;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishUserBanChanged(UserBanChangedEventV1 event) {
+        log.info("Publishing user-ban-changed eventId={} userId={} targetUserId={} banned={} topic={}",
+                event.getEventId(), event.getUserId(), event.getTargetUserId(), event.isBanned(), userBanChangedTopic);
+        userBanChangedKafkaTemplate.send(userBanChangedTopic, event.getUserId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish user-ban-changed event {}: {}",
+                                event.getEventId(), ex.getMessage(), ex);
+                    }
+                });
+    }
+}
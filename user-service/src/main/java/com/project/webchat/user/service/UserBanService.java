@@ -2,14 +2,18 @@ package com.project.webchat.user.service;
 
 import com.project.webchat.shared.dto.UserBanStatusDTO;
 import com.project.webchat.shared.dto.UserDTO;
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
 import com.project.webchat.user.entity.UserBan;
 import com.project.webchat.user.repository.UserBanRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +22,7 @@ public class UserBanService {
 
     private final UserBanRepository userBanRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public void banUser(Long userId, Long targetUserId) {
         validatePair(userId, targetUserId);
@@ -28,11 +33,14 @@ public class UserBanService {
                 .userId(userId)
                 .bannedUserId(targetUserId)
                 .build());
+        publishBanChanged(userId, targetUserId, true);
     }
 
     public void unbanUser(Long userId, Long targetUserId) {
         validatePair(userId, targetUserId);
-        userBanRepository.deleteByUserIdAndBannedUserId(userId, targetUserId);
+        if (userBanRepository.deleteByUserIdAndBannedUserId(userId, targetUserId) > 0) {
+            publishBanChanged(userId, targetUserId, false);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -79,6 +87,18 @@ public class UserBanService {
         return userBanRepository.existsByUserIdAndBannedUserId(userId, targetUserId);
     }
 
+    // delivered to Kafka by UserBanEventPublisher after the transaction commits
+    private void publishBanChanged(Long userId, Long targetUserId, boolean banned) {
+        eventPublisher.publishEvent(UserBanChangedEventV1.builder()
+                .eventId(UUID.randomUUID())
+                .occurredAt(Instant.now())
+                .schemaVersion(UserBanChangedEventV1.SCHEMA_VERSION_V1)
+                .userId(userId)
+                .targetUserId(targetUserId)
+                .banned(banned)
+                .build());
+    }
+
     private void validatePair(Long userId, Long targetUserId) {
         if (userId == null || targetUserId == null) {
             throw new IllegalArgumentException("User id is required.");
@@ -0,0 +1,38 @@
+package com.project.webchat.user.service;
+
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends profile changes to Kafka once they are committed, so consumers that reload the user
+ * after the event always see the new state.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserProfileEventPublisher {
+
+    private final KafkaTemplate<String, UserProfileChangedEventV1> userProfileChangedKafkaTemplate;
+
+    @Value("${app.kafka.topics.user-profile-changed:user.profile.changed.v1}")
+    private String userProfileChangedTopic;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publishUserProfileChanged(UserProfileChangedEventV1 event) {
+        log.info("Publishing user-profile-changed eventId={} userId={} topic={}",
+                event.getEventId(), event.getUserId(), userProfileChangedTopic);
+        userProfileChangedKafkaTemplate.send(userProfileChangedTopic, event.getUserId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish user-profile-changed event {}: {}",
+                                event.getEventId(), ex.getMessage(), ex);
+                    }
+                });
+    }
+}
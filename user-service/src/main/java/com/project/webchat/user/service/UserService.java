@@ -15,7 +15,6 @@ import com.project.webchat.user.entity.User;
 import com.project.webchat.shared.exceptions.ResourceNotFoundException;
 import com.project.webchat.user.feign.ChatServiceClient;
 import com.project.webchat.user.repository.FriendRequestRepository;
-import com.project.webchat.user.repository.ProfileImageRepository;
 import com.project.webchat.user.repository.UserBanRepository;
 import com.project.webchat.user.repository.UserContactRepository;
 import com.project.webchat.user.repository.UserRepository;
@@ -28,9 +27,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -43,7 +45,7 @@ import java.util.stream.Collectors;
 public class UserService {
 
     private final UserRepository userRepository;
-    private final ProfileImageRepository profileImageRepository;
+    private final ProfileImageService profileImageService;
     private final UserContactRepository userContactRepository;
     private final FriendRequestRepository friendRequestRepository;
     private final UserBanRepository userBanRepository;
@@ -150,7 +152,7 @@ public class UserService {
         friendRequestRepository.deleteByFromUserIdOrToUserId(userId);
         userBanRepository.deleteByUserId(userId);
         userBanRepository.deleteByBannedUserId(userId);
-        profileImageRepository.deleteByUserId(userId);
+        profileImageService.deleteAll(userId);
     }
 
     private void anonymizeDeletedUser(User user) {
@@ -161,6 +163,8 @@ public class UserService {
         user.setFirstName(null);
         user.setLastName(null);
         user.setDescription(null);
+        user.setAvatarVersion(null);
+        user.setBackgroundVersion(null);
         user.setBirthday(null);
         user.setPhoneNumber(null);
         user.setCountryCode(null);
@@ -346,6 +350,27 @@ public class UserService {
         return convertToDTO(user);
     }
 
+    /**
+     * Bulk variant of {@link #getUserDTOById(Long)} for internal callers: one user query regardless of
+     * how many ids are requested (image presence is a column on the user). Unknown ids are omitted.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUserDTOsByIds(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return userRepository.findAllById(ids).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
     public UserDTO getUserDTOByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username" + username));
@@ -467,8 +492,8 @@ public class UserService {
                 .email(user.getEmail())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
-                .profilePicture(resolveAvatarPictureUrl(user.getId()))
-                .backgroundPicture(resolveBackgroundPictureUrl(user.getId()))
+                .profilePicture(avatarPictureUrl(user))
+                .backgroundPicture(backgroundPictureUrl(user))
                 .description(user.getDescription())
                 .birthday(user.getBirthday())
                 .phoneNumber(user.getPhoneNumber())
@@ -478,18 +503,15 @@ public class UserService {
                 .build();
     }
 
-    private String resolveAvatarPictureUrl(Long userId) {
-        if (!profileImageRepository.existsByUserIdAndKind(userId, ProfileImageService.KIND_AVATAR)) {
-            return null;
-        }
-        return "/api/users/" + userId + "/avatar";
+    // versioned by content hash: a new image gets a new URL, so clients may cache each one forever
+    private static String avatarPictureUrl(User user) {
+        return user.getAvatarVersion() == null ? null
+                : "/api/users/" + user.getId() + "/avatar?v=" + user.getAvatarVersion();
     }
 
-    private String resolveBackgroundPictureUrl(Long userId) {
-        if (!profileImageRepository.existsByUserIdAndKind(userId, ProfileImageService.KIND_BACKGROUND)) {
-            return null;
-        }
-        return "/api/users/" + userId + "/background";
+    private static String backgroundPictureUrl(User user) {
+        return user.getBackgroundVersion() == null ? null
+                : "/api/users/" + user.getId() + "/background?v=" + user.getBackgroundVersion();
     }
 
     private UserSearchResultDTO toSearchResultDTO(User user) {
@@ -499,7 +521,7 @@ public class UserService {
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .displayName(resolveDisplayName(user))
-                .avatar(resolveAvatarPictureUrl(user.getId()))
+                .avatar(avatarPictureUrl(user))
                 .build();
     }
 
@@ -0,0 +1,65 @@
+package com.project.webchat.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileImageCacheTest {
+
+    @Test
+    void put_evictsLeastRecentlyUsedOnceOverBudget() {
+        ProfileImageCache cache = new ProfileImageCache(10, 10);
+        cache.put(1L, "AVATAR", "a", 0, entry(4));
+        cache.put(2L, "AVATAR", "b", 0, entry(4));
+        cache.get(1L, "AVATAR", "a", 0);
+
+        cache.put(3L, "AVATAR", "c", 0, entry(4));
+
+        assertThat(cache.get(1L, "AVATAR", "a", 0)).isNotNull();
+        assertThat(cache.get(2L, "AVATAR", "b", 0)).isNull();
+        assertThat(cache.get(3L, "AVATAR", "c", 0)).isNotNull();
+        assertThat(cache.totalBytes()).isEqualTo(8);
+    }
+
+    @Test
+    void put_skipsEntriesAboveTheEntryLimit() {
+        ProfileImageCache cache = new ProfileImageCache(100, 5);
+
+        cache.put(1L, "BACKGROUND", "a", 0, entry(6));
+
+        assertThat(cache.get(1L, "BACKGROUND", "a", 0)).isNull();
+        assertThat(cache.totalBytes()).isZero();
+    }
+
+    @Test
+    void evictUser_dropsEveryImageOfTheUser() {
+        ProfileImageCache cache = new ProfileImageCache(100, 100);
+        cache.put(1L, "AVATAR", "a", 0, entry(3));
+        cache.put(1L, "BACKGROUND", "b", 0, entry(3));
+        cache.put(2L, "AVATAR", "c", 0, entry(3));
+
+        cache.evictUser(1L);
+
+        assertThat(cache.get(1L, "AVATAR", "a", 0)).isNull();
+        assertThat(cache.get(2L, "AVATAR", "c", 0)).isNotNull();
+        assertThat(cache.totalBytes()).isEqualTo(3);
+    }
+
+    @Test
+    void evict_dropsTheVersionInEverySize() {
+        ProfileImageCache cache = new ProfileImageCache(100, 100);
+        cache.put(1L, "AVATAR", "a", 0, entry(3));
+        cache.put(1L, "AVATAR", "a", 64, entry(2));
+        cache.put(1L, "AVATAR", "b", 64, entry(2));
+
+        cache.evict(1L, "AVATAR", "a");
+
+        assertThat(cache.get(1L, "AVATAR", "a", 64)).isNull();
+        assertThat(cache.get(1L, "AVATAR", "b", 64)).isNotNull();
+        assertThat(cache.totalBytes()).isEqualTo(2);
+    }
+
+    private static ProfileImageCache.Entry entry(int size) {
+        return new ProfileImageCache.Entry("image/png", 0, new byte[size]);
+    }
+}
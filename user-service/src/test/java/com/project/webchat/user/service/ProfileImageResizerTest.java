@@ -0,0 +1,102 @@
+package com.project.webchat.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileImageResizerTest {
+
+    private final ProfileImageResizer resizer = new ProfileImageResizer();
+
+    @Test
+    void render_opaqueImageBecomesSquareJpegs() throws Exception {
+        List<ProfileImageResizer.Rendition> renditions = resizer.render(encode(800, 500, BufferedImage.TYPE_INT_RGB));
+
+        assertThat(renditions).extracting(ProfileImageResizer.Rendition::size).containsExactly(64, 256);
+        assertThat(renditions).extracting(ProfileImageResizer.Rendition::extension).containsOnly("jpg");
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(renditions.get(0).data()));
+        assertThat(small.getWidth()).isEqualTo(64);
+        assertThat(small.getHeight()).isEqualTo(64);
+    }
+
+    @Test
+    void render_transparentImageKeepsItsAlphaAsPng() throws Exception {
+        List<ProfileImageResizer.Rendition> renditions = resizer.render(encode(300, 300, BufferedImage.TYPE_INT_ARGB));
+
+        assertThat(renditions).extracting(ProfileImageResizer.Rendition::size).containsExactly(64, 256);
+        assertThat(renditions).extracting(ProfileImageResizer.Rendition::extension).containsOnly("png");
+    }
+
+    @Test
+    void render_skipsSizesNotSmallerThanTheImage() throws Exception {
+        assertThat(resizer.render(encode(100, 120, BufferedImage.TYPE_INT_RGB)))
+                .extracting(ProfileImageResizer.Rendition::size)
+                .containsExactly(64);
+    }
+
+    @Test
+    void render_largePhotoIsSubsampledButKeepsEverySize() throws Exception {
+        List<ProfileImageResizer.Rendition> renditions = resizer.render(encode(4000, 3000, BufferedImage.TYPE_INT_RGB));
+
+        assertThat(renditions).extracting(ProfileImageResizer.Rendition::size).containsExactly(64, 256);
+        BufferedImage large = ImageIO.read(new ByteArrayInputStream(renditions.get(1).data()));
+        assertThat(large.getWidth()).isEqualTo(256);
+    }
+
+    @Test
+    void render_turnsSidewaysPhonePhotosUpright() throws Exception {
+        // stored landscape, red left and blue right, with EXIF orientation 6: shown red on top
+        BufferedImage stored = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 600; x++) {
+            for (int y = 0; y < 300; y++) {
+                stored.setRGB(x, y, x < 300 ? 0xFF0000 : 0x0000FF);
+            }
+        }
+
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(
+                resizer.render(jpegWithOrientation(stored, 6)).get(0).data()));
+
+        assertThat(isRed(small.getRGB(60, 5))).isTrue();
+        assertThat(isRed(small.getRGB(5, 60))).isFalse();
+    }
+
+    @Test
+    void render_undecodableFormatHasNoRenditions() throws Exception {
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII);
+
+        assertThat(resizer.render(webp)).isEmpty();
+    }
+
+    private static boolean isRed(int rgb) {
+        return (rgb >> 16 & 0xFF) > (rgb & 0xFF);
+    }
+
+    // a JPEG whose JFIF header is swapped for an EXIF block carrying the orientation, as cameras write it
+    private static byte[] jpegWithOrientation(BufferedImage image, int orientation) throws Exception {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", encoded);
+        byte[] jpeg = encoded.toByteArray();
+        byte[] exif = {'E', 'x', 'i', 'f', 0, 0, 'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1, 0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientation, 0, 0, 0, 0, 0, 0};
+        int app0End = 4 + ((jpeg[4] & 0xFF) << 8 | jpeg[5] & 0xFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(new byte[]{(byte) 0xFF, (byte) 0xE1, 0, (byte) (exif.length + 2)});
+        out.write(exif);
+        out.write(jpeg, app0End, jpeg.length - app0End);
+        return out.toByteArray();
+    }
+
+    private static byte[] encode(int width, int height, int type) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, type), "png", bytes);
+        return bytes.toByteArray();
+    }
+}
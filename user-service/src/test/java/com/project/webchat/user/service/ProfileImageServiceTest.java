@@ -0,0 +1,205 @@
+package com.project.webchat.user.service;
+
+import com.project.webchat.shared.events.v1.UserProfileChangedEventV1;
+import com.project.webchat.user.entity.ProfileImage;
+import com.project.webchat.user.entity.User;
+import com.project.webchat.user.repository.ProfileImageRepository;
+import com.project.webchat.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProfileImageServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 1, 2, 3};
+
+    @TempDir
+    Path imageDir;
+
+    @Mock
+    private ProfileImageRepository profileImageRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProfileImageStorage storage;
+    private ProfileImageCache cache;
+    private ProfileImageService profileImageService;
+
+    @BeforeEach
+    void setUp() {
+        storage = new ProfileImageStorage();
+        ReflectionTestUtils.setField(storage, "dir", imageDir.toString());
+        storage.init();
+        cache = new ProfileImageCache(1024, 1024);
+        profileImageService = new ProfileImageService(
+                profileImageRepository, userRepository, storage, cache, new ProfileImageResizer(),
+                new TransactionTemplate(transactionManager), eventPublisher);
+    }
+
+    @Test
+    void upload_storesTheFileAndRecordsItsVersionOnTheUser() {
+        User user = User.builder().id(1L).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.empty());
+
+        profileImageService.upload(1L, ProfileImageService.KIND_AVATAR,
+                new MockMultipartFile("file", "me.png", "image/png", PNG));
+
+        assertThat(user.getAvatarVersion()).hasSize(64);
+        assertThat(storage.pathOf(1L, ProfileImageService.KIND_AVATAR, user.getAvatarVersion())).hasBinaryContent(PNG);
+        verify(profileImageRepository).save(any(ProfileImage.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof UserProfileChangedEventV1 changed && changed.getUserId() == 1L));
+    }
+
+    @Test
+    void delete_avatarTellsConsumersToDropTheCachedProfile() {
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.of(ProfileImage.builder().userId(1L).kind("AVATAR").build()));
+
+        profileImageService.delete(1L, ProfileImageService.KIND_AVATAR);
+
+        verify(eventPublisher).publishEvent(any(UserProfileChangedEventV1.class));
+    }
+
+    @Test
+    void delete_backgroundIsNotPartOfTheCachedProfile() {
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_BACKGROUND))
+                .thenReturn(Optional.of(ProfileImage.builder().userId(1L).kind("BACKGROUND").build()));
+
+        profileImageService.delete(1L, ProfileImageService.KIND_BACKGROUND);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void upload_newVersionRemovesTheReplacedFile() throws Exception {
+        String previous = storage.write(1L, ProfileImageService.KIND_AVATAR, new byte[]{1});
+        User user = User.builder().id(1L).avatarVersion(previous).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.of(ProfileImage.builder().userId(1L).kind("AVATAR").version(previous).build()));
+
+        profileImageService.upload(1L, ProfileImageService.KIND_AVATAR,
+                new MockMultipartFile("file", "me.png", "image/png", PNG));
+
+        assertThat(user.getAvatarVersion()).isNotEqualTo(previous);
+        assertThat(storage.pathOf(1L, ProfileImageService.KIND_AVATAR, previous)).doesNotExist();
+    }
+
+    @Test
+    void load_knownVersionIsServedFromMemoryWithoutAQuery() throws Exception {
+        String version = storage.write(1L, ProfileImageService.KIND_AVATAR, PNG);
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.of(ProfileImage.builder()
+                        .userId(1L).kind("AVATAR").contentType("image/png").version(version).build()));
+
+        ProfileImageService.StoredImage first = profileImageService.load(1L, ProfileImageService.KIND_AVATAR, null, 0);
+        ProfileImageService.StoredImage second = profileImageService.load(1L, ProfileImageService.KIND_AVATAR, version, 0);
+
+        assertThat(first.version()).isEqualTo(version);
+        assertThat(second.body().getContentAsByteArray()).isEqualTo(PNG);
+        verify(profileImageRepository).findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR);
+    }
+
+    @Test
+    void upload_avatarIsStoredInEveryFixedSize() throws Exception {
+        User user = User.builder().id(1L).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.empty());
+
+        profileImageService.upload(1L, ProfileImageService.KIND_AVATAR,
+                new MockMultipartFile("file", "me.png", "image/png", png(600, 400)));
+
+        String version = user.getAvatarVersion();
+        assertThat(storage.variantPathOf(1L, ProfileImageService.KIND_AVATAR, version, 64)).isNotNull();
+        assertThat(storage.variantPathOf(1L, ProfileImageService.KIND_AVATAR, version, 256)).isNotNull();
+    }
+
+    @Test
+    void upload_rendersBeforeTheTransactionStarts() throws Exception {
+        User user = User.builder().id(1L).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.empty());
+        List<Boolean> renderedBeforeTransaction = new ArrayList<>();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            try (Stream<Path> files = Files.walk(imageDir)) {
+                renderedBeforeTransaction.add(files.anyMatch(file -> file.getFileName().toString().contains("-64.")));
+            }
+            return null;
+        });
+
+        profileImageService.upload(1L, ProfileImageService.KIND_AVATAR,
+                new MockMultipartFile("file", "me.png", "image/png", png(600, 400)));
+
+        assertThat(renderedBeforeTransaction).containsExactly(true);
+    }
+
+    @Test
+    void load_sizeWithoutRenditionFallsBackToTheOriginal() throws Exception {
+        String version = storage.write(1L, ProfileImageService.KIND_AVATAR, PNG);
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_AVATAR))
+                .thenReturn(Optional.of(ProfileImage.builder()
+                        .userId(1L).kind("AVATAR").contentType("image/png").version(version).build()));
+
+        ProfileImageService.StoredImage image = profileImageService.load(1L, ProfileImageService.KIND_AVATAR, version, 64);
+
+        assertThat(image.edge()).isEqualTo(ProfileImageService.ORIGINAL_SIZE);
+        assertThat(image.body().getContentAsByteArray()).isEqualTo(PNG);
+    }
+
+    @Test
+    void load_unsupportedSizeIsRejected() {
+        assertThatThrownBy(() -> profileImageService.load(1L, ProfileImageService.KIND_AVATAR, null, 17))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void load_missingImageIsNull() {
+        when(profileImageRepository.findByUserIdAndKind(1L, ProfileImageService.KIND_BACKGROUND))
+                .thenReturn(Optional.empty());
+
+        assertThat(profileImageService.load(1L, ProfileImageService.KIND_BACKGROUND, "stale", 0)).isNull();
+        verify(userRepository, never()).findById(any());
+    }
+
+    static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", bytes);
+        return bytes.toByteArray();
+    }
+}
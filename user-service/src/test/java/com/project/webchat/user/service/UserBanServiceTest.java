@@ -0,0 +1,67 @@
+package com.project.webchat.user.service;
+
+import com.project.webchat.shared.events.v1.UserBanChangedEventV1;
+import com.project.webchat.user.entity.UserBan;
+import com.project.webchat.user.repository.UserBanRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserBanServiceTest {
+
+    @Mock
+    private UserBanRepository userBanRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private UserBanService userBanService;
+
+    @Test
+    void banUser_publishesBanChange() {
+        when(userBanRepository.existsByUserIdAndBannedUserId(1L, 2L)).thenReturn(false);
+
+        userBanService.banUser(1L, 2L);
+
+        ArgumentCaptor<UserBanChangedEventV1> event = ArgumentCaptor.forClass(UserBanChangedEventV1.class);
+        verify(userBanRepository).save(any(UserBan.class));
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getUserId()).isEqualTo(1L);
+        assertThat(event.getValue().getTargetUserId()).isEqualTo(2L);
+        assertThat(event.getValue().isBanned()).isTrue();
+    }
+
+    @Test
+    void banUser_existingBan_publishesNothing() {
+        when(userBanRepository.existsByUserIdAndBannedUserId(1L, 2L)).thenReturn(true);
+
+        userBanService.banUser(1L, 2L);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void unbanUser_publishesOnlyWhenABanWasRemoved() {
+        when(userBanRepository.deleteByUserIdAndBannedUserId(1L, 2L)).thenReturn(1L, 0L);
+
+        userBanService.unbanUser(1L, 2L);
+        userBanService.unbanUser(1L, 2L);
+
+        ArgumentCaptor<UserBanChangedEventV1> event = ArgumentCaptor.forClass(UserBanChangedEventV1.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().isBanned()).isFalse();
+    }
+}
@@ -2,7 +2,8 @@ import { useState, useEffect, useRef } from 'react';
 import { Box, CircularProgress } from '@mui/material';
 import api from '../../services/api';
 
-const AuthenticatedImage = ({ attachmentId, alt, onLoad, ...props }) => {
+// variant: 'thumb' | 'preview' downscaled rendition, only passed when the attachment advertises it
+const AuthenticatedImage = ({ attachmentId, variant, alt, onLoad, ...props }) => {
     const [imageUrl, setImageUrl] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(false);
@@ -25,9 +26,18 @@ const AuthenticatedImage = ({ attachmentId, alt, onLoad, ...props }) => {
             setImageUrl(null);
 
             try {
-                const response = await api.get(`/api/chat/attachments/${attachmentId}`, {
+                const fetchImage = (params) => api.get(`/api/chat/attachments/${attachmentId}`, {
                     responseType: 'blob',
+                    params,
                 });
+                let response;
+                try {
+                    response = await fetchImage(variant ? { variant } : undefined);
+                } catch (variantError) {
+                    // a missing rendition falls back to the original
+                    if (!variant) throw variantError;
+                    response = await fetchImage(undefined);
+                }
 
                 if (cancelled) return;
 
@@ -54,7 +64,7 @@ const AuthenticatedImage = ({ attachmentId, alt, onLoad, ...props }) => {
             revokeBlob();
             setImageUrl(null);
         };
-    }, [attachmentId]);
+    }, [attachmentId, variant]);
 
     if (loading) {
         return (
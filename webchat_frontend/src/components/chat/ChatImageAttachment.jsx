@@ -103,6 +103,7 @@ const ChatImageAttachment = ({
     >
       <AuthenticatedImage
         attachmentId={attachment.id}
+        variant={attachment.previewUrl ? 'preview' : undefined}
         alt={attachment.filename || 'Image'}
         onLoad={handleImageLoad}
         sx={{
@@ -200,6 +201,7 @@ export const ChatImageGridCell = ({ attachment, onOpen }) => {
     >
       <AuthenticatedImage
         attachmentId={attachment.id}
+        variant={attachment.thumbnailUrl ? 'thumb' : undefined}
         alt={attachment.filename || 'Image'}
         onLoad={() => setLoaded(true)}
         sx={{
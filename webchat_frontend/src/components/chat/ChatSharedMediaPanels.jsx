@@ -118,6 +118,7 @@ const PhotosPanel = ({ items, glassPanel }) => {
         >
           <AuthenticatedImage
             attachmentId={attachment.id}
+            variant={attachment.thumbnailUrl ? 'thumb' : undefined}
             alt={attachment.filename || 'Photo'}
             sx={{
               width: '100%',
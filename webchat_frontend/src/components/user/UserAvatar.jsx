@@ -2,6 +2,7 @@ import React, { useEffect, useMemo, useState } from 'react';
 import { Avatar } from '@mui/material';
 import {
   getUserAvatarLetter,
+  pickAvatarImageSize,
   resolveUserAvatarSrc,
   withMediaCacheKey,
 } from '../../utils/userAvatar';
@@ -20,9 +21,12 @@ const UserAvatar = ({
   disableMediaCache = false,
   alt,
   variant = 'rounded',
+  /** Rendition to request (64, 256); defaults to the smallest that suits sx.width. */
+  imageSize,
   sx,
   ...avatarProps
 }) => {
+  const requestedImageSize = imageSize ?? pickAvatarImageSize(sx?.width);
   const rawSrc = useMemo(() => {
     if (srcOverride) {
       return withMediaCacheKey(
@@ -30,8 +34,8 @@ const UserAvatar = ({
         cacheKey ?? user?.avatarRevision ?? user?.groupPhotoRevision,
       );
     }
-    return resolveUserAvatarSrc(user);
-  }, [srcOverride, cacheKey, user]);
+    return resolveUserAvatarSrc(user, requestedImageSize);
+  }, [srcOverride, cacheKey, user, requestedImageSize]);
 
   const mediaCacheKey =
     cacheKey ?? user?.avatarRevision ?? user?.groupPhotoRevision ?? null;
@@ -239,11 +239,12 @@ const useWebSocket = (user, currentChatId, currentUserId, userEventHandlers = {}
         useChatStore.getState().setTyping(event.userId, isTyping);
       },
       onRead: (event) => {
-        const mk = useChatStore.getState().markMessagesRead;
-        if (event.messageIds && event.messageIds.length > 0) {
-          mk(event.messageIds);
+        if (event.readUpTo) {
+          useChatStore.getState().markMessagesReadUpTo(event.readUpTo, event.userId);
+        } else if (event.messageIds && event.messageIds.length > 0) {
+          useChatStore.getState().markMessagesRead(event.messageIds);
         } else if (event.messageId) {
-          mk([event.messageId]);
+          useChatStore.getState().markMessagesRead([event.messageId]);
         }
       },
       onMessageDeleted: (event) => {
@@ -210,7 +210,7 @@ const useChatStore = create((set, get) => ({
     const revision = Date.now();
     const bustedPicture =
       profilePicture != null && String(profilePicture).trim() !== ''
-        ? appendCacheBust(stripMediaCacheKey(profilePicture), revision)
+        ? appendCacheBust(profilePicture, revision)
         : null;
 
     const patchUser = (user) => {
@@ -357,6 +357,20 @@ const useChatStore = create((set, get) => ({
     }));
   },
   
+  // read receipts carry the reader's watermark: everything not sent by them up to it is read
+  markMessagesReadUpTo: (readUpTo, readerId) => {
+    const upTo = new Date(readUpTo).getTime();
+    if (Number.isNaN(upTo)) return;
+    set((state) => ({
+      messages: state.messages.map((m) =>
+        !m.isRead && Number(m.senderId ?? m.sender?.id) !== Number(readerId)
+          && new Date(m.timestamp).getTime() <= upTo
+          ? { ...m, isRead: true, read: true, readAt: m.readAt || new Date().toISOString() }
+          : m
+      ),
+    }));
+  },
+
   // Always create a new set for reactivity when updating online users
   setOnlineUsers: (users) => {
     const usersArray = Array.isArray(users) ? users : [];
@@ -48,8 +48,21 @@ export function stripMediaCacheKey(url) {
   return `${path}${nextQuery}`;
 }
 
+const CONTENT_HASH_VERSION = /^[0-9a-f]{64}$/i;
+
+/** True when the server versioned the URL by content hash (?v=<sha256>); such URLs never need busting. */
+export function hasMediaVersion(url) {
+  if (!url || typeof url !== 'string') return false;
+  const query = url.trim().split('#')[0].split('?')[1] || '';
+  return query.split('&').some((p) => {
+    const [key, value = ''] = p.split('=');
+    return key === 'v' && CONTENT_HASH_VERSION.test(value);
+  });
+}
+
 /** Bust browser cache for stable API image URLs (not data: URLs). */
 export function appendCacheBust(url, bust = Date.now()) {
+  if (hasMediaVersion(url)) return url.trim();
   const base = stripMediaCacheKey(url);
   if (!base || typeof base !== 'string') return base;
   const trimmed = base.trim();
@@ -60,7 +73,7 @@ export function appendCacheBust(url, bust = Date.now()) {
 
 /** Apply revision to API URLs (?v=) and data: URLs (#rev=) so <img> reloads. */
 export function withMediaCacheKey(url, cacheKey) {
-  if (!url || cacheKey == null) return url;
+  if (!url || cacheKey == null || hasMediaVersion(url)) return url;
   const trimmed = stripMediaCacheKey(url).trim();
   if (!trimmed) return url;
   if (trimmed.startsWith('data:')) {
@@ -69,14 +82,32 @@ export function withMediaCacheKey(url, cacheKey) {
   return appendCacheBust(trimmed, cacheKey);
 }
 
-export function resolveUserAvatarSrc(user) {
+/** Square renditions the avatar endpoint serves with ?size=; anything larger uses the original. */
+export const AVATAR_IMAGE_SIZES = [64, 256];
+
+/** Smallest rendition that still looks sharp at the given CSS size (icons up to 48px use 64). */
+export function pickAvatarImageSize(displayPx) {
+  if (typeof displayPx !== 'number' || displayPx <= 48) return AVATAR_IMAGE_SIZES[0];
+  return displayPx <= 128 ? AVATAR_IMAGE_SIZES[1] : undefined;
+}
+
+/** Ask the avatar endpoint for a resized rendition; other URLs are returned unchanged. */
+export function withAvatarSize(url, size) {
+  if (!size || !isApiUserAvatarUrl(url)) return url;
+  const [base, hash = ''] = url.trim().split('#');
+  const params = (base.split('?')[1] || '').split('&').filter((p) => p && p.split('=')[0] !== 'size');
+  params.push(`size=${size}`);
+  return `${base.split('?')[0]}?${params.join('&')}${hash ? `#${hash}` : ''}`;
+}
+
+export function resolveUserAvatarSrc(user, size) {
   if (!hasUserAvatarImage(user)) {
     return undefined;
   }
   const url = user.profilePicture ?? user.avatar;
   const trimmed = typeof url === 'string' ? url.trim() : undefined;
   if (!trimmed) return undefined;
-  return withMediaCacheKey(trimmed, user?.avatarRevision);
+  return withAvatarSize(withMediaCacheKey(trimmed, user?.avatarRevision), size);
 }
 
 /** Bust cache for room avatars (HTTP paths only; data: URLs use groupPhotoRevision + #rev=). */
@@ -6,6 +6,7 @@ import {
   resolveRoomAvatarSrc,
   resolveUserAvatarSrc,
   stripMediaCacheKey,
+  withAvatarSize,
   withMediaCacheKey,
 } from './userAvatar';
 
@@ -36,6 +37,12 @@ describe('appendCacheBust', () => {
   it('replaces an existing v= param instead of stacking', () => {
     expect(appendCacheBust('/api/users/1/avatar?v=1', 2)).toBe('/api/users/1/avatar?v=2');
   });
+
+  it('keeps a content-hash version set by the server', () => {
+    const url = `/api/users/1/avatar?v=${'ab'.repeat(32)}`;
+    expect(appendCacheBust(url, 2)).toBe(url);
+    expect(withMediaCacheKey(url, 3)).toBe(url);
+  });
 });
 
 describe('withMediaCacheKey', () => {
@@ -91,3 +98,15 @@ describe('hasUserAvatarImage', () => {
     expect(hasUserAvatarImage({ profilePicture: '' })).toBe(false);
   });
 });
+
+describe('withAvatarSize', () => {
+  it('requests a rendition from the avatar endpoint', () => {
+    expect(withAvatarSize('/api/users/1/avatar?v=abc', 64)).toBe('/api/users/1/avatar?v=abc&size=64');
+    expect(withAvatarSize('/api/users/1/avatar?size=256', 64)).toBe('/api/users/1/avatar?size=64');
+  });
+
+  it('leaves other URLs and missing sizes alone', () => {
+    expect(withAvatarSize('data:image/png;base64,x', 64)).toBe('data:image/png;base64,x');
+    expect(withAvatarSize('/api/users/1/avatar', undefined)).toBe('/api/users/1/avatar');
+  });
+});